@@ -0,0 +1,22 @@
+import csc512.benchmarks.Workload;
+
+
+/**
+ * Owner: ShaownS
+ * File: ParallelScanWorkload.java
+ * Package: 
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Scans the whole file into one Scanner.TokenBuffer with ParallelScanner, on as many
+ * threads as there are processors. Only CSC512Scanner has ParallelScanner.
+ */
+public class ParallelScanWorkload implements Workload {
+	
+	public long run(String sourceFile) throws Exception {
+		int threads = Runtime.getRuntime().availableProcessors();
+		return ParallelScanner.scan(sourceFile, threads).size();
+	}
+}
@@ -0,0 +1,24 @@
+import csc512.benchmarks.Workload;
+
+
+/**
+ * Owner: ShaownS
+ * File: ParseWorkload.java
+ * Package: 
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Parses the whole file from <program>. Loaded with CSC512Parser this counts the
+ * variables, functions and statements. Loaded with CSC512CodeGenerator this also 
+ * writes the generated code file.
+ */
+public class ParseWorkload implements Workload {
+	
+	public long run(String sourceFile) throws Exception {
+		Parser parser = new Parser(sourceFile);
+		parser.program();
+		return 1;
+	}
+}
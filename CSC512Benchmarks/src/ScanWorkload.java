@@ -0,0 +1,28 @@
+import csc512.benchmarks.Workload;
+
+
+/**
+ * Owner: ShaownS
+ * File: ScanWorkload.java
+ * Package: 
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Scans the whole file one token at a time with hasMoreTokens/getNextToken.
+ */
+public class ScanWorkload implements Workload {
+	
+	public long run(String sourceFile) throws Exception {
+		Scanner scanner = new Scanner(sourceFile);
+		long count = 0;
+		while (scanner.hasMoreTokens()) {
+			Scanner.Token token = scanner.getNextToken();
+			if (token != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,32 @@
+import csc512.benchmarks.Workload;
+
+
+/**
+ * Owner: ShaownS
+ * File: TokenBufferWorkload.java
+ * Package: 
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Scans the whole file in batches into a Scanner.TokenBuffer, no token text is made.
+ */
+public class TokenBufferWorkload implements Workload {
+	
+	// Number of tokens scanned per batch.
+	private static final int BATCH_SIZE = 4096;
+	
+	public long run(String sourceFile) throws Exception {
+		Scanner scanner = new Scanner(sourceFile);
+		Scanner.TokenBuffer buffer = new Scanner.TokenBuffer(BATCH_SIZE);
+		long count = 0;
+		int n;
+		do {
+			buffer.clear();
+			n = scanner.scanTokens(buffer, BATCH_SIZE);
+			count += n;
+		} while (n > 0);
+		return count;
+	}
+}
@@ -0,0 +1,33 @@
+package csc512.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Owner: ShaownS
+ * File: BenchmarkMain.java
+ * Package: csc512.benchmarks
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Runs JMH with the given options, writing the results as JSON to jmh-result.json
+ * unless another result format or file is given.
+ */
+public class BenchmarkMain {
+	
+	public static void main(String[] args) throws Exception {
+		List<String> options = new ArrayList<String>(Arrays.asList(args));
+		if (!options.contains("-rf")) {
+			options.add("-rf");
+			options.add("json");
+		}
+		if (!options.contains("-rff")) {
+			options.add("-rff");
+			options.add("jmh-result.json");
+		}
+		org.openjdk.jmh.Main.main(options.toArray(new String[options.size()]));
+	}
+}
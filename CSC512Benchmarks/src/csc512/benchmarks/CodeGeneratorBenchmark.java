@@ -0,0 +1,64 @@
+package csc512.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Owner: ShaownS
+ * File: CodeGeneratorBenchmark.java
+ * Package: csc512.benchmarks
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Time to generate the code for a whole synthetic program with the CSC512CodeGenerator
+ * project, from scanning the input to writing the '_gen' file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodeGeneratorBenchmark {
+	
+	// Input size, 1GB and others can be given with -p size=1GB.
+	@Param({"1KB", "1MB", "64MB"})
+	public String size;
+	
+	private String sourceFile;
+	private Workload generate;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		sourceFile = SourceGenerator.getProgram(size).getPath();
+		generate = ModuleLoader.load("CSC512CodeGenerator", "ParseWorkload");
+	}
+	
+	// The generated file is written to the working directory, remove it when done.
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		String name = new File(sourceFile).getName();
+		new File(name.substring(0, name.lastIndexOf('.')) + "_gen.c").delete();
+	}
+	
+	@Benchmark
+	public long generate() throws Exception {
+		return generate.run(sourceFile);
+	}
+}
@@ -0,0 +1,75 @@
+package csc512.benchmarks;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * Owner: ShaownS
+ * File: ModuleLoader.java
+ * Package: csc512.benchmarks
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Class loader for one of the projects. The projects all have their Scanner and Parser
+ * in the default package, so each one is loaded on its own, from the classes the build
+ * copies under modules/<project>/. The workloads are also in the default package and 
+ * are loaded again by every project loader, so each one links against the Scanner and 
+ * Parser of that project. Everything in a named package (this package, JMH) comes from
+ * the parent loader.
+ */
+public class ModuleLoader extends URLClassLoader {
+	
+	static {
+		registerAsParallelCapable();
+	}
+	
+	private ModuleLoader(URL[] urls, ClassLoader parent) {
+		super(urls, parent);
+	}
+	
+	// Creates the given workload (a default package class) of the project.
+	public static Workload load(String project, String workload) throws ReflectiveOperationException {
+		ClassLoader parent = ModuleLoader.class.getClassLoader();
+		URL[] urls = new URL[] { 
+				getBase(parent, "modules/" + project + "/", "Scanner.class"), 
+				getBase(parent, "", workload + ".class") };
+		
+		Class<?> c = Class.forName(workload, true, new ModuleLoader(urls, parent));
+		return (Workload) c.getDeclaredConstructor().newInstance();
+	}
+	
+	// Root of the class path entry that has the given class file.
+	private static URL getBase(ClassLoader loader, String dir, String classFile) {
+		URL url = loader.getResource(dir + classFile);
+		if (url == null) {
+			throw new IllegalStateException("Missing " + dir + classFile + ", build the projects first.");
+		}
+		String s = url.toString();
+		try {
+			return new URL(s.substring(0, s.length() - classFile.length()));
+		} catch (MalformedURLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	// Default package classes are looked up here first, everything else goes to the parent.
+	@Override
+	protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+		if (name.indexOf('.') >= 0) {
+			return super.loadClass(name, resolve);
+		}
+		synchronized (getClassLoadingLock(name)) {
+			Class<?> c = findLoadedClass(name);
+			if (c == null) {
+				c = findClass(name);
+			}
+			if (resolve) {
+				resolveClass(c);
+			}
+			return c;
+		}
+	}
+}
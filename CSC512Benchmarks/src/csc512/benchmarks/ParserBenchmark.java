@@ -0,0 +1,76 @@
+package csc512.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Owner: ShaownS
+ * File: ParserBenchmark.java
+ * Package: csc512.benchmarks
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Time to parse a whole synthetic program with the CSC512Parser project, which only
+ * counts the variables, functions and statements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+	
+	// Input size, 1GB and others can be given with -p size=1GB.
+	@Param({"1KB", "1MB", "64MB"})
+	public String size;
+	
+	private String sourceFile;
+	private Workload parse;
+	private PrintStream out;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		sourceFile = SourceGenerator.getProgram(size).getPath();
+		parse = ModuleLoader.load("CSC512Parser", "ParseWorkload");
+		
+		// The parser prints the counts on every run, keep them out of the results.
+		out = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+			
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		}));
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.setOut(out);
+	}
+	
+	@Benchmark
+	public long parse() throws Exception {
+		return parse.run(sourceFile);
+	}
+}
@@ -0,0 +1,490 @@
+package csc512.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Owner: ShaownS
+ * File: ProgramGenerator.java
+ * Package: csc512.benchmarks
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Generates random programs from the grammar in the Parser production comments. The
+ * programs are accepted by both parsers and by the code generator: global declarations,
+ * then functions (some declared before they are defined) with parameters, local scalars
+ * and arrays, and statements nested up to a given depth, then main. Only declared names
+ * are used, arrays are always indexed, functions only call themselves or earlier ones
+ * with the right number of arguments, and break and continue only appear in loops.
+ *
+ * The same seed and settings always give the same program. The program is written one
+ * function at a time, so any size can be generated with little memory.
+ *
+ * Can be run on its own, see usage() for the options.
+ */
+public class ProgramGenerator {
+
+	private static final String[] ADD_OPERATORS = {"+", "-"};
+	private static final String[] MULTIPLY_OPERATORS = {"*", "/"};
+	private static final String[] CONDITION_OPERATORS = {"==", "!=", ">", ">=", "<", "<="};
+	private static final String[] LOGICAL_OPERATORS = {"&&", "||"};
+	private static final String[] GLOBAL_META_STATEMENTS = {"#include <stdio.h>", "#define LIMIT 100", "// Global section."};
+
+	// Settings.
+	private long seed = 1;
+	private int functionCount = 100;
+	private long targetSize = 0;
+	private int maxDepth = 3;
+	private int maxStatements = 6;
+	private int maxExpressionWidth = 4;
+	private int maxArraySize = 16;
+	private double metaDensity = 0.05;
+
+	// State of the program being written.
+	private SplittableRandom random;
+	private StringBuilder sb;
+
+	// Global names, scalars g0.. and arrays with their sizes.
+	private int globalScalars;
+	private int globalArrays;
+	private int[] globalArraySizes;
+
+	// Functions written so far, the number of parameters of each and whether it returns a value.
+	private int functions;
+	private int[] functionArity;
+	private boolean[] functionReturns;
+
+	// Locals of the function being written, parameters p0.., scalars v0.. and arrays a0..
+	private int parameters;
+	private int localScalars;
+	private int localArrays;
+	private int[] localArraySizes;
+	private boolean returnsValue;
+
+	public ProgramGenerator setSeed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	// Number of functions besides main, used when no target size is set.
+	public ProgramGenerator setFunctionCount(int functionCount) {
+		this.functionCount = Math.max(functionCount, 0);
+		return this;
+	}
+
+	// When above 0, functions are added until the program has at least this many bytes.
+	public ProgramGenerator setTargetSize(long targetSize) {
+		this.targetSize = Math.max(targetSize, 0);
+		return this;
+	}
+
+	// Deepest nesting of if and while statements, 0 for none.
+	public ProgramGenerator setMaxDepth(int maxDepth) {
+		this.maxDepth = Math.max(maxDepth, 0);
+		return this;
+	}
+
+	// Most statements in one block.
+	public ProgramGenerator setMaxStatements(int maxStatements) {
+		this.maxStatements = Math.max(maxStatements, 1);
+		return this;
+	}
+
+	// Most factors in one expression.
+	public ProgramGenerator setMaxExpressionWidth(int maxExpressionWidth) {
+		this.maxExpressionWidth = Math.max(maxExpressionWidth, 1);
+		return this;
+	}
+
+	// Largest declared array.
+	public ProgramGenerator setMaxArraySize(int maxArraySize) {
+		this.maxArraySize = Math.max(maxArraySize, 1);
+		return this;
+	}
+
+	// Chance of a meta statement line before each statement, 0 to 1.
+	public ProgramGenerator setMetaDensity(double metaDensity) {
+		this.metaDensity = Math.min(Math.max(metaDensity, 0), 1);
+		return this;
+	}
+
+	// Writes the program, returns the number of bytes written.
+	public long write(Writer out) throws IOException {
+		random = new SplittableRandom(seed);
+		sb = new StringBuilder();
+		functions = 0;
+		functionArity = new int[64];
+		functionReturns = new boolean[64];
+		long written = 0;
+
+		appendGlobals();
+		written += flush(out);
+
+		while (targetSize > 0 ? written < targetSize : functions < functionCount) {
+			appendFunction();
+			written += flush(out);
+		}
+
+		appendMain();
+		written += flush(out);
+		out.flush();
+		return written;
+	}
+
+	private long flush(Writer out) throws IOException {
+		int length = sb.length();
+		out.append(sb);
+		sb.setLength(0);
+		return length;
+	}
+
+	private void appendGlobals() {
+		int metas = 1 + random.nextInt(GLOBAL_META_STATEMENTS.length);
+		for (int i = 0; i < metas; i++) {
+			sb.append(GLOBAL_META_STATEMENTS[i]).append('\n');
+		}
+
+		globalScalars = 1 + random.nextInt(4);
+		globalArrays = random.nextInt(3);
+		globalArraySizes = new int[globalArrays];
+		sb.append("int ");
+		for (int i = 0; i < globalScalars; i++) {
+			sb.append(i > 0 ? ", " : "").append("g").append(i);
+		}
+		sb.append(";\n");
+		for (int i = 0; i < globalArrays; i++) {
+			globalArraySizes[i] = 1 + random.nextInt(maxArraySize);
+			sb.append("int ga").append(i).append("[").append(globalArraySizes[i]).append("];\n");
+		}
+		sb.append('\n');
+	}
+
+	private void appendFunction() {
+		int index = functions;
+		int arity = random.nextInt(4);
+		boolean returns = random.nextInt(5) != 0;
+		String name = "f" + index;
+
+		// Sometimes declare the function first.
+		if (random.nextInt(8) == 0) {
+			appendHeader(name, arity, returns);
+			sb.append(";\n");
+		}
+
+		appendHeader(name, arity, returns);
+		sb.append(" {\n");
+
+		// Record the function before the body, so it can call itself.
+		if (functions == functionArity.length) {
+			functionArity = Arrays.copyOf(functionArity, functions * 2);
+			functionReturns = Arrays.copyOf(functionReturns, functions * 2);
+		}
+		functionArity[functions] = arity;
+		functionReturns[functions] = returns;
+		functions++;
+
+		parameters = arity;
+		returnsValue = returns;
+		appendLocals();
+		appendStatements(1, false);
+		appendReturn(1);
+		sb.append("}\n\n");
+	}
+
+	private void appendMain() {
+		sb.append("int main(void) {\n");
+		parameters = 0;
+		returnsValue = true;
+		appendLocals();
+		appendStatements(1, false);
+
+		// Call the last few functions.
+		for (int i = Math.max(functions - 3, 0); i < functions; i++) {
+			indent(1);
+			appendCall(i);
+			sb.append(";\n");
+		}
+		indent(1);
+		sb.append("return 0;\n");
+		sb.append("}\n");
+	}
+
+	private void appendHeader(String name, int arity, boolean returns) {
+		sb.append(returns ? "int " : "void ").append(name).append("(");
+		if (arity == 0) {
+			sb.append(random.nextBoolean() ? "void" : "");
+		}
+		for (int i = 0; i < arity; i++) {
+			sb.append(i > 0 ? ", " : "").append("int p").append(i);
+		}
+		sb.append(")");
+	}
+
+	private void appendLocals() {
+		localScalars = 1 + random.nextInt(4);
+		localArrays = random.nextInt(3);
+		if (localArraySizes == null || localArraySizes.length < localArrays) {
+			localArraySizes = new int[4];
+		}
+
+		indent(1);
+		sb.append("int ");
+		for (int i = 0; i < localScalars; i++) {
+			sb.append(i > 0 ? ", " : "").append("v").append(i);
+		}
+		for (int i = 0; i < localArrays; i++) {
+			localArraySizes[i] = 1 + random.nextInt(maxArraySize);
+			sb.append(", a").append(i).append("[").append(localArraySizes[i]).append("]");
+		}
+		sb.append(";\n");
+	}
+
+	private void appendStatements(int depth, boolean inLoop) {
+		int count = 1 + random.nextInt(maxStatements);
+		for (int i = 0; i < count; i++) {
+			if (random.nextDouble() < metaDensity) {
+				sb.append("// Statement ").append(i).append(" at depth ").append(depth).append(".\n");
+			}
+			appendStatement(depth, inLoop);
+		}
+	}
+
+	private void appendStatement(int depth, boolean inLoop) {
+		int choice = random.nextInt(100);
+		indent(depth);
+		if (choice < 35) {
+			appendScalar();
+			sb.append(" = ");
+			appendExpression(maxExpressionWidth, 2);
+			sb.append(";\n");
+		} else if (choice < 48 && hasArrays()) {
+			appendArrayElement(1);
+			sb.append(" = ");
+			appendExpression(maxExpressionWidth, 2);
+			sb.append(";\n");
+		} else if (choice < 56 && functions > 0) {
+			appendCall(random.nextInt(functions));
+			sb.append(";\n");
+		} else if (choice < 68 && depth <= maxDepth) {
+			sb.append("if (");
+			appendConditionExpression();
+			sb.append(") {\n");
+			appendStatements(depth + 1, inLoop);
+			indent(depth);
+			sb.append("}\n");
+		} else if (choice < 78 && depth <= maxDepth) {
+			sb.append("while (");
+			appendConditionExpression();
+			sb.append(") {\n");
+			appendStatements(depth + 1, true);
+			indent(depth);
+			sb.append("}\n");
+		} else if (choice < 84) {
+			sb.append("write(");
+			appendExpression(maxExpressionWidth, 2);
+			sb.append(");\n");
+		} else if (choice < 88) {
+			sb.append("read(");
+			appendScalar();
+			sb.append(");\n");
+		} else if (choice < 92) {
+			sb.append("print(\"value ").append(random.nextInt(1000)).append("\");\n");
+		} else if (choice < 96 && inLoop) {
+			sb.append(random.nextBoolean() ? "break;\n" : "continue;\n");
+		} else {
+			// Fall back to a plain assignment.
+			appendScalar();
+			sb.append(" = ");
+			appendFactor(1);
+			sb.append(";\n");
+		}
+	}
+
+	private void appendReturn(int depth) {
+		indent(depth);
+		if (returnsValue) {
+			sb.append("return ");
+			appendExpression(maxExpressionWidth, 2);
+			sb.append(";\n");
+		} else {
+			sb.append("return;\n");
+		}
+	}
+
+	private void appendConditionExpression() {
+		appendCondition();
+		if (random.nextInt(3) == 0) {
+			sb.append(" ").append(pick(LOGICAL_OPERATORS)).append(" ");
+			appendCondition();
+		}
+	}
+
+	private void appendCondition() {
+		appendExpression(Math.max(maxExpressionWidth / 2, 1), 1);
+		sb.append(" ").append(pick(CONDITION_OPERATORS)).append(" ");
+		appendExpression(Math.max(maxExpressionWidth / 2, 1), 1);
+	}
+
+	// Expression with up to width factors, nesting is how deep parentheses, indexes and calls may go.
+	private void appendExpression(int width, int nesting) {
+		int factors = 1 + random.nextInt(width);
+		appendFactor(nesting);
+		for (int i = 1; i < factors; i++) {
+			String op = random.nextBoolean() ? pick(ADD_OPERATORS) : pick(MULTIPLY_OPERATORS);
+			sb.append(" ").append(op).append(" ");
+			appendFactor(nesting);
+		}
+	}
+
+	private void appendFactor(int nesting) {
+		int choice = random.nextInt(100);
+		if (nesting > 0 && choice < 10) {
+			sb.append("(");
+			appendExpression(maxExpressionWidth, nesting - 1);
+			sb.append(")");
+		} else if (nesting > 0 && choice < 20 && hasArrays()) {
+			appendArrayElement(nesting - 1);
+		} else if (nesting > 0 && choice < 26 && functions > 0) {
+			// Only functions that return a value can be used in an expression.
+			int f = random.nextInt(functions);
+			if (functionReturns[f]) {
+				appendCall(f);
+			} else {
+				appendScalar();
+			}
+		} else if (choice < 45) {
+			sb.append(random.nextInt(100));
+		} else if (choice < 50) {
+			sb.append("-").append(1 + random.nextInt(100));
+		} else {
+			appendScalar();
+		}
+	}
+
+	private void appendCall(int f) {
+		sb.append("f").append(f).append("(");
+		for (int i = 0; i < functionArity[f]; i++) {
+			sb.append(i > 0 ? ", " : "");
+			appendExpression(2, 0);
+		}
+		sb.append(")");
+	}
+
+	// A parameter, local or global scalar.
+	private void appendScalar() {
+		int choice = random.nextInt(parameters + localScalars + globalScalars);
+		if (choice < parameters) {
+			sb.append("p").append(choice);
+		} else if (choice < parameters + localScalars) {
+			sb.append("v").append(choice - parameters);
+		} else {
+			sb.append("g").append(choice - parameters - localScalars);
+		}
+	}
+
+	private boolean hasArrays() {
+		return localArrays + globalArrays > 0;
+	}
+
+	// An element of a local or global array, the index is a number in range or an expression.
+	private void appendArrayElement(int nesting) {
+		int choice = random.nextInt(localArrays + globalArrays);
+		int size;
+		if (choice < localArrays) {
+			sb.append("a").append(choice);
+			size = localArraySizes[choice];
+		} else {
+			sb.append("ga").append(choice - localArrays);
+			size = globalArraySizes[choice - localArrays];
+		}
+		sb.append("[");
+		if (nesting > 0 && random.nextInt(4) == 0) {
+			appendExpression(2, nesting - 1);
+		} else {
+			sb.append(random.nextInt(size));
+		}
+		sb.append("]");
+	}
+
+	private String pick(String[] choices) {
+		return choices[random.nextInt(choices.length)];
+	}
+
+	private void indent(int depth) {
+		for (int i = 0; i < depth; i++) {
+			sb.append('\t');
+		}
+	}
+
+	private static void usage() {
+		System.out.println("Usage: ProgramGenerator [options] output_file");
+		System.out.println("  -seed N         random seed (1)");
+		System.out.println("  -functions N    number of functions besides main (100)");
+		System.out.println("  -size S         generate functions until the file has S bytes, e.g. 64MB or 1GB");
+		System.out.println("  -depth N        deepest nesting of if and while (3)");
+		System.out.println("  -statements N   most statements in a block (6)");
+		System.out.println("  -width N        most factors in an expression (4)");
+		System.out.println("  -arrays N       largest array size (16)");
+		System.out.println("  -meta D         chance of a meta statement before a statement, 0 to 1 (0.05)");
+		System.exit(1);
+	}
+
+	public static void main(String[] args) throws IOException {
+		ProgramGenerator generator = new ProgramGenerator();
+		String outputFile = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if (!arg.startsWith("-")) {
+					outputFile = arg;
+					continue;
+				}
+				if (i + 1 == args.length) {
+					usage();
+				}
+				String value = args[++i];
+				if (arg.equals("-seed")) {
+					generator.setSeed(Long.parseLong(value));
+				} else if (arg.equals("-functions")) {
+					generator.setFunctionCount(Integer.parseInt(value));
+				} else if (arg.equals("-size")) {
+					generator.setTargetSize(SourceGenerator.parseSize(value));
+				} else if (arg.equals("-depth")) {
+					generator.setMaxDepth(Integer.parseInt(value));
+				} else if (arg.equals("-statements")) {
+					generator.setMaxStatements(Integer.parseInt(value));
+				} else if (arg.equals("-width")) {
+					generator.setMaxExpressionWidth(Integer.parseInt(value));
+				} else if (arg.equals("-arrays")) {
+					generator.setMaxArraySize(Integer.parseInt(value));
+				} else if (arg.equals("-meta")) {
+					generator.setMetaDensity(Double.parseDouble(value));
+				} else {
+					usage();
+				}
+			}
+		} catch (NumberFormatException e) {
+			System.out.println("Invalid number. " + e.getMessage());
+			usage();
+		}
+		if (outputFile == null) {
+			usage();
+		}
+
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.US_ASCII), 1 << 16);
+		try {
+			long bytes = generator.write(out);
+			System.out.println("Wrote " + bytes + " bytes to " + outputFile);
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package csc512.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Owner: ShaownS
+ * File: ScannerBenchmark.java
+ * Package: csc512.benchmarks
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Time to scan a whole synthetic program with the CSC512Scanner project, token by token
+ * with hasMoreTokens/getNextToken, in batches with scanTokens and in chunks on all processors
+ * with ParallelScanner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScannerBenchmark {
+	
+	// Input size, 1GB and others can be given with -p size=1GB.
+	@Param({"1KB", "1MB", "64MB"})
+	public String size;
+	
+	private String sourceFile;
+	private Workload tokens;
+	private Workload tokenBuffer;
+	private Workload parallelScan;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		sourceFile = SourceGenerator.getProgram(size).getPath();
+		tokens = ModuleLoader.load("CSC512Scanner", "ScanWorkload");
+		tokenBuffer = ModuleLoader.load("CSC512Scanner", "TokenBufferWorkload");
+		parallelScan = ModuleLoader.load("CSC512Scanner", "ParallelScanWorkload");
+	}
+	
+	@Benchmark
+	public long getNextToken() throws Exception {
+		return tokens.run(sourceFile);
+	}
+	
+	@Benchmark
+	public long scanTokens() throws Exception {
+		return tokenBuffer.run(sourceFile);
+	}
+	
+	@Benchmark
+	public long parallelScan() throws Exception {
+		return parallelScan.run(sourceFile);
+	}
+}
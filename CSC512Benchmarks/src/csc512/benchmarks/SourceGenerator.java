@@ -0,0 +1,81 @@
+package csc512.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Owner: ShaownS
+ * File: SourceGenerator.java
+ * Package: csc512.benchmarks
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Synthetic input programs of a given size for the benchmarks, made by ProgramGenerator
+ * with a fixed seed. The same size always gives the same file, which is kept in the 
+ * temporary directory between runs.
+ */
+public class SourceGenerator {
+	
+	// Bump when the generated programs change, so older files are not reused.
+	private static final int VERSION = 2;
+	
+	// Seed of the generated programs.
+	private static final long SEED = 512;
+	
+	// Returns the program of the given size, writing it first if needed.
+	public static File getProgram(String size) throws IOException {
+		long bytes = parseSize(size);
+		File dir = new File(System.getProperty("java.io.tmpdir"), "csc512-benchmarks");
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Can not create " + dir);
+		}
+		
+		File file = new File(dir, "program-v" + VERSION + "-" + size + ".c");
+		if (!file.isFile()) {
+			File temp = File.createTempFile("program", ".tmp", dir);
+			try {
+				write(temp, bytes);
+				if (!temp.renameTo(file) && !file.isFile()) {
+					throw new IOException("Can not create " + file);
+				}
+			} finally {
+				temp.delete();
+			}
+		}
+		return file;
+	}
+	
+	// Size such as 512, 1KB, 16MB or 1GB.
+	public static long parseSize(String size) {
+		String s = size.trim().toUpperCase();
+		long unit = 1;
+		if (s.endsWith("KB")) {
+			unit = 1L << 10;
+		} else if (s.endsWith("MB")) {
+			unit = 1L << 20;
+		} else if (s.endsWith("GB")) {
+			unit = 1L << 30;
+		}
+		if (unit != 1) {
+			s = s.substring(0, s.length() - 2).trim();
+		}
+		return Long.parseLong(s) * unit;
+	}
+	
+	// Writes a program of at least the given size.
+	public static void write(File file, long bytes) throws IOException {
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII), 1 << 16);
+		try {
+			new ProgramGenerator().setSeed(SEED).setTargetSize(bytes).write(out);
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package csc512.benchmarks;
+
+/**
+ * Owner: ShaownS
+ * File: Workload.java
+ * Package: csc512.benchmarks
+ * Project: CSC512Benchmarks
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * A run of one of the projects over a source file. The implementations are in the
+ * default package next to the project classes they call, see ModuleLoader.
+ */
+public interface Workload {
+	
+	// Runs over the given source file, returns a count for the benchmark to consume.
+	long run(String sourceFile) throws Exception;
+}
@@ -0,0 +1,280 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+
+/**
+ * Owner: ShaownS
+ * File: BatchCompiler.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Generates the code for many input files in one run, so the JVM is started only once.
+ * The inputs are files or directories, a directory gives all its '.c' files and those
+ * of its subdirectories, except earlier '_gen' results. The files are compiled at the
+ * same time on a work stealing pool, each by a Parser of its own, and the '_gen' result
+ * of each is named by Scanner.getResultFilename as for a single file.
+ *
+ * The messages of a failed file are printed together once it is done, followed at the
+ * end by the number of files that passed and failed.
+ */
+public class BatchCompiler {
+
+	private static final String SOURCE_EXTENSION = ".c";
+
+	// Outcome of one file, with the messages printed while compiling it.
+	private static class Result {
+		private String inputFile;
+		private boolean passed;
+		private String messages;
+
+		public Result(String inputFile, boolean passed, String messages) {
+			this.inputFile = inputFile;
+			this.passed = passed;
+			this.messages = messages;
+		}
+
+		public boolean isPassed() {
+			return passed;
+		}
+
+		// Pass or fail line for the file, then its messages indented.
+		public String getReport() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(passed ? "Pass: " : "Fail: ").append(inputFile).append(System.lineSeparator());
+			for (String line : messages.split("\\r?\\n")) {
+				if (line.length() > 0) {
+					sb.append("\t").append(line).append(System.lineSeparator());
+				}
+			}
+			return sb.toString();
+		}
+	}
+
+	// Number of files compiled at the same time.
+	private int threads;
+
+	// Directory of the result files, the working directory when null.
+	private File outputDir;
+
+	// Print the files that passed as well, not only the failed ones.
+	private boolean verbose;
+
+	// Results of earlier runs, null when not used.
+	private GeneratedCodeCache cache;
+
+	public BatchCompiler(int threads, File outputDir, boolean verbose, GeneratedCodeCache cache) {
+		this.threads = threads;
+		this.outputDir = outputDir;
+		this.verbose = verbose;
+		this.cache = cache;
+	}
+
+	// Adds the file, or the source files under the directory in name order.
+	private static void addInputs(File file, List<String> inputs) {
+		if (!file.isDirectory()) {
+			inputs.add(file.getPath());
+			return;
+		}
+
+		File[] children = file.listFiles();
+		if (children == null) {
+			return;
+		}
+		Arrays.sort(children);
+		for (File child : children) {
+			if (child.isDirectory()) {
+				addInputs(child, inputs);
+			} else if (isSourceFile(child.getName())) {
+				inputs.add(child.getPath());
+			}
+		}
+	}
+
+	// Source files in a directory end in .c, results of an earlier run are left out.
+	private static boolean isSourceFile(String name) {
+		return name.endsWith(SOURCE_EXTENSION)
+				&& !name.endsWith("_gen" + SOURCE_EXTENSION);
+	}
+
+	private File getOutputFile(String inputFile) {
+		String resultFilename = Scanner.getResultFilename(inputFile);
+		if (outputDir == null) {
+			return new File(resultFilename);
+		}
+		return new File(outputDir, resultFilename);
+	}
+
+	// Compiles one file, everything it prints is kept for the report.
+	private Result compile(String inputFile, File outputFile) {
+		ByteArrayOutputStream messages = new ByteArrayOutputStream();
+		PrintStream log = new PrintStream(messages);
+		boolean passed = false;
+		try {
+			if (cache != null) {
+				passed = cache.compile(inputFile, outputFile, 1, log);
+			} else {
+				Parser parser = new Parser(inputFile, outputFile, log);
+				parser.program();
+				passed = parser.isPassed();
+			}
+		} catch (IOException e) {
+			log.println("Error reading input file. " + e.getMessage());
+		} catch (Scanner.ScannerException | Parser.GenerationException e) {
+			log.println(e.getMessage());
+		} catch (RuntimeException e) {
+			// Such as running out of input in the middle of a rule, which fails the file.
+			log.println("Fail");
+			log.println(e.toString());
+		}
+		log.flush();
+		return new Result(inputFile, passed, messages.toString());
+	}
+
+	// Compiles all the files, returns the number that failed.
+	public int compileAll(List<String> inputFiles) throws InterruptedException {
+		List<Callable<Result>> tasks = new ArrayList<Callable<Result>>();
+		List<Result> results = new ArrayList<Result>();
+
+		// Two inputs with the same name would overwrite each other's result, only the first is compiled.
+		Map<String, String> outputs = new HashMap<String, String>();
+		for (final String inputFile : inputFiles) {
+			final File outputFile = getOutputFile(inputFile);
+			String previous = outputs.put(outputFile.getAbsolutePath(), inputFile);
+			if (previous != null) {
+				results.add(new Result(inputFile, false, "Same result file " + outputFile.getPath() + " as " + previous));
+				continue;
+			}
+
+			tasks.add(new Callable<Result>() {
+				public Result call() {
+					Result result = compile(inputFile, outputFile);
+					report(result);
+					return result;
+				}
+			});
+		}
+
+		for (Result result : results) {
+			report(result);
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			for (Future<Result> future : pool.invokeAll(tasks)) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					// compile catches everything a file can throw, so this is an error such as out of memory.
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		int failed = 0;
+		for (Result result : results) {
+			if (!result.isPassed()) {
+				failed++;
+			}
+		}
+		System.out.println("Compiled " + results.size() + " files, " + (results.size() - failed)
+				+ " passed, " + failed + " failed.");
+		return failed;
+	}
+
+	// Prints the report of a file in one piece, so the reports of the threads are not mixed up.
+	private void report(Result result) {
+		if (verbose || !result.isPassed()) {
+			System.out.print(result.getReport());
+		}
+	}
+
+	private static void usage() {
+		System.out.println("Usage: BatchCompiler [options] file_or_directory...");
+		System.out.println("  -threads N   number of files compiled at the same time (number of processors)");
+		System.out.println("  -d DIR       directory for the '_gen' files (working directory)");
+		System.out.println("  -v           print the files that passed as well");
+		System.exit(1);
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		File outputDir = null;
+		boolean verbose = false;
+		List<String> inputFiles = new ArrayList<String>();
+
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.equals("-v")) {
+				verbose = true;
+			} else if (arg.equals("-threads") || arg.equals("-d")) {
+				if (i + 1 == args.length) {
+					usage();
+				}
+				String value = args[++i];
+				if (arg.equals("-d")) {
+					outputDir = new File(value);
+				} else {
+					try {
+						threads = Integer.parseInt(value);
+					} catch (NumberFormatException e) {
+						System.out.println("Invalid number. " + e.getMessage());
+						usage();
+					}
+					if (threads < 1) {
+						usage();
+					}
+				}
+			} else if (arg.startsWith("-")) {
+				usage();
+			} else {
+				addInputs(new File(arg), inputFiles);
+			}
+		}
+
+		// Basic sanity check.
+		if (inputFiles.isEmpty()) {
+			System.out.println("Must give the input files or directories as parameters.");
+			System.exit(1);
+		}
+		if (outputDir != null && !outputDir.isDirectory() && !outputDir.mkdirs()) {
+			System.out.println("Can not create the output directory " + outputDir.getPath());
+			System.exit(1);
+		}
+
+		GeneratedCodeCache cache = null;
+		try {
+			cache = GeneratedCodeCache.fromProperties();
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+			System.exit(1);
+		}
+
+		int failed = new BatchCompiler(threads, outputDir, verbose, cache).compileAll(inputFiles);
+		if (cache != null) {
+			try {
+				cache.flushCounts();
+			} catch (IOException e) {
+				System.out.println(e.getMessage());
+			}
+		}
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+}
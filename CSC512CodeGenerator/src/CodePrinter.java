@@ -0,0 +1,145 @@
+/**
+ * Owner: ShaownS
+ * File: CodePrinter.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Writes the instructions of a GeneratedCode as the C of the function body, one line for
+ * each, every line starting with a line separator. The slots of the locals can be moved,
+ * as LocalSlotAllocator gives them.
+ */
+public class CodePrinter {
+
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	private StringBuilder out;
+
+	// New slot of every local slot, null to keep them.
+	private int[] localSlots;
+
+	public CodePrinter(StringBuilder out, int[] localSlots) {
+		this.out = out;
+		this.localSlots = localSlots;
+	}
+
+	public void print(GeneratedCode code) {
+		for (int i = 0; i < code.size(); i++) {
+			printInstruction(code, i);
+		}
+	}
+
+	private void printInstruction(GeneratedCode code, int i) {
+		int opcode = code.getOpcode(i);
+		int a = code.getA(i);
+		int b = code.getB(i);
+		out.append(LINE_SEPARATOR);
+		switch (opcode) {
+		case GeneratedCode.COPY:
+			printOperand(code, code.getTarget(i));
+			out.append(" = ");
+			printOperand(code, a);
+			out.append(';');
+			break;
+		case GeneratedCode.CALL:
+			printOperand(code, code.getTarget(i));
+			out.append(" = ");
+			printCall(code, a, b);
+			out.append(" ) ;");
+			break;
+		case GeneratedCode.CALL_STATEMENT:
+			printCall(code, a, b);
+			out.append(" );");
+			break;
+		case GeneratedCode.READ:
+			out.append("read ( ");
+			printOperand(code, a);
+			out.append(" );");
+			break;
+		case GeneratedCode.WRITE:
+			out.append("write ( ");
+			printOperand(code, a);
+			out.append(" );");
+			break;
+		case GeneratedCode.PRINT:
+			out.append("print ( ").append(code.getText(a)).append(" );");
+			break;
+		case GeneratedCode.RETURN:
+			out.append("return ");
+			printOperand(code, a);
+			out.append(';');
+			break;
+		case GeneratedCode.RETURN_VOID:
+			out.append("return;");
+			break;
+		case GeneratedCode.LABEL:
+			out.append('c').append(a).append(": ;");
+			break;
+		case GeneratedCode.GOTO:
+			out.append("goto c").append(a).append(';');
+			break;
+		case GeneratedCode.IF_GOTO:
+			out.append("if ( ");
+			printOperand(code, a);
+			out.append(" ) goto c").append(b).append(';');
+			break;
+		case GeneratedCode.IF_NOT_GOTO:
+			out.append("if ( !");
+			printOperand(code, a);
+			out.append(" ) goto c").append(b).append(';');
+			break;
+		default:
+			// target = a op b, the conditions in parentheses.
+			printOperand(code, code.getTarget(i));
+			out.append(" = ");
+			boolean condition = GeneratedCode.isCondition(opcode);
+			if (condition) {
+				out.append("( ");
+			}
+			printOperand(code, a);
+			out.append(' ').append(GeneratedCode.getOperator(opcode)).append(' ');
+			printOperand(code, b);
+			out.append(condition ? " );" : ";");
+			break;
+		}
+	}
+
+	// name ( a, b without the closing parenthesis.
+	private void printCall(GeneratedCode code, int function, int list) {
+		out.append(code.getText(function)).append(" ( ");
+		int count = code.getArgumentCount(list);
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				out.append(", ");
+			}
+			printOperand(code, code.getArgument(list, i));
+		}
+	}
+
+	private void printOperand(GeneratedCode code, int operand) {
+		int number = GeneratedCode.getNumber(operand);
+		switch (GeneratedCode.getKind(operand)) {
+		case GeneratedCode.LOCAL:
+			out.append("local[").append(getLocalSlot(number)).append(']');
+			break;
+		case GeneratedCode.GLOBAL:
+			out.append("global[").append(number).append(']');
+			break;
+		case GeneratedCode.LOCAL_AT:
+			out.append("local[local[").append(getLocalSlot(number)).append("]]");
+			break;
+		case GeneratedCode.GLOBAL_AT:
+			out.append("global[local[").append(getLocalSlot(number)).append("]]");
+			break;
+		default:
+			out.append(code.getText(number));
+			break;
+		}
+	}
+
+	private int getLocalSlot(int slot) {
+		return (localSlots != null && slot < localSlots.length) ? localSlots[slot] : slot;
+	}
+}
@@ -0,0 +1,111 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Owner: ShaownS
+ * File: CompileClient.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Client of CompileServer, with the same arguments and output as Parser.main:
+ *
+ * % java CompileClient [-threads N] /path/to/input/file
+ *
+ * The file is compiled by the server running on the port given by the system property
+ * csc512.port, 5120 by default, and the '_gen' file is written to the working directory
+ * of the client. When no server of this user is running, or the input does not give a
+ * '_gen.c' file, the file is compiled here with Parser.main.
+ */
+public class CompileClient {
+
+	public static void main(String[] args) throws IOException {
+		// Same arguments as Parser.main: -threads N input_file
+		int threads = 1;
+		int fileArg = 0;
+		if (args.length > 1 && args[0].equals("-threads")) {
+			try {
+				threads = Integer.parseInt(args[1]);
+			} catch (NumberFormatException e) {
+				System.out.println("Invalid number of threads. " + e.getMessage());
+				System.exit(1);
+			}
+			fileArg = 2;
+		}
+
+		// Basic sanity check.
+		if (args.length <= fileArg) {
+			System.out.println("Must give the input file location as parameter.");
+			return;
+		}
+
+		// The server only writes '_gen.c' files to the working directory, and only takes requests with its key.
+		String directory = new File("").getAbsolutePath();
+		int port = Integer.getInteger("csc512.port", CompileServer.DEFAULT_PORT);
+		String key = CompileServer.readKey(port);
+		if (key == null || CompileServer.getOutputFile(args[fileArg], directory) == null) {
+			Parser.main(args);
+			return;
+		}
+		Socket socket;
+		try {
+			socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		} catch (ConnectException e) {
+			// No server, compile in this JVM.
+			Parser.main(args);
+			return;
+		}
+
+		int status;
+		try {
+			// The server runs in another directory, so the input and the working directory are sent with their full path.
+			String inputFile = new File(args[fileArg]).getAbsolutePath();
+			String request = key + "\n" + CompileServer.COMPILE_REQUEST + "\n" + threads + "\n" + args[fileArg] + "\n" + inputFile
+					+ "\n" + directory + "\n";
+			socket.getOutputStream().write(request.getBytes(StandardCharsets.UTF_8));
+			socket.getOutputStream().flush();
+
+			InputStream in = socket.getInputStream();
+			String statusLine = readLine(in);
+			if (statusLine == null || !statusLine.startsWith(CompileServer.STATUS_REPLY)) {
+				System.out.println("No reply from the compile server.");
+				System.exit(1);
+				return;
+			}
+			status = Integer.parseInt(statusLine.substring(CompileServer.STATUS_REPLY.length()));
+
+			// The rest are the messages, copied as they are.
+			OutputStream out = System.out;
+			byte[] buffer = new byte[8192];
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				out.write(buffer, 0, count);
+			}
+			out.flush();
+		} finally {
+			socket.close();
+		}
+		if (status != 0) {
+			System.exit(status);
+		}
+	}
+
+	// Reads the status line byte by byte, so that nothing of the messages after it is read.
+	private static String readLine(InputStream in) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		int c;
+		while ((c = in.read()) != -1 && c != '\n') {
+			sb.append((char) c);
+		}
+		return (c == -1) ? null : sb.toString();
+	}
+}
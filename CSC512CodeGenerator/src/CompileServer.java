@@ -0,0 +1,359 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Owner: ShaownS
+ * File: CompileServer.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Long running compile server, so that a file is compiled by a JVM that has already loaded
+ * and JIT compiled the Scanner and Parser instead of a new one each time. It listens on a
+ * port of the loopback address and compiles the files sent by CompileClient, each on a
+ * thread of a pool with a Parser of its own, the same as Parser.main would.
+ *
+ * Every user of the machine can connect to the loopback address, so the server writes a
+ * random key to a file in the home directory that only its own user can read, and a request
+ * that does not start with a line with the key is closed without a reply.
+ *
+ * After the key, a request is a line "compile" followed by lines with the number of threads,
+ * the input file as it was given, the input file with its full path and the working directory
+ * of the client, since the client can run in another directory. The '_gen' file is not sent,
+ * the server writes it to that directory with the name Scanner.getResultFilename gives for
+ * the input, and only when the name ends in '_gen.c'.
+ * The reply is a line "status N" with the exit status Parser.main would have, followed by
+ * the messages it would have printed. A line "stop" stops the server.
+ */
+public class CompileServer {
+
+	public static final int DEFAULT_PORT = 5120;
+
+	static final String COMPILE_REQUEST = "compile";
+	static final String STOP_REQUEST = "stop";
+	static final String STATUS_REPLY = "status ";
+
+	// The only '_gen' files the server writes.
+	static final String RESULT_SUFFIX = "_gen.c";
+
+	// The key file is this followed by the port, in the home directory of the user.
+	private static final String KEY_FILE_PREFIX = ".csc512-server-";
+	private static final int KEY_BYTES = 16;
+
+	// Time a client has to send its request.
+	private static final int READ_TIMEOUT = 10000;
+
+	// Times the warm up file is compiled before the server takes requests.
+	private static final int WARMUP_RUNS = 20;
+
+	private ServerSocket serverSocket;
+	private ExecutorService pool;
+
+	// Key every request has to start with, and the file it is written to.
+	private String key;
+	private File keyFile;
+
+	// Results of earlier runs, null when not used.
+	private GeneratedCodeCache cache;
+
+	public CompileServer(int port, int threads, GeneratedCodeCache cache) throws IOException {
+		this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		this.pool = Executors.newFixedThreadPool(threads);
+		this.cache = cache;
+		this.key = newKey();
+		this.keyFile = getKeyFile(getPort());
+		writeKey(keyFile, key);
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	static File getKeyFile(int port) {
+		return new File(System.getProperty("user.home"), KEY_FILE_PREFIX + port);
+	}
+
+	// The key of the server of this user on the port, null when there is none.
+	static String readKey(int port) {
+		try {
+			return new String(Files.readAllBytes(getKeyFile(port).toPath()), StandardCharsets.UTF_8).trim();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static String newKey() {
+		byte[] bytes = new byte[KEY_BYTES];
+		new SecureRandom().nextBytes(bytes);
+		StringBuilder sb = new StringBuilder();
+		for (byte b : bytes) {
+			sb.append(String.format("%02x", b & 0xff));
+		}
+		return sb.toString();
+	}
+
+	// Writes the key to a new file only the user can read, in place of one left by a server that did not stop.
+	private static void writeKey(File file, String key) throws IOException {
+		Files.deleteIfExists(file.toPath());
+		try {
+			Files.createFile(file.toPath(), PosixFilePermissions.asFileAttribute(
+					EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE)));
+		} catch (UnsupportedOperationException e) {
+			// Not a POSIX file system.
+			Files.createFile(file.toPath());
+			file.setReadable(false, false);
+			file.setReadable(true, true);
+		}
+		Files.write(file.toPath(), key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/*
+	 * The '_gen' file the server writes for the input, the name Scanner.getResultFilename gives in
+	 * the directory. null when the name does not end in '_gen.c' or the directory is not a full path
+	 * to a directory.
+	 */
+	static File getOutputFile(String inputName, String directory) {
+		String resultName = Scanner.getResultFilename(inputName);
+		File dir = new File(directory);
+		if (!resultName.endsWith(RESULT_SUFFIX) || !dir.isAbsolute() || !dir.isDirectory()) {
+			return null;
+		}
+		return new File(dir, resultName);
+	}
+
+	// Compiles the file a number of times so that the first requests already run JIT compiled code.
+	// The cache is not used here, the point is to run the scanner and parser.
+	public static void warmUp(String inputFile) throws IOException {
+		File outputFile = File.createTempFile("warmup", "_gen.c");
+		PrintStream log = new PrintStream(new ByteArrayOutputStream());
+		try {
+			for (int i = 0; i < WARMUP_RUNS; i++) {
+				compile(inputFile, outputFile, 1, log);
+			}
+		} finally {
+			outputFile.delete();
+		}
+	}
+
+	/*
+	 * Compiles one file as Parser.main does, printing the messages to the log.
+	 * Returns the exit status Parser.main would have.
+	 */
+	static int compile(String inputFile, File outputFile, int threads, PrintStream log) {
+		return compile(inputFile, inputFile, outputFile, threads, log, null);
+	}
+
+	// As above, with the input file name given by the client to use in the messages, and the cache if there is one.
+	private static int compile(String inputName, String inputFile, File outputFile, int threads, PrintStream log,
+			GeneratedCodeCache cache) {
+		try {
+			if (cache != null) {
+				cache.compile(inputFile, outputFile, threads, log);
+				return 0;
+			}
+			Parser parser = new Parser(inputFile, outputFile, log);
+			parser.setThreads(threads);
+			parser.program();
+			return 0;
+		} catch (IOException e) {
+			log.println("Error reading input file. " + String.valueOf(e.getMessage()).replace(inputFile, inputName));
+		} catch (Scanner.ScannerException | Parser.GenerationException e) {
+			log.println(e.getMessage());
+		} catch (RuntimeException e) {
+			// A bug in the scanner or parser fails the file, not the server.
+			log.println("Fail");
+			log.println(e.toString());
+		}
+		return 1;
+	}
+
+	// Takes requests until a stop request comes.
+	public void serve() throws IOException {
+		try {
+			while (true) {
+				final Socket socket;
+				try {
+					socket = serverSocket.accept();
+				} catch (SocketException e) {
+					// The server socket was closed by a stop request.
+					return;
+				}
+				pool.execute(new Runnable() {
+					public void run() {
+						handle(socket);
+					}
+				});
+			}
+		} finally {
+			pool.shutdown();
+			keyFile.delete();
+		}
+	}
+
+	public void stop() {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			// Closing anyway.
+		}
+	}
+
+	private void handle(Socket socket) {
+		try {
+			try {
+				socket.setSoTimeout(READ_TIMEOUT);
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				String requestKey = in.readLine();
+				if (requestKey == null || !MessageDigest.isEqual(requestKey.getBytes(StandardCharsets.UTF_8),
+						key.getBytes(StandardCharsets.UTF_8))) {
+					return;
+				}
+				String request = in.readLine();
+				if (STOP_REQUEST.equals(request)) {
+					stop();
+				} else if (COMPILE_REQUEST.equals(request)) {
+					int threads;
+					try {
+						threads = Integer.parseInt(in.readLine());
+					} catch (NumberFormatException e) {
+						// A bad request, nothing to reply to.
+						return;
+					}
+					// The client does not get more threads than the machine has.
+					threads = Math.max(1, Math.min(threads, Runtime.getRuntime().availableProcessors()));
+					String inputName = in.readLine();
+					String inputFile = in.readLine();
+					String directory = in.readLine();
+					if (inputName == null || inputFile == null || directory == null) {
+						return;
+					}
+
+					ByteArrayOutputStream messages = new ByteArrayOutputStream();
+					PrintStream log = new PrintStream(messages);
+					File outputFile = getOutputFile(inputName, directory);
+					int status = 1;
+					if (outputFile == null) {
+						log.println("The compile server only writes " + RESULT_SUFFIX + " files to the directory of the client.");
+					} else {
+						status = compile(inputName, inputFile, outputFile, threads, log, cache);
+					}
+					log.flush();
+
+					OutputStream out = socket.getOutputStream();
+					Writer statusWriter = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+					statusWriter.write(STATUS_REPLY + status + "\n");
+					statusWriter.flush();
+					messages.writeTo(out);
+					out.flush();
+				}
+			} finally {
+				socket.close();
+			}
+		} catch (IOException e) {
+			// The client went away, nothing to reply to.
+		}
+	}
+
+	private static void usage() {
+		System.out.println("Usage: CompileServer [options]");
+		System.out.println("  -port N       loopback port to listen on (" + DEFAULT_PORT + ")");
+		System.out.println("  -threads N    number of files compiled at the same time (number of processors)");
+		System.out.println("  -warmup FILE  compile the file a few times before taking requests");
+		System.out.println("  -stop         stop the server running on the port");
+		System.exit(1);
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		int threads = Runtime.getRuntime().availableProcessors();
+		String warmupFile = null;
+		boolean stop = false;
+
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.equals("-stop")) {
+				stop = true;
+			} else if (arg.equals("-port") || arg.equals("-threads") || arg.equals("-warmup")) {
+				if (i + 1 == args.length) {
+					usage();
+				}
+				String value = args[++i];
+				if (arg.equals("-warmup")) {
+					warmupFile = value;
+					continue;
+				}
+				int number = 0;
+				try {
+					number = Integer.parseInt(value);
+				} catch (NumberFormatException e) {
+					System.out.println("Invalid number. " + e.getMessage());
+					usage();
+				}
+				if (number < 1) {
+					usage();
+				}
+				if (arg.equals("-port")) {
+					port = number;
+				} else {
+					threads = number;
+				}
+			} else {
+				usage();
+			}
+		}
+
+		if (stop) {
+			String key = readKey(port);
+			if (key == null) {
+				System.out.println("No compile server of this user on port " + port + ".");
+				System.exit(1);
+			}
+			Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			try {
+				socket.getOutputStream().write((key + "\n" + STOP_REQUEST + "\n").getBytes(StandardCharsets.UTF_8));
+			} finally {
+				socket.close();
+			}
+			return;
+		}
+
+		if (warmupFile != null) {
+			warmUp(warmupFile);
+		}
+		CompileServer server = new CompileServer(port, threads, GeneratedCodeCache.fromProperties());
+		System.out.println("Listening on port " + server.getPort() + ".");
+		server.serve();
+		try {
+			server.pool.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (server.cache != null) {
+			server.cache.flushCounts();
+		}
+	}
+}
@@ -0,0 +1,353 @@
+import java.util.Arrays;
+
+
+/**
+ * Owner: ShaownS
+ * File: ControlFlowGraph.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * The basic blocks of a function body and the jumps between them, and the passes that take
+ * out the jumps the parser does not need. The parser lowers an if statement to
+ * "if ( c ) goto cA; goto cB; cA: ;" and a while loop to the same inside a label and a goto
+ * back to it, so the code has a goto after every condition and gotos that go to other gotos.
+ *
+ * A block starts at a label or after a jump or return, and goes on to the next block when it
+ * does not end in a goto or return. The passes are run over and over until none of them
+ * changes anything:
+ *
+ * - A jump to a label followed by a goto goes to where that goto goes.
+ * - "if ( c ) goto cA; goto cB; cA: ;" becomes "if ( !c ) goto cB; cA: ;", with the
+ *   comparison that set c turned round instead when nothing else reads c.
+ * - A jump to a label that comes right after it is removed, and an if followed by a goto to
+ *   the same label.
+ * - The blocks that can not be reached from the start of the function are removed, and so
+ *   are the labels no jump goes to.
+ *
+ * The instructions are only marked as removed while the passes run, and taken out of the
+ * code before the next round.
+ */
+public class ControlFlowGraph {
+
+	private GeneratedCode code;
+	private int size;
+	private boolean[] removed;
+
+	// The instruction of every label and the number of jumps to it, by label number from
+	// firstLabel. -1 for the numbers that are not labels of the function.
+	private int firstLabel;
+	private int[] labelLines;
+	private int[] jumpCounts;
+
+	// The first instruction of every block, and the block of every instruction.
+	private int[] blockStarts;
+	private int blockCount;
+	private int[] blocks;
+
+	// Number of reads of every local slot.
+	private int[] reads;
+
+	public ControlFlowGraph(GeneratedCode code) {
+		this.code = code;
+		build();
+	}
+
+	// Runs the passes until the code does not change.
+	public void optimize() {
+		boolean changed = true;
+		while (changed) {
+			changed = invertBranches();
+			changed |= threadJumps();
+			changed |= removeUnreachableBlocks();
+			changed |= removeUnusedLabels();
+			if (changed) {
+				code.remove(removed);
+				build();
+			}
+		}
+	}
+
+	// Finds the labels, the blocks and the reads of the code as it is now.
+	private void build() {
+		size = code.size();
+		removed = new boolean[size];
+
+		int first = Integer.MAX_VALUE;
+		int last = -1;
+		for (int i = 0; i < size; i++) {
+			if (code.getOpcode(i) == GeneratedCode.LABEL) {
+				first = Math.min(first, code.getA(i));
+				last = Math.max(last, code.getA(i));
+			}
+		}
+		firstLabel = (last == -1) ? 0 : first;
+		labelLines = new int[last - firstLabel + 1];
+		jumpCounts = new int[labelLines.length];
+		Arrays.fill(labelLines, -1);
+
+		blockStarts = new int[size + 1];
+		blocks = new int[size];
+		blockCount = 0;
+		reads = new int[16];
+		for (int i = 0; i < size; i++) {
+			int opcode = code.getOpcode(i);
+			if (i == 0 || opcode == GeneratedCode.LABEL || endsBlock(code.getOpcode(i - 1))) {
+				blockStarts[blockCount++] = i;
+			}
+			blocks[i] = blockCount - 1;
+			if (opcode == GeneratedCode.LABEL) {
+				labelLines[code.getA(i) - firstLabel] = i;
+			} else if (isJump(opcode)) {
+				jumpCounts[getLabel(i) - firstLabel]++;
+			}
+			countReads(i);
+		}
+		blockStarts[blockCount] = size;
+	}
+
+	// Counts the local slots instruction i reads, the index of an array element it sets too.
+	private void countReads(int i) {
+		int opcode = code.getOpcode(i);
+		read(code.getTarget(i), false);
+		switch (opcode) {
+		case GeneratedCode.CALL:
+		case GeneratedCode.CALL_STATEMENT:
+			int list = code.getB(i);
+			for (int k = 0; k < code.getArgumentCount(list); k++) {
+				read(code.getArgument(list, k), true);
+			}
+			break;
+		case GeneratedCode.PRINT:
+		case GeneratedCode.RETURN_VOID:
+		case GeneratedCode.LABEL:
+		case GeneratedCode.GOTO:
+			break;
+		case GeneratedCode.IF_GOTO:
+		case GeneratedCode.IF_NOT_GOTO:
+		case GeneratedCode.COPY:
+		case GeneratedCode.READ:
+		case GeneratedCode.WRITE:
+		case GeneratedCode.RETURN:
+			read(code.getA(i), true);
+			break;
+		default:
+			read(code.getA(i), true);
+			read(code.getB(i), true);
+			break;
+		}
+	}
+
+	private void read(int operand, boolean whole) {
+		if (operand == GeneratedCode.NONE) {
+			return;
+		}
+		int kind = GeneratedCode.getKind(operand);
+		if ((whole && kind == GeneratedCode.LOCAL) || kind == GeneratedCode.LOCAL_AT || kind == GeneratedCode.GLOBAL_AT) {
+			int slot = GeneratedCode.getNumber(operand);
+			if (slot >= reads.length) {
+				reads = Arrays.copyOf(reads, slot + 1);
+			}
+			reads[slot]++;
+		}
+	}
+
+	// "if ( c ) goto cA; goto cB; cA: ;" to "if ( !c ) goto cB; cA: ;".
+	private boolean invertBranches() {
+		boolean changed = false;
+		for (int i = 0; i < size; i++) {
+			int opcode = code.getOpcode(i);
+			if (removed[i] || (opcode != GeneratedCode.IF_GOTO && opcode != GeneratedCode.IF_NOT_GOTO)) {
+				continue;
+			}
+			int next = nextInstruction(i);
+			if (next == -1 || code.getOpcode(next) != GeneratedCode.GOTO || !isRightAfter(next, getLabel(i))) {
+				continue;
+			}
+			int condition = code.getA(i);
+			int set = previousInstruction(i);
+			int negated = (set == -1) ? -1 : GeneratedCode.negate(code.getOpcode(set));
+			if (opcode == GeneratedCode.IF_GOTO && negated != -1 && code.getTarget(set) == condition
+					&& GeneratedCode.getKind(condition) == GeneratedCode.LOCAL && reads[GeneratedCode.getNumber(condition)] == 1) {
+				// Nothing else reads the condition, set it the other way round.
+				code.set(set, negated, condition, code.getA(set), code.getB(set));
+			} else {
+				opcode = (opcode == GeneratedCode.IF_GOTO) ? GeneratedCode.IF_NOT_GOTO : GeneratedCode.IF_GOTO;
+			}
+			setLabel(i, opcode, code.getA(next));
+			remove(next);
+			changed = true;
+		}
+		return changed;
+	}
+
+	// Jumps to gotos go where the gotos go. Jumps to the next instruction are removed, and so are
+	// ifs followed by a goto to the same label.
+	private boolean threadJumps() {
+		boolean changed = false;
+		for (int i = 0; i < size; i++) {
+			if (removed[i] || !isJump(code.getOpcode(i))) {
+				continue;
+			}
+			int label = getLabel(i);
+			int destination = getDestination(label);
+			if (destination != label) {
+				setLabel(i, code.getOpcode(i), destination);
+				label = destination;
+				changed = true;
+			}
+			int next = nextInstruction(i);
+			if (isRightAfter(i, label) || (code.getOpcode(i) != GeneratedCode.GOTO && next != -1
+					&& code.getOpcode(next) == GeneratedCode.GOTO && code.getA(next) == label)) {
+				// The condition of an if only reads a local, so it can go as well.
+				remove(i);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	// The label a jump to the label ends up at, following the gotos right after it.
+	private int getDestination(int label) {
+		int destination = label;
+		for (int hops = 0; hops < labelLines.length; hops++) {
+			int i = nextInstruction(labelLines[destination - firstLabel] - 1);
+			if (i == -1 || code.getOpcode(i) != GeneratedCode.GOTO) {
+				return destination;
+			}
+			destination = code.getA(i);
+			if (destination == label) {
+				break;
+			}
+		}
+		// The gotos go round in a loop.
+		return label;
+	}
+
+	private boolean removeUnreachableBlocks() {
+		if (blockCount == 0) {
+			return false;
+		}
+		boolean[] reached = new boolean[blockCount];
+		int[] stack = new int[blockCount];
+		int top = 0;
+		reached[0] = true;
+		stack[top++] = 0;
+		while (top > 0) {
+			int block = stack[--top];
+			int last = blockStarts[block + 1] - 1;
+			while (last >= blockStarts[block] && removed[last]) {
+				last--;
+			}
+			int opcode = (last < blockStarts[block]) ? -1 : code.getOpcode(last);
+			if (isJump(opcode)) {
+				int target = blocks[labelLines[getLabel(last) - firstLabel]];
+				if (!reached[target]) {
+					reached[target] = true;
+					stack[top++] = target;
+				}
+			}
+			if (!endsFlow(opcode) && block + 1 < blockCount && !reached[block + 1]) {
+				reached[block + 1] = true;
+				stack[top++] = block + 1;
+			}
+		}
+
+		boolean changed = false;
+		for (int block = 0; block < blockCount; block++) {
+			if (!reached[block]) {
+				for (int i = blockStarts[block]; i < blockStarts[block + 1]; i++) {
+					if (!removed[i]) {
+						remove(i);
+						changed = true;
+					}
+				}
+			}
+		}
+		return changed;
+	}
+
+	private boolean removeUnusedLabels() {
+		boolean changed = false;
+		for (int i = 0; i < size; i++) {
+			if (!removed[i] && code.getOpcode(i) == GeneratedCode.LABEL && jumpCounts[code.getA(i) - firstLabel] == 0) {
+				remove(i);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	// Whether the label comes after instruction i with only labels between them.
+	private boolean isRightAfter(int i, int label) {
+		for (int j = i + 1; j < size; j++) {
+			if (removed[j]) {
+				continue;
+			}
+			if (code.getOpcode(j) != GeneratedCode.LABEL) {
+				return false;
+			}
+			if (code.getA(j) == label) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// The instruction after i that is not removed and not a label, -1 if there is none.
+	private int nextInstruction(int i) {
+		for (int j = i + 1; j < size; j++) {
+			if (!removed[j] && code.getOpcode(j) != GeneratedCode.LABEL) {
+				return j;
+			}
+		}
+		return -1;
+	}
+
+	// The instruction before i in its block that is not removed, -1 if there is none.
+	private int previousInstruction(int i) {
+		for (int j = i - 1; j >= blockStarts[blocks[i]]; j--) {
+			if (!removed[j]) {
+				return (code.getOpcode(j) == GeneratedCode.LABEL) ? -1 : j;
+			}
+		}
+		return -1;
+	}
+
+	private void remove(int i) {
+		if (isJump(code.getOpcode(i))) {
+			jumpCounts[getLabel(i) - firstLabel]--;
+		}
+		removed[i] = true;
+	}
+
+	private int getLabel(int i) {
+		return (code.getOpcode(i) == GeneratedCode.GOTO) ? code.getA(i) : code.getB(i);
+	}
+
+	// Makes jump i the opcode given, to the label.
+	private void setLabel(int i, int opcode, int label) {
+		jumpCounts[getLabel(i) - firstLabel]--;
+		jumpCounts[label - firstLabel]++;
+		if (opcode == GeneratedCode.GOTO) {
+			code.set(i, opcode, GeneratedCode.NONE, label, GeneratedCode.NONE);
+		} else {
+			code.set(i, opcode, GeneratedCode.NONE, code.getA(i), label);
+		}
+	}
+
+	private static boolean isJump(int opcode) {
+		return opcode == GeneratedCode.GOTO || opcode == GeneratedCode.IF_GOTO || opcode == GeneratedCode.IF_NOT_GOTO;
+	}
+
+	// Whether the next instruction does not run after one with the opcode.
+	private static boolean endsFlow(int opcode) {
+		return opcode == GeneratedCode.GOTO || opcode == GeneratedCode.RETURN || opcode == GeneratedCode.RETURN_VOID;
+	}
+
+	private static boolean endsBlock(int opcode) {
+		return isJump(opcode) || endsFlow(opcode);
+	}
+}
@@ -0,0 +1,282 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Owner: ShaownS
+ * File: GeneratedCode.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * The three address code of a function body as the parser generates it, one instruction for
+ * each line of the generated code, and the equivalent of the expression parsed last: the
+ * operand that has its value. CodePrinter writes the code out as C.
+ *
+ * An instruction is four ints in one array: the opcode, the target and two operands. An
+ * operand is an int too, its kind in the top three bits and a number in the rest: local[n],
+ * global[n], local[local[n]], global[local[n]], or the text number n of the body. The texts
+ * are the numbers, function names and strings, each kept once. The arguments of the calls
+ * are in one more array, the count of each call and then its operands.
+ */
+public class GeneratedCode {
+
+	// Kinds of operand.
+	public static final int LOCAL = 0;
+	public static final int GLOBAL = 1 << 29;
+	public static final int LOCAL_AT = 2 << 29;
+	public static final int GLOBAL_AT = 3 << 29;
+	public static final int NUMBER = 4 << 29;
+	private static final int KIND_MASK = 7 << 29;
+
+	// No operand, for the parts an instruction does not have.
+	public static final int NONE = -1;
+
+	// Opcodes. Target = a op b for the operators, with b a label for IF_GOTO and IF_NOT_GOTO, the
+	// text of the function and the argument list for the calls and the text for PRINT.
+	public static final int COPY = 0;
+	public static final int ADD = 1;
+	public static final int SUBTRACT = 2;
+	public static final int MULTIPLY = 3;
+	public static final int DIVIDE = 4;
+	public static final int EQUAL = 5;
+	public static final int NOT_EQUAL = 6;
+	public static final int GREATER = 7;
+	public static final int GREATER_EQUAL = 8;
+	public static final int LESS = 9;
+	public static final int LESS_EQUAL = 10;
+	public static final int AND = 11;
+	public static final int OR = 12;
+	public static final int CALL = 13;
+	public static final int CALL_STATEMENT = 14;
+	public static final int READ = 15;
+	public static final int WRITE = 16;
+	public static final int PRINT = 17;
+	public static final int RETURN = 18;
+	public static final int RETURN_VOID = 19;
+	public static final int LABEL = 20;
+	public static final int GOTO = 21;
+	public static final int IF_GOTO = 22;
+	public static final int IF_NOT_GOTO = 23;
+
+	// The operator of each opcode from ADD to OR as it is written.
+	private static final String[] OPERATORS = { null, "+", "-", "*", "/", "==", "!=", ">", ">=", "<", "<=", "&&", "||" };
+
+	private static final int INSTRUCTION_SIZE = 4;
+
+	private int[] instructions;
+	private int count;
+
+	// Argument lists of the calls, and the operands of the calls being parsed.
+	private int[] arguments;
+	private int argumentsSize;
+	private int[] pendingArguments;
+	private int pendingCount;
+
+	private List<String> texts;
+	private Map<String, Integer> textNumbers;
+
+	private int equivalent;
+
+	public GeneratedCode() {
+		this.instructions = new int[16 * INSTRUCTION_SIZE];
+		this.count = 0;
+		this.arguments = new int[16];
+		this.argumentsSize = 0;
+		this.pendingArguments = new int[16];
+		this.pendingCount = 0;
+		this.texts = new ArrayList<String>();
+		this.textNumbers = new HashMap<String, Integer>();
+		this.equivalent = NONE;
+	}
+
+	public static int local(int slot) {
+		return LOCAL | slot;
+	}
+
+	public static int global(int slot) {
+		return GLOBAL | slot;
+	}
+
+	// local[local[temp]] or global[local[temp]], an element of the array at the index in the temporary.
+	public static int element(boolean isGlobal, int temp) {
+		return (isGlobal ? GLOBAL_AT : LOCAL_AT) | temp;
+	}
+
+	public static int getKind(int operand) {
+		return operand & KIND_MASK;
+	}
+
+	// The slot, the temporary with the index or the text number of the operand.
+	public static int getNumber(int operand) {
+		return operand & ~KIND_MASK;
+	}
+
+	// The opcode of the operator, -1 if it is not one.
+	public static int getOpcode(String operator) {
+		for (int opcode = ADD; opcode <= OR; opcode++) {
+			if (OPERATORS[opcode].equals(operator)) {
+				return opcode;
+			}
+		}
+		return -1;
+	}
+
+	public static String getOperator(int opcode) {
+		return OPERATORS[opcode];
+	}
+
+	// Whether the opcode is a comparison or logical operator, written in parentheses.
+	public static boolean isCondition(int opcode) {
+		return opcode >= EQUAL && opcode <= OR;
+	}
+
+	// The comparison that is true when the one given is false, -1 for the other opcodes.
+	public static int negate(int opcode) {
+		switch (opcode) {
+		case EQUAL:
+			return NOT_EQUAL;
+		case NOT_EQUAL:
+			return EQUAL;
+		case GREATER:
+			return LESS_EQUAL;
+		case GREATER_EQUAL:
+			return LESS;
+		case LESS:
+			return GREATER_EQUAL;
+		case LESS_EQUAL:
+			return GREATER;
+		default:
+			return -1;
+		}
+	}
+
+	// The operand of a number, as it is written.
+	public int number(String text) {
+		return NUMBER | text(text);
+	}
+
+	// The number of the text, the same for the same text.
+	public int text(String text) {
+		Integer n = textNumbers.get(text);
+		if (n == null) {
+			n = texts.size();
+			texts.add(text);
+			textNumbers.put(text, n);
+		}
+		return n;
+	}
+
+	public String getText(int n) {
+		return texts.get(n);
+	}
+
+	public void add(int opcode, int target, int a, int b) {
+		if (count * INSTRUCTION_SIZE == instructions.length) {
+			instructions = Arrays.copyOf(instructions, instructions.length * 2);
+		}
+		int i = count * INSTRUCTION_SIZE;
+		instructions[i] = opcode;
+		instructions[i + 1] = target;
+		instructions[i + 2] = a;
+		instructions[i + 3] = b;
+		count++;
+	}
+
+	// The arguments of a call are added one by one, then the call takes those after the mark.
+	public int getArgumentMark() {
+		return pendingCount;
+	}
+
+	public void addArgument(int operand) {
+		if (pendingCount == pendingArguments.length) {
+			pendingArguments = Arrays.copyOf(pendingArguments, pendingCount * 2);
+		}
+		pendingArguments[pendingCount++] = operand;
+	}
+
+	// Adds a CALL or CALL_STATEMENT with the arguments added after the mark.
+	public void addCall(int opcode, int target, String function, int mark) {
+		int length = pendingCount - mark;
+		if (argumentsSize + length + 1 > arguments.length) {
+			arguments = Arrays.copyOf(arguments, Math.max(arguments.length * 2, argumentsSize + length + 1));
+		}
+		int list = argumentsSize;
+		arguments[argumentsSize++] = length;
+		System.arraycopy(pendingArguments, mark, arguments, argumentsSize, length);
+		argumentsSize += length;
+		pendingCount = mark;
+		add(opcode, target, text(function), list);
+	}
+
+	public int getArgumentCount(int list) {
+		return arguments[list];
+	}
+
+	public int getArgument(int list, int i) {
+		return arguments[list + 1 + i];
+	}
+
+	// Number of instructions.
+	public int size() {
+		return count;
+	}
+
+	public int getOpcode(int i) {
+		return instructions[i * INSTRUCTION_SIZE];
+	}
+
+	public int getTarget(int i) {
+		return instructions[i * INSTRUCTION_SIZE + 1];
+	}
+
+	public int getA(int i) {
+		return instructions[i * INSTRUCTION_SIZE + 2];
+	}
+
+	public int getB(int i) {
+		return instructions[i * INSTRUCTION_SIZE + 3];
+	}
+
+	public void set(int i, int opcode, int target, int a, int b) {
+		int at = i * INSTRUCTION_SIZE;
+		instructions[at] = opcode;
+		instructions[at + 1] = target;
+		instructions[at + 2] = a;
+		instructions[at + 3] = b;
+	}
+
+	// Removes the instructions marked, the others keep their order.
+	public void remove(boolean[] removed) {
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (!removed[i]) {
+				System.arraycopy(instructions, i * INSTRUCTION_SIZE, instructions, kept * INSTRUCTION_SIZE, INSTRUCTION_SIZE);
+				kept++;
+			}
+		}
+		count = kept;
+	}
+
+	// Changes the target of the last instruction when it is the old target.
+	public boolean replaceLastTarget(int oldTarget, int newTarget) {
+		if (count == 0 || oldTarget == NONE || instructions[(count - 1) * INSTRUCTION_SIZE + 1] != oldTarget) {
+			return false;
+		}
+		instructions[(count - 1) * INSTRUCTION_SIZE + 1] = newTarget;
+		return true;
+	}
+
+	public int getEquivalent() {
+		return equivalent;
+	}
+
+	public void setEquivalent(int operand) {
+		equivalent = operand;
+	}
+}
@@ -0,0 +1,731 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Owner: ShaownS
+ * File: GeneratedCodeCache.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Directory of the '_gen' files of earlier runs, so a file that did not change is not scanned
+ * and parsed again. An entry is named by the SHA-256 hash of the generator version, whether the
+ * functions were generated on more than one thread (the labels differ) and the source bytes.
+ * It has the generated code and the messages printed while generating it. Only files that
+ * passed are kept, a failed one is parsed again each time to print its messages.
+ *
+ * With more than one thread the functions of a file are generated on their own, and they are
+ * also kept in a function pack named by the path of the file. A function is found in the pack
+ * by the hash of the version, the layout of the globals and its tokens, so when some functions
+ * of a large file changed only those are generated again.
+ *
+ * On a hit the code is copied to the '_gen' file, or hard linked when that is turned on, which
+ * is safe since the parser replaces the '_gen' file instead of writing into it. The entries
+ * are kept below a size by removing the least recently used ones, the last use of an entry
+ * is the modified time of its code file. The size is found by listing the directory once,
+ * then counted up as entries are added, and the directory is only listed again when it goes
+ * over. The hits and misses are counted in memory and added to a stats file by flushCounts.
+ *
+ * Used by Parser, BatchCompiler and CompileServer when the system property csc512.cache gives
+ * the directory, with csc512.cache.size for the size (512MB) and csc512.cache.link=true for
+ * hard links. Run on its own for the stats or to clear the cache, see main().
+ */
+public class GeneratedCodeCache {
+
+	private static final long DEFAULT_MAX_SIZE = 512L << 20;
+
+	private static final String CODE_EXTENSION = ".gen";
+	private static final String MESSAGES_EXTENSION = ".msg";
+	private static final String FUNCTIONS_EXTENSION = ".fun";
+	private static final String STATS_FILE = "stats";
+
+	// Order of the counts in the stats file.
+	private static final int HITS = 0;
+	private static final int MISSES = 1;
+	private static final int EVICTIONS = 2;
+	private static final int FUNCTION_HITS = 3;
+	private static final int FUNCTION_MISSES = 4;
+	private static final int COUNT_TYPES = 5;
+
+	// Eviction leaves the cache this much below its size, so the next entries fit without listing it again.
+	private static final int EVICT_MARGIN_DIVISOR = 10;
+
+	private File dir;
+	private long maxSize;
+	private boolean hardLink;
+
+	// Counts of this JVM not yet added to the stats file, in the order above.
+	private AtomicLong[] counts;
+
+	// Size of the entries, -1 until the directory has been listed.
+	private AtomicLong size;
+
+	public GeneratedCodeCache(File dir, long maxSize, boolean hardLink) throws IOException {
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Can not create the cache directory " + dir.getPath());
+		}
+		this.dir = dir;
+		this.maxSize = maxSize;
+		this.hardLink = hardLink;
+		this.counts = new AtomicLong[COUNT_TYPES];
+		for (int i = 0; i < COUNT_TYPES; i++) {
+			counts[i] = new AtomicLong();
+		}
+		this.size = new AtomicLong(-1);
+	}
+
+	// The cache given by the system properties, null when csc512.cache is not set.
+	public static GeneratedCodeCache fromProperties() throws IOException {
+		String dir = System.getProperty("csc512.cache");
+		if (dir == null) {
+			return null;
+		}
+		String size = System.getProperty("csc512.cache.size");
+		return new GeneratedCodeCache(new File(dir), (size == null) ? DEFAULT_MAX_SIZE : parseSize(size),
+				Boolean.getBoolean("csc512.cache.link"));
+	}
+
+	// Size in bytes, with an optional KB, MB or GB suffix.
+	static long parseSize(String size) {
+		String s = size.trim().toUpperCase();
+		long unit = 1;
+		if (s.endsWith("KB")) {
+			unit = 1L << 10;
+		} else if (s.endsWith("MB")) {
+			unit = 1L << 20;
+		} else if (s.endsWith("GB")) {
+			unit = 1L << 30;
+		}
+		if (unit > 1) {
+			s = s.substring(0, s.length() - 2).trim();
+		}
+		return Long.parseLong(s) * unit;
+	}
+
+	/*
+	 * Generates the code for the file as a Parser with the given threads would, or takes it
+	 * from the cache. Prints the same messages to the log and throws the same exceptions.
+	 * Returns true if the '_gen' file was written.
+	 */
+	public boolean compile(String inputFile, File outputFile, int threads, PrintStream log) throws IOException {
+		String key = getKey(inputFile, threads > 1);
+		if (copyEntry(key, outputFile, log)) {
+			count(HITS, 1);
+			return true;
+		}
+		count(MISSES, 1);
+
+		// The messages are kept to go with the entry.
+		ByteArrayOutputStream messages = new ByteArrayOutputStream();
+		Parser parser = new Parser(inputFile, outputFile, new PrintStream(messages));
+		parser.setThreads(threads);
+		parser.setCache(this);
+		try {
+			parser.program();
+			if (parser.isPassed()) {
+				addEntry(key, outputFile, messages.toByteArray());
+			}
+		} finally {
+			log.print(messages.toString());
+		}
+		return parser.isPassed();
+	}
+
+	// Hash of the version, the layout of the globals and the tokens of one function, in hex.
+	String getFunctionKey(String globalsLayout, List<Scanner.Token> tokens) {
+		MessageDigest digest = newDigest();
+		digest.update((Parser.GENERATOR_VERSION + " function\n" + globalsLayout + "\n").getBytes(StandardCharsets.UTF_8));
+
+		// The tokens go into one buffer as the kind, then the length and characters of a token
+		// with its own text, the length keeps the text from running into the next token.
+		ByteBuffer buffer = ByteBuffer.allocate(1024);
+		for (Scanner.Token token : tokens) {
+			Scanner.TokenKind kind = token.getTokenKind();
+			String text = (kind.getText() == null) ? token.getTokenName() : "";
+			if (buffer.remaining() < 5 + 2 * text.length()) {
+				ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + 5 + 2 * text.length()));
+				buffer.flip();
+				larger.put(buffer);
+				buffer = larger;
+			}
+			buffer.put((byte) kind.ordinal()).putInt(text.length());
+			for (int i = 0; i < text.length(); i++) {
+				buffer.putChar(text.charAt(i));
+			}
+		}
+		digest.update(buffer.array(), 0, buffer.position());
+		return toHex(digest.digest());
+	}
+
+	// The functions kept from the last compile of the file, and a new pack for this compile.
+	FunctionPack openFunctions(String inputFile) {
+		File file = null;
+		try {
+			String path = new File(inputFile).getCanonicalPath();
+			MessageDigest digest = newDigest();
+			digest.update((Parser.GENERATOR_VERSION + " functions\n" + path).getBytes(StandardCharsets.UTF_8));
+			file = new File(dir, toHex(digest.digest()) + FUNCTIONS_EXTENSION);
+		} catch (IOException e) {
+			// No pack for a file without a path, its functions are generated.
+		}
+		return new FunctionPack(file);
+	}
+
+	// Hash of the version, the kind of labels and the source, in hex.
+	private static String getKey(String inputFile, boolean parallel) throws IOException {
+		MessageDigest digest = newDigest();
+		digest.update((Parser.GENERATOR_VERSION + (parallel ? " parallel\n" : " sequential\n")).getBytes(StandardCharsets.UTF_8));
+
+		InputStream in = new FileInputStream(inputFile);
+		try {
+			byte[] buffer = new byte[1 << 16];
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, count);
+			}
+		} finally {
+			in.close();
+		}
+
+		return toHex(digest.digest());
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every java has SHA-256.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static String toHex(byte[] hash) {
+		char[] hex = new char[2 * hash.length];
+		for (int i = 0; i < hash.length; i++) {
+			hex[2 * i] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+			hex[2 * i + 1] = HEX_DIGITS[hash[i] & 0xF];
+		}
+		return new String(hex);
+	}
+
+	// Writes the code of the entry to the output file and prints its messages, false if there is no entry.
+	private boolean copyEntry(String key, File outputFile, PrintStream log) throws IOException {
+		File code = new File(dir, key + CODE_EXTENSION);
+		File messages = new File(dir, key + MESSAGES_EXTENSION);
+		byte[] messageBytes;
+		try {
+			messageBytes = Files.readAllBytes(messages.toPath());
+			if (!code.exists()) {
+				// The messages are written first and removed last, the entry is being added or removed.
+				return false;
+			}
+			if (hardLink) {
+				try {
+					link(code, outputFile);
+				} catch (UnsupportedOperationException | IOException e) {
+					if (!code.exists()) {
+						return false;
+					}
+					// Such as another file system, copy instead.
+					copy(code, outputFile);
+				}
+			} else {
+				copy(code, outputFile);
+			}
+		} catch (NoSuchFileException e) {
+			// Not cached, or removed by another run. The output file is left as it was.
+			return false;
+		}
+		code.setLastModified(System.currentTimeMillis());
+		log.write(messageBytes);
+		return true;
+	}
+
+	// Copies to a temporary file next to the target, then renames it, so the target is never half written.
+	private static void copy(File from, File to) throws IOException {
+		File dir = to.getAbsoluteFile().getParentFile();
+		File temp = File.createTempFile(to.getName(), ".tmp", dir);
+		try {
+			Files.copy(from.toPath(), temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			move(temp, to);
+		} finally {
+			temp.delete();
+		}
+	}
+
+	// Links a temporary name next to the target, then renames it, so the target is only replaced once the link is made.
+	private static void link(File from, File to) throws IOException {
+		File dir = to.getAbsoluteFile().getParentFile();
+		File temp = File.createTempFile(to.getName(), ".tmp", dir);
+		try {
+			// The link needs a name that is not taken.
+			Files.delete(temp.toPath());
+			Files.createLink(temp.toPath(), from.toPath());
+			move(temp, to);
+		} finally {
+			temp.delete();
+		}
+	}
+
+	private static void move(File from, File to) throws IOException {
+		try {
+			Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	// Keeps the output file and messages as the entry, the messages first since the code file marks a complete entry.
+	private void addEntry(String key, File outputFile, byte[] messages) throws IOException {
+		File code = new File(dir, key + CODE_EXTENSION);
+		write(new File(dir, key + MESSAGES_EXTENSION), messages);
+		copy(outputFile, code);
+		addSize(messages.length + code.length());
+	}
+
+	// Writes a temporary file in the cache, then renames it, so other runs never see it half written.
+	private void write(File file, byte[] bytes) throws IOException {
+		File temp = File.createTempFile(file.getName(), ".tmp", dir);
+		try {
+			Files.write(temp.toPath(), bytes);
+			move(temp, file);
+		} finally {
+			temp.delete();
+		}
+	}
+
+	// Counts the bytes added to the cache, and removes entries when it went over its size.
+	private void addSize(long bytes) throws IOException {
+		if (size.get() < 0 || size.addAndGet(bytes) > maxSize) {
+			evict();
+		}
+	}
+
+	// Entries of the cache, by their code files, and the function packs.
+	private List<File> getEntries() {
+		File[] files = dir.listFiles();
+		List<File> entries = new ArrayList<File>();
+		if (files != null) {
+			for (File file : files) {
+				if (file.getName().endsWith(CODE_EXTENSION) || file.getName().endsWith(FUNCTIONS_EXTENSION)) {
+					entries.add(file);
+				}
+			}
+		}
+		return entries;
+	}
+
+	// The messages of an entry, a function pack has them inside.
+	private File getMessagesFile(File code) {
+		String name = code.getName();
+		if (!name.endsWith(CODE_EXTENSION)) {
+			return new File(dir, name + MESSAGES_EXTENSION);
+		}
+		return new File(dir, name.substring(0, name.length() - CODE_EXTENSION.length()) + MESSAGES_EXTENSION);
+	}
+
+	/*
+	 * Lists the entries and removes the least recently used ones until the rest fit in the size,
+	 * with some room left. Also finds the size of the entries added by other runs. Synchronized
+	 * so that the threads that go over the size at the same time list the directory only once.
+	 */
+	private synchronized void evict() throws IOException {
+		long known = size.get();
+		if (known >= 0 && known <= maxSize) {
+			// Another thread has just removed entries.
+			return;
+		}
+		List<File> entries = getEntries();
+		final long[] lastUsed = new long[entries.size()];
+		long size = 0;
+		for (int i = 0; i < entries.size(); i++) {
+			File code = entries.get(i);
+			lastUsed[i] = code.lastModified();
+			size += code.length() + getMessagesFile(code).length();
+		}
+		if (size <= maxSize) {
+			this.size.set(size);
+			return;
+		}
+		long target = maxSize - maxSize / EVICT_MARGIN_DIVISOR;
+
+		// Sorted by the times read above, since the files can be used by other runs while sorting.
+		Integer[] order = new Integer[entries.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return Long.compare(lastUsed[a], lastUsed[b]);
+			}
+		});
+
+		int evicted = 0;
+		for (int i = 0; i < order.length && size > target; i++) {
+			File code = entries.get(order[i]);
+			File messages = getMessagesFile(code);
+			long entrySize = code.length() + messages.length();
+			if (code.delete()) {
+				messages.delete();
+				size -= entrySize;
+				evicted++;
+			}
+		}
+		this.size.set(size);
+		count(EVICTIONS, evicted);
+	}
+
+	private void count(int index, long amount) {
+		counts[index].addAndGet(amount);
+	}
+
+	/*
+	 * Adds the counts of this JVM to the stats file and starts them again from zero. Called once
+	 * at the end of a run, or when the compile server stops, not for every file, so
+	 * the threads do not wait on the lock of the stats file. The file is locked since other runs
+	 * may use the cache at the same time, the method is synchronized since a file lock does not
+	 * keep out the other threads of this JVM.
+	 */
+	public synchronized void flushCounts() throws IOException {
+		long[] amounts = new long[COUNT_TYPES];
+		boolean changed = false;
+		for (int i = 0; i < COUNT_TYPES; i++) {
+			amounts[i] = counts[i].getAndSet(0);
+			changed |= amounts[i] != 0;
+		}
+		if (!changed) {
+			return;
+		}
+		RandomAccessFile file = new RandomAccessFile(new File(dir, STATS_FILE), "rw");
+		try {
+			FileChannel channel = file.getChannel();
+			FileLock lock = channel.lock();
+			try {
+				long[] counts = readCounts(file);
+				for (int i = 0; i < COUNT_TYPES; i++) {
+					counts[i] += amounts[i];
+				}
+				StringBuilder sb = new StringBuilder();
+				for (long count : counts) {
+					sb.append(count).append(' ');
+				}
+				file.setLength(0);
+				file.write((sb.toString().trim() + "\n").getBytes(StandardCharsets.UTF_8));
+			} finally {
+				lock.release();
+			}
+		} finally {
+			file.close();
+		}
+	}
+
+	private static long[] readCounts(RandomAccessFile file) throws IOException {
+		long[] counts = new long[COUNT_TYPES];
+		byte[] bytes = new byte[(int) file.length()];
+		file.seek(0);
+		file.readFully(bytes);
+		String[] parts = new String(bytes, StandardCharsets.UTF_8).trim().split("\\s+");
+		for (int i = 0; i < counts.length && i < parts.length; i++) {
+			try {
+				counts[i] = Long.parseLong(parts[i]);
+			} catch (NumberFormatException e) {
+				// A broken stats file starts counting again.
+			}
+		}
+		file.seek(0);
+		return counts;
+	}
+
+	// Prints the number and size of the entries and the hit ratio.
+	public void printStats(PrintStream out) throws IOException {
+		List<File> entries = getEntries();
+		long size = 0;
+		for (File code : entries) {
+			size += code.length() + getMessagesFile(code).length();
+		}
+
+		long[] counts = new long[COUNT_TYPES];
+		File statsFile = new File(dir, STATS_FILE);
+		if (statsFile.exists()) {
+			RandomAccessFile file = new RandomAccessFile(statsFile, "r");
+			try {
+				counts = readCounts(file);
+			} finally {
+				file.close();
+			}
+		}
+		out.println("Cache directory: " + dir.getPath());
+		out.println("Entries: " + entries.size() + ", " + size + " of " + maxSize + " bytes");
+		out.println("Hits: " + counts[HITS] + ", misses: " + counts[MISSES] + ", evictions: " + counts[EVICTIONS]);
+		out.println("Hit ratio: " + getRatio(counts[HITS], counts[MISSES]));
+		out.println("Function hits: " + counts[FUNCTION_HITS] + ", misses: " + counts[FUNCTION_MISSES]);
+		out.println("Function hit ratio: " + getRatio(counts[FUNCTION_HITS], counts[FUNCTION_MISSES]));
+	}
+
+	private static String getRatio(long hits, long misses) {
+		return (hits + misses == 0) ? "-" : String.format("%.1f%%", 100.0 * hits / (hits + misses));
+	}
+
+	// Removes all the entries and the counts.
+	public void clear() {
+		for (File code : getEntries()) {
+			code.delete();
+			getMessagesFile(code).delete();
+		}
+		new File(dir, STATS_FILE).delete();
+	}
+
+	/*
+	 * Functions of the last compile of one file, with an index from the key of a function to
+	 * its record, read when it is asked for. The functions of this compile are written to a new
+	 * pack as they come, which replaces the old one when the file passed. A record is the key,
+	 * then the length and bytes of the code and of the messages.
+	 */
+	class FunctionPack {
+		private File file;
+
+		// The old pack and where the record of each key starts, after the key.
+		private FileChannel previous;
+		private Map<String, Long> offsets;
+
+		// The new pack, null when it can not be written.
+		private File temp;
+		private DataOutputStream next;
+
+		private FunctionPack(File file) {
+			this.file = file;
+			this.offsets = new HashMap<String, Long>();
+			if (file == null) {
+				return;
+			}
+			try {
+				readIndex();
+			} catch (IOException e) {
+				// Not there, or removed by another run.
+				closePrevious();
+			}
+			try {
+				temp = File.createTempFile(file.getName(), ".tmp", dir);
+				next = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16));
+			} catch (IOException e) {
+				if (temp != null) {
+					temp.delete();
+				}
+				next = null;
+			}
+		}
+
+		private void readIndex() throws IOException {
+			previous = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(previous), 1 << 16));
+			long position = 0;
+			try {
+				while (true) {
+					String key = in.readUTF();
+					long offset = position + 2 + key.length();
+					int codeLength = in.readInt();
+					skip(in, codeLength);
+					int messagesLength = in.readInt();
+					skip(in, messagesLength);
+					offsets.put(key, offset);
+					position = offset + 8 + codeLength + messagesLength;
+				}
+			} catch (EOFException e) {
+				// End of the pack, a record cut short by a crash is left out.
+			}
+		}
+
+		private void skip(DataInputStream in, int count) throws IOException {
+			while (count > 0) {
+				int skipped = in.skipBytes(count);
+				if (skipped == 0) {
+					throw new EOFException();
+				}
+				count -= skipped;
+			}
+		}
+
+		// Code and messages of the function in the last compile, null if it was not there.
+		// Can be called by many threads at the same time.
+		public String[] get(String key) {
+			Long offset = offsets.get(key);
+			if (offset != null) {
+				try {
+					long position = offset;
+					byte[] code = read(position);
+					position += 4 + code.length;
+					byte[] messages = read(position);
+					count(FUNCTION_HITS, 1);
+					return new String[] { new String(code, StandardCharsets.UTF_8), new String(messages, StandardCharsets.UTF_8) };
+				} catch (IOException e) {
+					// Generated again.
+				}
+			}
+			count(FUNCTION_MISSES, 1);
+			return null;
+		}
+
+		// Reads a length and that many bytes at the position, positional reads can be done by many threads.
+		private byte[] read(long position) throws IOException {
+			ByteBuffer length = ByteBuffer.allocate(4);
+			readFully(length, position);
+			ByteBuffer bytes = ByteBuffer.allocate(length.getInt(0));
+			readFully(bytes, position + 4);
+			return bytes.array();
+		}
+
+		private void readFully(ByteBuffer buffer, long position) throws IOException {
+			while (buffer.hasRemaining()) {
+				int count = previous.read(buffer, position + buffer.position());
+				if (count == -1) {
+					throw new EOFException();
+				}
+			}
+		}
+
+		// Adds a function of this compile to the new pack, in source order.
+		public void add(String key, String code, String messages) {
+			if (next == null) {
+				return;
+			}
+			try {
+				byte[] codeBytes = code.getBytes(StandardCharsets.UTF_8);
+				byte[] messageBytes = messages.getBytes(StandardCharsets.UTF_8);
+				next.writeUTF(key);
+				next.writeInt(codeBytes.length);
+				next.write(codeBytes);
+				next.writeInt(messageBytes.length);
+				next.write(messageBytes);
+			} catch (IOException e) {
+				// Such as a full disk, the old pack stays.
+				discard();
+			}
+		}
+
+		// Replaces the old pack with the new one when keep is set, otherwise leaves the old one.
+		public void close(boolean keep) {
+			closePrevious();
+			if (next == null) {
+				return;
+			}
+			try {
+				next.close();
+				next = null;
+				if (keep) {
+					long previousLength = file.length();
+					move(temp, file);
+					addSize(file.length() - previousLength);
+				}
+			} catch (IOException e) {
+				// The functions are generated again next time.
+			} finally {
+				discard();
+			}
+		}
+
+		private void discard() {
+			if (next != null) {
+				try {
+					next.close();
+				} catch (IOException e) {
+					// Deleted anyway.
+				}
+				next = null;
+			}
+			if (temp != null) {
+				temp.delete();
+			}
+		}
+
+		private void closePrevious() {
+			if (previous != null) {
+				try {
+					previous.close();
+				} catch (IOException e) {
+					// Only read from.
+				}
+				previous = null;
+			}
+		}
+	}
+
+	private static void usage() {
+		System.out.println("Usage: GeneratedCodeCache [-dir DIR] [-size S] stats|clear");
+		System.out.println("  -dir DIR   cache directory (the csc512.cache property)");
+		System.out.println("  -size S    largest size of the cache, e.g. 64MB (the csc512.cache.size property, 512MB)");
+		System.exit(1);
+	}
+
+	public static void main(String[] args) throws IOException {
+		String dir = System.getProperty("csc512.cache");
+		String size = System.getProperty("csc512.cache.size");
+		String command = null;
+		for (int i = 0; i < args.length; i++) {
+			if ((args[i].equals("-dir") || args[i].equals("-size")) && i + 1 < args.length) {
+				if (args[i].equals("-dir")) {
+					dir = args[++i];
+				} else {
+					size = args[++i];
+				}
+			} else if (command == null && (args[i].equals("stats") || args[i].equals("clear"))) {
+				command = args[i];
+			} else {
+				usage();
+			}
+		}
+		if (dir == null || command == null) {
+			usage();
+		}
+
+		long maxSize = DEFAULT_MAX_SIZE;
+		if (size != null) {
+			try {
+				maxSize = parseSize(size);
+			} catch (NumberFormatException e) {
+				System.out.println("Invalid size. " + e.getMessage());
+				usage();
+			}
+		}
+		GeneratedCodeCache cache = new GeneratedCodeCache(new File(dir), maxSize, false);
+		if (command.equals("stats")) {
+			cache.printStats(System.out);
+		} else {
+			cache.clear();
+		}
+	}
+}
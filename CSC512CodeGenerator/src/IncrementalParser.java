@@ -0,0 +1,550 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+
+/**
+ * Owner: ShaownS
+ * File: IncrementalParser.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Keeps a file scanned and its code generated between edits, for editors that want the
+ * result after every change without scanning and generating the whole file again.
+ *
+ * The file is held as segments: the global declarations, then one segment per function,
+ * split as in the parallel parse of Parser (up to the semicolon of a declaration or the
+ * right brace that closes the body, with the meta statements after it). Each segment has
+ * its text, its tokens and its generated code. An edit scans again only the segments it
+ * falls in, and more of the following ones only while the end of the scanned text does
+ * not line up with the start of the next segment. A segment is generated again only if
+ * its tokens changed, and all functions only if the global declarations changed.
+ *
+ * The code is the same as from the parallel parse of Parser: labels are numbered within
+ * each function. Meta statements inside the header of the first function are put before
+ * it rather than before the global array.
+ *
+ * Can be run on its own, reading edit commands from the standard input, see main().
+ */
+public class IncrementalParser {
+
+	private static final EnumSet<Scanner.TokenKind> TYPE_SPECIFIERS = EnumSet.of(Scanner.TokenKind.INT,
+			Scanner.TokenKind.VOID, Scanner.TokenKind.BINARY, Scanner.TokenKind.DECIMAL);
+
+	// Part of the file, the global declarations or one function.
+	private static class Segment {
+		private byte[] text;
+
+		// Tokens of the text, up to the scanner error if there is one.
+		private List<Scanner.Token> tokens;
+		private Scanner.ScannerException scanError;
+
+		// Generated code, null if it could not be generated.
+		private String code;
+
+		// What to print for this segment: the messages, or why it could not be scanned or generated.
+		private String messages;
+
+		// Set for the segment that has the function or declarations which are not closed at the end of the file.
+		private boolean closed;
+
+		public Segment(byte[] text) {
+			this.text = text;
+			this.messages = "";
+			this.closed = true;
+		}
+	}
+
+	private String inputFile;
+	private File outputFile;
+
+	// Segments in file order, the first one has the global declarations.
+	private List<Segment> segments;
+	private SymbolTable globals;
+
+	// Number of segments generated by the last load or edit.
+	private int generatedCount;
+
+	public IncrementalParser(String fileName) throws IOException {
+		this(fileName, new File(Scanner.getResultFilename(fileName)));
+	}
+
+	public IncrementalParser(String fileName, File outputFile) throws IOException {
+		this.inputFile = fileName;
+		this.outputFile = outputFile;
+		reload();
+	}
+
+	// Reads, scans and generates the whole file again.
+	public void reload() throws IOException {
+		byte[] text = Files.readAllBytes(new File(inputFile).toPath());
+		segments = scanSegments(text, true, true);
+		generatedCount = 0;
+		generateGlobals();
+		for (int i = 1; i < segments.size(); i++) {
+			generateFunction(segments.get(i));
+		}
+	}
+
+	public File getOutputFile() {
+		return outputFile;
+	}
+
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	public int getGeneratedCount() {
+		return generatedCount;
+	}
+
+	/*
+	 * Replaces removed bytes at the offset with the inserted bytes, as the editor did with
+	 * the file, then scans and generates what changed.
+	 */
+	public void edit(long offset, int removed, byte[] inserted) {
+		// Find the segments the edit falls in.
+		long start = 0;
+		int first = segments.size() - 1;
+		long firstStart = -1;
+		for (int i = 0; i < segments.size(); i++) {
+			long end = start + segments.get(i).text.length;
+			if (offset < end || i == segments.size() - 1) {
+				first = i;
+				firstStart = start;
+				break;
+			}
+			start = end;
+		}
+		if (offset < 0 || removed < 0 || offset + removed > firstStart + byteCount(first, segments.size())) {
+			throw new IllegalArgumentException("Edit is outside the file.");
+		}
+
+		// An edit at the start of a segment may join the last token of the one before. An edit in
+		// the first function can turn its start into global declarations, so the globals are
+		// scanned again with it.
+		if ((offset == firstStart || first == 1) && first > 0) {
+			first--;
+			firstStart -= segments.get(first).text.length;
+		}
+		int last = first;
+		long lastEnd = firstStart + segments.get(first).text.length;
+		while (offset + removed > lastEnd) {
+			last++;
+			lastEnd += segments.get(last).text.length;
+		}
+
+		// The text of the segments with the edit applied.
+		ByteArrayOutputStream edited = new ByteArrayOutputStream();
+		int editStart = (int) (offset - firstStart);
+		byte[] oldText = concat(first, last + 1);
+		edited.write(oldText, 0, editStart);
+		edited.write(inserted, 0, inserted.length);
+		edited.write(oldText, editStart + removed, oldText.length - editStart - removed);
+		byte[] text = edited.toByteArray();
+
+		// Scan it, taking in the next segment while it does not end where the next one starts.
+		List<Segment> scanned;
+		while (true) {
+			boolean endsFile = last == segments.size() - 1;
+			scanned = scanSegments(text, first == 0, endsFile);
+			if (scanned != null) {
+				break;
+			}
+			last++;
+			text = append(text, segments.get(last).text);
+		}
+
+		List<Segment> old = new ArrayList<Segment>(segments.subList(first, last + 1));
+		segments.subList(first, last + 1).clear();
+		segments.addAll(first, scanned);
+
+		generatedCount = 0;
+		if (first == 0 && !sameTokens(old.get(0), scanned.get(0))) {
+			// Other globals, every function has to be generated again.
+			generateGlobals();
+			for (int i = 1; i < segments.size(); i++) {
+				generateFunction(segments.get(i));
+			}
+			return;
+		}
+		if (first == 0) {
+			scanned.get(0).code = old.get(0).code;
+			scanned.get(0).messages = old.get(0).messages;
+		}
+		for (int i = (first == 0) ? 1 : 0; i < scanned.size(); i++) {
+			Segment segment = scanned.get(i);
+			Segment previous = findSame(old, segment, i, scanned.size());
+			if (previous != null) {
+				segment.code = previous.code;
+				segment.messages = previous.messages;
+			} else {
+				generateFunction(segment);
+			}
+		}
+	}
+
+	/*
+	 * Writes the generated code to the '_gen' file, or prints why it could not be generated.
+	 * Prints the same messages as Parser, returns true if the file was written.
+	 */
+	public boolean write(PrintStream log) throws IOException {
+		// Messages in file order up to the first segment that could not be generated.
+		StringBuilder messages = new StringBuilder();
+		for (Segment segment : segments) {
+			messages.append(segment.messages);
+			if (segment.code == null || !segment.closed) {
+				if (segment.code != null) {
+					// An unclosed function fails at the end of the file.
+					messages.append("Fail" + System.lineSeparator() + "Failed token: end of file" + System.lineSeparator());
+				}
+				log.print(messages);
+				return false;
+			}
+		}
+
+		File dir = outputFile.getAbsoluteFile().getParentFile();
+		File tempOutputFile = File.createTempFile(outputFile.getName(), ".tmp", dir);
+		try {
+			Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempOutputFile)), 1 << 16);
+			try {
+				for (Segment segment : segments) {
+					out.write(segment.code);
+				}
+			} finally {
+				out.close();
+			}
+			try {
+				Files.move(tempOutputFile.toPath(), outputFile.toPath(),
+						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempOutputFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			tempOutputFile.delete();
+		}
+		log.print(messages);
+		return true;
+	}
+
+	// Parses the global declarations again, into new globals.
+	private void generateGlobals() {
+		Segment segment = segments.get(0);
+		globals = new SymbolTable();
+		generatedCount++;
+		segment.code = null;
+		Parser parser = Parser.forTokens(globals, segment.tokens, segment.scanError);
+		try {
+			if (parser.generateGlobals()) {
+				segment.code = parser.getGeneratedCode();
+				segment.messages = parser.getMessages();
+			} else {
+				segment.messages = parser.getMessages() + parser.getFailMessage();
+			}
+		} catch (Scanner.ScannerException | Parser.GenerationException e) {
+			segment.messages = parser.getMessages() + e.getMessage() + System.lineSeparator();
+		}
+	}
+
+	private void generateFunction(Segment segment) {
+		generatedCount++;
+		segment.code = null;
+		if (segments.get(0).code == null) {
+			// The globals are wrong, the first error is there.
+			segment.messages = "";
+			return;
+		}
+		Parser parser = Parser.forTokens(globals, segment.tokens, segment.scanError);
+		try {
+			if (parser.generateFunction()) {
+				segment.code = parser.getGeneratedCode();
+				segment.messages = parser.getMessages();
+			} else {
+				segment.messages = parser.getMessages() + parser.getFailMessage();
+			}
+		} catch (Scanner.ScannerException | Parser.GenerationException e) {
+			segment.messages = parser.getMessages() + e.getMessage() + System.lineSeparator();
+		}
+	}
+
+	/*
+	 * Scans the text and splits it into segments, the first one is the global declarations
+	 * if isGlobal is set. Returns null if the text does not end at a segment boundary, so
+	 * that more text must be scanned with it, unless it ends the file.
+	 */
+	private static List<Segment> scanSegments(byte[] text, boolean isGlobal, boolean endsFile) {
+		Scanner scanner = new Scanner(text);
+		Scanner.TokenBuffer buffer = new Scanner.TokenBuffer(text.length / 4);
+		List<Segment> result = new ArrayList<Segment>();
+		Scanner.ScannerException scanError = null;
+		try {
+			while (scanner.scanTokens(buffer, Integer.MAX_VALUE) > 0) {
+				// Scanned to the end.
+			}
+		} catch (Scanner.ScannerException e) {
+			if (scanner.getReadOffset() >= text.length && !endsFile) {
+				// The rejected token may go on in the next segment.
+				return null;
+			}
+			// The tokens before the error are split as usual, the last segment keeps the rest of the text.
+			scanError = e;
+		}
+
+		List<Scanner.Token> tokens = new ArrayList<Scanner.Token>(buffer.size());
+		for (int i = 0; i < buffer.size(); i++) {
+			Scanner.TokenKind kind = buffer.getTokenKind(i);
+			String tokenText = (kind.getText() != null) ? kind.getText() : scanner.getTokenText(buffer, i);
+			tokens.add(new Scanner.Token(kind, tokenText));
+		}
+
+		// Split at the first function after the globals, then after the end of every function.
+		int segmentStart = 0;
+		int segmentFirstToken = 0;
+		boolean inGlobals = isGlobal;
+		boolean functionEnded = false;
+		int braceDepth = 0;
+		for (int i = 0; i < tokens.size(); i++) {
+			Scanner.TokenKind kind = tokens.get(i).getTokenKind();
+			if (kind == Scanner.TokenKind.META_STATEMENT) {
+				continue;
+			}
+
+			boolean startsFunction = inGlobals ? isFunctionStart(tokens, i) : functionEnded;
+			if (startsFunction) {
+				int boundary = (int) buffer.getStart(i);
+				addSegment(result, text, segmentStart, boundary, tokens.subList(segmentFirstToken, i));
+				segmentStart = boundary;
+				segmentFirstToken = i;
+				inGlobals = false;
+				functionEnded = false;
+			}
+
+			if (kind == Scanner.TokenKind.LEFT_BRACE) {
+				braceDepth++;
+			} else if (kind == Scanner.TokenKind.RIGHT_BRACE) {
+				functionEnded = --braceDepth == 0;
+			} else if (kind == Scanner.TokenKind.SEMICOLON) {
+				functionEnded = braceDepth == 0;
+			}
+		}
+		addSegment(result, text, segmentStart, text.length, tokens.subList(segmentFirstToken, tokens.size()));
+
+		Segment lastSegment = result.get(result.size() - 1);
+		if (scanError != null) {
+			// Nothing after the error is scanned or generated, so it does not matter where the segment ends.
+			lastSegment.scanError = scanError;
+			return result;
+		}
+
+		// The globals end with a semicolon, a function with its closing semicolon or brace.
+		boolean closed = inGlobals ? endsWithSemicolon(lastSegment.tokens) : functionEnded;
+		if (buffer.size() > 0 && !(inGlobals && lastSegment.tokens.isEmpty())) {
+			// A last token right at the end could go on into the next segment.
+			int lastToken = buffer.size() - 1;
+			Scanner.TokenKind kind = buffer.getTokenKind(lastToken);
+			if (buffer.getStart(lastToken) + buffer.getLength(lastToken) == text.length
+					&& kind != Scanner.TokenKind.RIGHT_BRACE && kind != Scanner.TokenKind.SEMICOLON) {
+				closed = false;
+			}
+		}
+		if (!closed && !endsFile) {
+			return null;
+		}
+		lastSegment.closed = closed || (inGlobals && !hasTokens(lastSegment.tokens));
+		return result;
+	}
+
+	private static void addSegment(List<Segment> result, byte[] text, int start, int end, List<Scanner.Token> tokens) {
+		byte[] segmentText = new byte[end - start];
+		System.arraycopy(text, start, segmentText, 0, segmentText.length);
+		Segment segment = new Segment(segmentText);
+		segment.tokens = new ArrayList<Scanner.Token>(tokens);
+		result.add(segment);
+	}
+
+	// A type, an identifier and a left parenthesis start the first function after the globals.
+	private static boolean isFunctionStart(List<Scanner.Token> tokens, int i) {
+		if (!TYPE_SPECIFIERS.contains(tokens.get(i).getTokenKind())) {
+			return false;
+		}
+		int id = nextNonMeta(tokens, i);
+		int parenthesis = nextNonMeta(tokens, id);
+		return parenthesis < tokens.size()
+				&& tokens.get(id).getTokenType() == Scanner.TokenType.IDENTIFIER
+				&& tokens.get(parenthesis).getTokenKind() == Scanner.TokenKind.LEFT_PARENTHESIS;
+	}
+
+	private static int nextNonMeta(List<Scanner.Token> tokens, int i) {
+		do {
+			i++;
+		} while (i < tokens.size() && tokens.get(i).getTokenKind() == Scanner.TokenKind.META_STATEMENT);
+		return i;
+	}
+
+	private static boolean hasTokens(List<Scanner.Token> tokens) {
+		for (Scanner.Token token : tokens) {
+			if (token.getTokenKind() != Scanner.TokenKind.META_STATEMENT) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean endsWithSemicolon(List<Scanner.Token> tokens) {
+		for (int i = tokens.size() - 1; i >= 0; i--) {
+			Scanner.TokenKind kind = tokens.get(i).getTokenKind();
+			if (kind != Scanner.TokenKind.META_STATEMENT) {
+				return kind == Scanner.TokenKind.SEMICOLON;
+			}
+		}
+		return true;
+	}
+
+	// An old segment with the same tokens, at the same place from the start or from the end.
+	private static Segment findSame(List<Segment> old, Segment segment, int i, int count) {
+		int fromEnd = old.size() - (count - i);
+		if (i < old.size() && sameTokens(old.get(i), segment)) {
+			return old.get(i);
+		}
+		if (fromEnd >= 0 && sameTokens(old.get(fromEnd), segment)) {
+			return old.get(fromEnd);
+		}
+		return null;
+	}
+
+	private static boolean sameTokens(Segment a, Segment b) {
+		if (a.tokens.size() != b.tokens.size() || (a.scanError == null) != (b.scanError == null)
+				|| (a.scanError != null && !a.scanError.getMessage().equals(b.scanError.getMessage()))) {
+			return false;
+		}
+		for (int i = 0; i < a.tokens.size(); i++) {
+			Scanner.Token x = a.tokens.get(i);
+			Scanner.Token y = b.tokens.get(i);
+			if (x.getTokenKind() != y.getTokenKind() || !x.getTokenName().equals(y.getTokenName())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Number of bytes in the segments from index from up to to.
+	private long byteCount(int from, int to) {
+		long count = 0;
+		for (int i = from; i < to; i++) {
+			count += segments.get(i).text.length;
+		}
+		return count;
+	}
+
+	private byte[] concat(int from, int to) {
+		byte[] text = new byte[(int) byteCount(from, to)];
+		int position = 0;
+		for (int i = from; i < to; i++) {
+			byte[] segmentText = segments.get(i).text;
+			System.arraycopy(segmentText, 0, text, position, segmentText.length);
+			position += segmentText.length;
+		}
+		return text;
+	}
+
+	private static byte[] append(byte[] a, byte[] b) {
+		byte[] text = new byte[a.length + b.length];
+		System.arraycopy(a, 0, text, 0, a.length);
+		System.arraycopy(b, 0, text, a.length, b.length);
+		return text;
+	}
+
+	// Reads a line of the command input, null at the end of it.
+	private static String readLine(InputStream in) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		int c;
+		while ((c = in.read()) != -1 && c != '\n') {
+			sb.append((char) c);
+		}
+		if (c == -1 && sb.length() == 0) {
+			return null;
+		}
+		return sb.toString().trim();
+	}
+
+	/*
+	 * Commands, one per line on the standard input:
+	 *   edit OFFSET REMOVED INSERTED   followed by the INSERTED bytes of new text
+	 *   write                          writes the '_gen' file, or prints why it could not
+	 *   reload                         reads the file again
+	 *   quit
+	 */
+	public static void main(String[] args) throws IOException {
+		// Basic sanity check.
+		if (args.length == 0) {
+			System.out.println("Must give the input file location as parameter.");
+			return;
+		}
+
+		IncrementalParser parser;
+		try {
+			parser = new IncrementalParser(args[0]);
+		} catch (IOException e) {
+			System.out.println("Error reading input file. " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+		System.out.println("Loaded " + parser.getSegmentCount() + " segments.");
+
+		InputStream in = new BufferedInputStream(System.in);
+		String line;
+		while ((line = readLine(in)) != null) {
+			String[] parts = line.split("\\s+");
+			try {
+				if (parts[0].equals("edit") && parts.length == 4) {
+					long offset = Long.parseLong(parts[1]);
+					int removed = Integer.parseInt(parts[2]);
+					byte[] inserted = new byte[Integer.parseInt(parts[3])];
+					int read = 0;
+					while (read < inserted.length) {
+						int n = in.read(inserted, read, inserted.length - read);
+						if (n == -1) {
+							throw new IOException("Input ended in the inserted text.");
+						}
+						read += n;
+					}
+					parser.edit(offset, removed, inserted);
+					System.out.println("Generated " + parser.getGeneratedCount() + " of "
+							+ parser.getSegmentCount() + " segments.");
+				} else if (parts[0].equals("write")) {
+					if (parser.write(System.out)) {
+						System.out.println("Wrote " + parser.getOutputFile().getPath());
+					}
+				} else if (parts[0].equals("reload")) {
+					parser.reload();
+					System.out.println("Loaded " + parser.getSegmentCount() + " segments.");
+				} else if (parts[0].equals("quit")) {
+					return;
+				} else if (parts[0].length() > 0) {
+					System.out.println("Unknown command: " + line);
+				}
+			} catch (NumberFormatException e) {
+				System.out.println("Invalid number. " + e.getMessage());
+			} catch (IllegalArgumentException e) {
+				System.out.println(e.getMessage());
+			}
+			System.out.flush();
+		}
+	}
+}
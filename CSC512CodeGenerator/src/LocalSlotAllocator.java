@@ -0,0 +1,315 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+
+/**
+ * Owner: ShaownS
+ * File: LocalSlotAllocator.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Gives the temporaries of a generated function body slots of the local[] array, sharing
+ * a slot between temporaries that are never live at the same time. The local array then
+ * needs as many slots as values are live at once, not one for every temporary.
+ *
+ * The parameters and declared variables, arrays included, keep their slots at the start
+ * of the array, array elements are reached through a computed index. Identifiers used
+ * without being declared are variables too, they get the slots after these. Every other
+ * slot is a temporary, assigned once, live from the line it is assigned on to the line
+ * it is last used on. A goto back to a label is a loop, a temporary live at the label from before the
+ * loop stays live up to the goto. Temporaries are then given slots in the order they
+ * are assigned, reusing the slots of those that are no longer live.
+ *
+ * The lines are the instructions of the GeneratedCode of the body, CodePrinter writes them
+ * with the new slots.
+ */
+public class LocalSlotAllocator {
+
+	// Slots of the parameters and declared variables, these are not moved.
+	private int declaredSlots;
+
+	// Slots after the declared ones that are variables, which keep a slot of their own.
+	private BitSet variables;
+
+	// Declared slots and variables, the temporaries are given the slots after these.
+	private int fixedSlots;
+
+	// What every slot after the declared ones becomes: the number of the temporary,
+	// or -1 - the new slot of a variable.
+	private int[] slotKinds;
+
+	// Slots used by the body after allocate.
+	private int slotCount;
+
+	// Number of instructions in the body, each is a line.
+	private int lineCount;
+
+	// Labels and gotos, as the label number and the line.
+	private int[] labelNumbers;
+	private int[] labelLines;
+	private int labelCount;
+	private int[] gotoNumbers;
+	private int[] gotoLines;
+	private int gotoCount;
+
+	// Live range of every temporary in lines, start is -1 for one not in the body.
+	private int[] start;
+	private int[] end;
+
+	// New slot of every temporary.
+	private int[] slots;
+
+	// New slot of every slot, null when none is moved.
+	private int[] localSlots;
+
+	public LocalSlotAllocator(int declaredSlots, BitSet variables) {
+		this.declaredSlots = declaredSlots;
+		this.variables = variables;
+		this.fixedSlots = declaredSlots;
+		this.slotCount = declaredSlots;
+	}
+
+	// Size of the local array the body needs.
+	public int getSlotCount() {
+		return slotCount;
+	}
+
+	// New slot of every slot after allocate, for CodePrinter. Null when the slots are kept.
+	public int[] getLocalSlots() {
+		return localSlots;
+	}
+
+	/*
+	 * Gives the slots of the body, which uses slots 0 to usedSlots - 1 before.
+	 */
+	public void allocate(GeneratedCode body, int usedSlots) {
+		this.localSlots = null;
+		if (usedSlots <= declaredSlots) {
+			slotCount = declaredSlots;
+			return;
+		}
+
+		// Number the variables and the temporaries in the order of their old slots.
+		slotKinds = new int[usedSlots - declaredSlots];
+		int temps = 0;
+		fixedSlots = declaredSlots;
+		for (int slot = declaredSlots; slot < usedSlots; slot++) {
+			slotKinds[slot - declaredSlots] = variables.get(slot) ? -1 - fixedSlots++ : temps++;
+		}
+
+		this.start = new int[temps];
+		this.end = new int[temps];
+		Arrays.fill(start, -1);
+		read(body);
+		extendOverLoops(temps);
+		slots = assignSlots(temps);
+
+		localSlots = new int[usedSlots];
+		for (int slot = 0; slot < usedSlots; slot++) {
+			if (slot < declaredSlots) {
+				localSlots[slot] = slot;
+			} else {
+				int kind = slotKinds[slot - declaredSlots];
+				localSlots[slot] = (kind >= 0) ? slots[kind] : -1 - kind;
+			}
+		}
+	}
+
+	// Finds the labels and gotos, and the live range of every temporary.
+	private void read(GeneratedCode body) {
+		labelNumbers = new int[16];
+		labelLines = new int[16];
+		labelCount = 0;
+		gotoNumbers = new int[16];
+		gotoLines = new int[16];
+		gotoCount = 0;
+
+		lineCount = body.size();
+		for (int line = 0; line < lineCount; line++) {
+			int a = body.getA(line);
+			int b = body.getB(line);
+			switch (body.getOpcode(line)) {
+			case GeneratedCode.LABEL:
+				addLabel(a, line);
+				break;
+			case GeneratedCode.GOTO:
+				addGoto(a, line);
+				break;
+			case GeneratedCode.IF_GOTO:
+			case GeneratedCode.IF_NOT_GOTO:
+				use(a, line);
+				addGoto(b, line);
+				break;
+			case GeneratedCode.PRINT:
+			case GeneratedCode.RETURN_VOID:
+				break;
+			case GeneratedCode.CALL:
+			case GeneratedCode.CALL_STATEMENT:
+				// The arguments are read before the target is set.
+				for (int i = 0; i < body.getArgumentCount(b); i++) {
+					use(body.getArgument(b, i), line);
+				}
+				use(body.getTarget(line), line);
+				break;
+			default:
+				use(a, line);
+				use(b, line);
+				use(body.getTarget(line), line);
+				break;
+			}
+		}
+	}
+
+	// A temporary in the operand, as the slot or the index of an element, is live on the line.
+	private void use(int operand, int line) {
+		int kind = GeneratedCode.getKind(operand);
+		if (operand == GeneratedCode.NONE || (kind != GeneratedCode.LOCAL && kind != GeneratedCode.LOCAL_AT && kind != GeneratedCode.GLOBAL_AT)) {
+			return;
+		}
+		int slot = GeneratedCode.getNumber(operand) - declaredSlots;
+		if (slot < 0 || slot >= slotKinds.length) {
+			return;
+		}
+		int temp = slotKinds[slot];
+		if (temp >= 0) {
+			if (start[temp] == -1) {
+				start[temp] = line;
+			}
+			end[temp] = line;
+		}
+	}
+
+	/*
+	 * A goto back to a label makes a loop. A range going over the label is live at the label
+	 * from before the loop, so it has to be live on each time round, up to the goto. Extending
+	 * one can take it over another label, so go on until nothing changes. Only the ranges that
+	 * have a label in them can change, which is quick to see from the labels before each line.
+	 */
+	private void extendOverLoops(int temps) {
+		int[] loopLabels = new int[gotoCount];
+		int[] loopGotos = new int[gotoCount];
+		int loopCount = 0;
+		if (labelCount > 0 && gotoCount > 0) {
+			int first = Integer.MAX_VALUE;
+			int last = Integer.MIN_VALUE;
+			for (int i = 0; i < labelCount; i++) {
+				first = Math.min(first, labelNumbers[i]);
+				last = Math.max(last, labelNumbers[i]);
+			}
+			int[] lineOfLabel = new int[last - first + 1];
+			Arrays.fill(lineOfLabel, -1);
+			for (int i = 0; i < labelCount; i++) {
+				lineOfLabel[labelNumbers[i] - first] = labelLines[i];
+			}
+			for (int i = 0; i < gotoCount; i++) {
+				int number = gotoNumbers[i];
+				if (number < first || number > last) {
+					continue;
+				}
+				int label = lineOfLabel[number - first];
+				if (label != -1 && label < gotoLines[i]) {
+					loopLabels[loopCount] = label;
+					loopGotos[loopCount] = gotoLines[i];
+					loopCount++;
+				}
+			}
+		}
+		if (loopCount == 0) {
+			return;
+		}
+
+		int[] labelsBefore = new int[lineCount + 1];
+		for (int i = 0; i < labelCount; i++) {
+			labelsBefore[labelLines[i] + 1]++;
+		}
+		for (int i = 0; i < lineCount; i++) {
+			labelsBefore[i + 1] += labelsBefore[i];
+		}
+
+		for (int temp = 0; temp < temps; temp++) {
+			if (start[temp] == -1 || labelsBefore[end[temp] + 1] == labelsBefore[start[temp] + 1]) {
+				continue;
+			}
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (int i = 0; i < loopCount; i++) {
+					if (start[temp] < loopLabels[i] && loopLabels[i] <= end[temp] && end[temp] < loopGotos[i]) {
+						end[temp] = loopGotos[i];
+						changed = true;
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * Linear scan over the lines. The right side of an assignment is read before it is written,
+	 * so on each line the ranges that end there give their slots back first, then the ones that
+	 * start there take a slot, the last one given back first. Returns the slot of every temporary.
+	 */
+	private int[] assignSlots(int temps) {
+		// Lists of the temporaries starting and ending on each line, linked through the temporaries.
+		int[] firstStarting = new int[lineCount];
+		int[] firstEnding = new int[lineCount];
+		int[] nextStarting = new int[temps];
+		int[] nextEnding = new int[temps];
+		Arrays.fill(firstStarting, -1);
+		Arrays.fill(firstEnding, -1);
+		for (int temp = temps - 1; temp >= 0; temp--) {
+			if (start[temp] == -1) {
+				continue;
+			}
+			nextStarting[temp] = firstStarting[start[temp]];
+			firstStarting[start[temp]] = temp;
+			nextEnding[temp] = firstEnding[end[temp]];
+			firstEnding[end[temp]] = temp;
+		}
+
+		int[] slots = new int[temps];
+		int[] free = new int[temps];
+		int freeCount = 0;
+		int shared = 0;
+		for (int line = 0; line < lineCount; line++) {
+			for (int temp = firstEnding[line]; temp != -1; temp = nextEnding[temp]) {
+				if (start[temp] < line) {
+					free[freeCount++] = slots[temp];
+				}
+			}
+			for (int temp = firstStarting[line]; temp != -1; temp = nextStarting[temp]) {
+				slots[temp] = (freeCount > 0) ? free[--freeCount] : fixedSlots + shared++;
+			}
+			// Assigned and never used after this line.
+			for (int temp = firstEnding[line]; temp != -1; temp = nextEnding[temp]) {
+				if (start[temp] == line) {
+					free[freeCount++] = slots[temp];
+				}
+			}
+		}
+		slotCount = fixedSlots + shared;
+		return slots;
+	}
+
+	private void addLabel(int number, int line) {
+		if (labelCount == labelNumbers.length) {
+			labelNumbers = Arrays.copyOf(labelNumbers, labelCount * 2);
+			labelLines = Arrays.copyOf(labelLines, labelCount * 2);
+		}
+		labelNumbers[labelCount] = number;
+		labelLines[labelCount] = line;
+		labelCount++;
+	}
+
+	private void addGoto(int number, int line) {
+		if (gotoCount == gotoNumbers.length) {
+			gotoNumbers = Arrays.copyOf(gotoNumbers, gotoCount * 2);
+			gotoLines = Arrays.copyOf(gotoLines, gotoCount * 2);
+		}
+		gotoNumbers[gotoCount] = number;
+		gotoLines[gotoCount] = line;
+		gotoCount++;
+	}
+}
@@ -0,0 +1,271 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+
+/**
+ * Owner: ShaownS
+ * File: LocalValueNumbering.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * The values computed in the current block of a function, so the parser can use the
+ * temporary that has a value instead of computing it again. A block is the code between
+ * two labels or gotos, so it runs from start to end every time it runs.
+ *
+ * A value is an opcode and its two operands, the right side of an instruction setting a
+ * temporary. Every temporary is set once, so it has the value for the rest of the function.
+ * A value that reads a variable or an array is no longer available once that can have
+ * changed: a store or read to the variable, a store through an index to the local or the
+ * global array, or for the globals a function call. The local[] array of a function can
+ * not be changed by the functions it calls.
+ *
+ * Rather than finding the values to drop at each store, stores are numbered and every value
+ * keeps the number it was added at. It is only used when nothing it reads was stored after
+ * that, and it was added in the current block. The values are kept in an open addressing
+ * table of int arrays, the values of the earlier blocks are dropped when it fills up.
+ */
+public class LocalValueNumbering {
+
+	// Initial capacity of the table, must be a power of two.
+	private static final int INITIAL_CAPACITY = 64;
+
+	// The store numbers start again from 0 at the next function once they get this far.
+	private static final int CLOCK_LIMIT = 1 << 30;
+
+	// Slots of the parameters and declared variables, and the undeclared variables after them.
+	private int declaredSlots;
+	private BitSet variables;
+
+	// The table: opcode, operands, the temporary and the store number it was added at, of every
+	// value. An empty entry has the opcode -1.
+	private int[] opcodes;
+	private int[] lhs;
+	private int[] rhs;
+	private int[] temps;
+	private int[] added;
+	private int entryCount;
+
+	// Store numbers: the last one, the one the current block started at, the last store to each
+	// variable, the last through an index and the last of any kind to each array. A function
+	// call counts as a store through an index to the global array. They go on from one function
+	// to the next, so the values and stores of the earlier functions are all before blockStart.
+	private int clock;
+	private int blockStart;
+	private int[] localStores;
+	private int[] globalStores;
+	private int indexedLocalStore;
+	private int anyLocalStore;
+	private int indexedGlobalStore;
+	private int anyGlobalStore;
+
+	public LocalValueNumbering(BitSet variables) {
+		this.variables = variables;
+		this.opcodes = new int[INITIAL_CAPACITY];
+		this.lhs = new int[INITIAL_CAPACITY];
+		this.rhs = new int[INITIAL_CAPACITY];
+		this.temps = new int[INITIAL_CAPACITY];
+		this.added = new int[INITIAL_CAPACITY];
+		Arrays.fill(opcodes, -1);
+		this.localStores = new int[16];
+		this.globalStores = new int[16];
+	}
+
+	// Starts a function, the slots before declaredSlots are its parameters and declared variables.
+	public void clear(int declaredSlots) {
+		this.declaredSlots = declaredSlots;
+		if (clock > CLOCK_LIMIT) {
+			Arrays.fill(opcodes, -1);
+			entryCount = 0;
+			Arrays.fill(localStores, 0);
+			Arrays.fill(globalStores, 0);
+			indexedLocalStore = 0;
+			anyLocalStore = 0;
+			indexedGlobalStore = 0;
+			anyGlobalStore = 0;
+			clock = 0;
+		}
+		endBlock();
+	}
+
+	// The temporary that has the value, -1 if no temporary of the block has it.
+	public int find(int opcode, int a, int b) {
+		if (opcode == GeneratedCode.COPY && isTemporary(a)) {
+			// A copy of a temporary.
+			return GeneratedCode.getNumber(a);
+		}
+		if (isCommutative(opcode) && a > b) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		int i = probe(opcode, a, b);
+		if (opcodes[i] == -1 || added[i] < blockStart || added[i] < lastStore(a) || added[i] < lastStore(b)) {
+			return -1;
+		}
+		return temps[i];
+	}
+
+	// The temporary was set to the value.
+	public void computed(int opcode, int a, int b, int temp) {
+		if (isCommutative(opcode) && a > b) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		int i = probe(opcode, a, b);
+		if (opcodes[i] == -1) {
+			if (2 * (entryCount + 1) > opcodes.length) {
+				rehash();
+				i = probe(opcode, a, b);
+			}
+			entryCount++;
+		}
+		opcodes[i] = opcode;
+		lhs[i] = a;
+		rhs[i] = b;
+		temps[i] = temp;
+		added[i] = clock;
+	}
+
+	// The value is no longer in the temporary it was added with.
+	public void remove(int opcode, int a, int b) {
+		if (isCommutative(opcode) && a > b) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		int i = probe(opcode, a, b);
+		if (opcodes[i] != -1) {
+			added[i] = Integer.MIN_VALUE;
+		}
+	}
+
+	// A store to the variable or array element.
+	public void stored(int target) {
+		clock++;
+		int number = GeneratedCode.getNumber(target);
+		switch (GeneratedCode.getKind(target)) {
+		case GeneratedCode.LOCAL:
+			localStores = mark(localStores, number);
+			anyLocalStore = clock;
+			break;
+		case GeneratedCode.GLOBAL:
+			globalStores = mark(globalStores, number);
+			anyGlobalStore = clock;
+			break;
+		case GeneratedCode.LOCAL_AT:
+			indexedLocalStore = clock;
+			anyLocalStore = clock;
+			break;
+		case GeneratedCode.GLOBAL_AT:
+			indexedGlobalStore = clock;
+			anyGlobalStore = clock;
+			break;
+		default:
+			break;
+		}
+	}
+
+	// A function call can change the globals.
+	public void called() {
+		clock++;
+		indexedGlobalStore = clock;
+		anyGlobalStore = clock;
+	}
+
+	// A label or a goto, the values of the block are no longer available.
+	public void endBlock() {
+		blockStart = ++clock;
+	}
+
+	private int[] mark(int[] stores, int slot) {
+		if (slot >= stores.length) {
+			stores = Arrays.copyOf(stores, Math.max(slot + 1, stores.length * 2));
+		}
+		stores[slot] = clock;
+		return stores;
+	}
+
+	// The last store to what the operand reads.
+	private int lastStore(int operand) {
+		int number = GeneratedCode.getNumber(operand);
+		switch (GeneratedCode.getKind(operand)) {
+		case GeneratedCode.LOCAL:
+			if (isTemporary(operand)) {
+				return 0;
+			}
+			return Math.max(indexedLocalStore, (number < localStores.length) ? localStores[number] : 0);
+		case GeneratedCode.GLOBAL:
+			return Math.max(indexedGlobalStore, (number < globalStores.length) ? globalStores[number] : 0);
+		case GeneratedCode.LOCAL_AT:
+			return anyLocalStore;
+		case GeneratedCode.GLOBAL_AT:
+			return anyGlobalStore;
+		default:
+			return 0;
+		}
+	}
+
+	// Whether the operand is a temporary of the function, not a variable.
+	public boolean isTemporary(int operand) {
+		int slot = GeneratedCode.getNumber(operand);
+		return GeneratedCode.getKind(operand) == GeneratedCode.LOCAL && slot >= declaredSlots && !variables.get(slot);
+	}
+
+	// A sum or product of two operands is the same either way round.
+	private static boolean isCommutative(int opcode) {
+		return opcode == GeneratedCode.ADD || opcode == GeneratedCode.MULTIPLY;
+	}
+
+	// The entry of the value, or the empty entry where it would go.
+	private int probe(int opcode, int a, int b) {
+		int mask = opcodes.length - 1;
+		int h = (opcode * 31 + a) * 31 + b;
+		h *= 0x9E3779B9;
+		int i = (h ^ (h >>> 16)) & mask;
+		while (opcodes[i] != -1 && (opcodes[i] != opcode || lhs[i] != a || rhs[i] != b)) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	// Drops the values of the earlier blocks, and doubles the table if it is still half full.
+	private void rehash() {
+		int[] oldOpcodes = opcodes;
+		int[] oldLhs = lhs;
+		int[] oldRhs = rhs;
+		int[] oldTemps = temps;
+		int[] oldAdded = added;
+		int live = 0;
+		for (int i = 0; i < oldOpcodes.length; i++) {
+			if (oldOpcodes[i] != -1 && oldAdded[i] >= blockStart) {
+				live++;
+			}
+		}
+		int capacity = oldOpcodes.length;
+		while (4 * (live + 1) > capacity) {
+			capacity *= 2;
+		}
+		opcodes = new int[capacity];
+		lhs = new int[capacity];
+		rhs = new int[capacity];
+		temps = new int[capacity];
+		added = new int[capacity];
+		Arrays.fill(opcodes, -1);
+		entryCount = 0;
+		for (int i = 0; i < oldOpcodes.length; i++) {
+			if (oldOpcodes[i] != -1 && oldAdded[i] >= blockStart) {
+				int j = probe(oldOpcodes[i], oldLhs[i], oldRhs[i]);
+				opcodes[j] = oldOpcodes[i];
+				lhs[j] = oldLhs[i];
+				rhs[j] = oldRhs[i];
+				temps[j] = oldTemps[i];
+				added[j] = oldAdded[i];
+				entryCount++;
+			}
+		}
+	}
+}
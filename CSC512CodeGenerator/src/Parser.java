@@ -1,7 +1,24 @@
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 
 /**
@@ -38,71 +55,118 @@ public class Parser {
         	return isGlobal;
         }
         
-        public String getSymbolString() {
-        	if (index != -1) {
-	        	if (isGlobal) {
-	        		return "global[" + Integer.toString(index) + "]";
-	        	}
-	        	return "local[" + Integer.toString(index) + "]";
-        	}
-        	return "N/A";
+        // The local[] or global[] slot as an operand of the generated code.
+        public int getOperand() {
+        	return isGlobal ? GeneratedCode.global(index) : GeneratedCode.local(index);
         }
 	}
 	
 	/*
-	 * Class for generated code for the function body.
-	 * This contains a string builder which accumulates
-	 * the intermediate code and when applicable the
-	 * equivalent symbol for an expression.
+	 * Thrown when the code can not be generated for a reason other than a syntax
+	 * error, stops the file being parsed. The message is what is printed for the user.
 	 */
-	public static class GeneratedCode {
-		private StringBuilder code;
-	    private String equivalent;
-	    
-	    public GeneratedCode() {
-	    	this.code = new StringBuilder();
-	    	this.equivalent = "";
-	    }
-	    
-	    public String getCode() {
-	    	return code.toString();
-	    }
-	    
-	    public String getEquivalent() {
-	    	return equivalent;
-	    }
-	    
-	    public void addCode(String s) {
-	    	if (s.length() > 0) {
-	    		code.append(s);
-	    	}
-	    }
-	    
-	    public void setEquivalent(String s) {
-	    	equivalent = s;
-	    }
+	public static class GenerationException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		
+		public GenerationException(String message) {
+			super(message);
+		}
+		
+		public GenerationException(String message, Throwable cause) {
+			super(message, cause);
+		}
 	}
 	
+	// Version of the generated code, part of the key of the results kept by GeneratedCodeCache.
+	// Must be changed whenever a change to the parser changes the generated code or messages.
+	public static final int GENERATOR_VERSION = 8;
+
 	private Scanner scanner;
-	private ArrayList<Scanner.Token> lookAheadTokens;
+	// data_decls needs two tokens of look ahead to tell a declaration from a function.
+	private static final int LOOK_AHEAD = 2;
+	private Scanner.TokenRing lookAheadTokens;
 	private Scanner.Token word;
 	
+	// The word after the last token, so a rule that needs more tokens fails on it with
+	// "Failed token: end of file" rather than reading past the input.
+	private static final Scanner.Token END_OF_FILE = new Scanner.Token(Scanner.TokenKind.END_OF_FILE, "end of file");
+	
+	// First and follow sets used to choose between the productions of a rule.
+	private static final EnumSet<Scanner.TokenKind> TYPE_SPECIFIERS = EnumSet.of(Scanner.TokenKind.INT, 
+			Scanner.TokenKind.VOID, Scanner.TokenKind.BINARY, Scanner.TokenKind.DECIMAL);
+	private static final EnumSet<Scanner.TokenKind> NON_VOID_TYPE_SPECIFIERS = EnumSet.of(Scanner.TokenKind.INT, 
+			Scanner.TokenKind.BINARY, Scanner.TokenKind.DECIMAL);
+	// Follow of <data decls> without the type names, which need the look ahead in data_decls.
+	private static final EnumSet<Scanner.TokenKind> DATA_DECLS_FOLLOW = EnumSet.of(Scanner.TokenKind.IDENTIFIER, 
+			Scanner.TokenKind.IF, Scanner.TokenKind.WHILE, Scanner.TokenKind.RETURN, Scanner.TokenKind.BREAK, 
+			Scanner.TokenKind.CONTINUE, Scanner.TokenKind.READ, Scanner.TokenKind.WRITE, Scanner.TokenKind.PRINT, 
+			Scanner.TokenKind.RIGHT_BRACE);
+	private static final EnumSet<Scanner.TokenKind> ID_PRIME_FOLLOW = EnumSet.of(Scanner.TokenKind.COMMA, 
+			Scanner.TokenKind.SEMICOLON);
+	private static final EnumSet<Scanner.TokenKind> CONDITION_OPERATORS = EnumSet.of(Scanner.TokenKind.DOUBLE_EQUAL_SIGN, 
+			Scanner.TokenKind.NOT_EQUAL_SIGN, Scanner.TokenKind.GREATER_THAN, Scanner.TokenKind.GREATER_OR_EQUAL, 
+			Scanner.TokenKind.LESS_THAN, Scanner.TokenKind.LESS_OR_EQUAL);
+	private static final EnumSet<Scanner.TokenKind> LOGICAL_OPERATORS = EnumSet.of(Scanner.TokenKind.DOUBLE_AND_SIGN, 
+			Scanner.TokenKind.DOUBLE_OR_SIGN);
+	private static final EnumSet<Scanner.TokenKind> ADD_OPERATORS = EnumSet.of(Scanner.TokenKind.PLUS_SIGN, 
+			Scanner.TokenKind.MINUS_SIGN);
+	private static final EnumSet<Scanner.TokenKind> MULTIPLY_OPERATORS = EnumSet.of(Scanner.TokenKind.STAR_SIGN, 
+			Scanner.TokenKind.FORWARD_SLASH);
+	// Follow of <expression>, <term> adds the add operators and <factor> the multiply operators.
+	private static final EnumSet<Scanner.TokenKind> EXPRESSION_FOLLOW = EnumSet.of(Scanner.TokenKind.SEMICOLON, 
+			Scanner.TokenKind.DOUBLE_AND_SIGN, Scanner.TokenKind.DOUBLE_OR_SIGN, Scanner.TokenKind.RIGHT_PARENTHESIS, 
+			Scanner.TokenKind.DOUBLE_EQUAL_SIGN, Scanner.TokenKind.NOT_EQUAL_SIGN, Scanner.TokenKind.GREATER_THAN, 
+			Scanner.TokenKind.GREATER_OR_EQUAL, Scanner.TokenKind.LESS_THAN, Scanner.TokenKind.LESS_OR_EQUAL, 
+			Scanner.TokenKind.COMMA, Scanner.TokenKind.RIGHT_BRACKET);
+	private static final EnumSet<Scanner.TokenKind> TERM_FOLLOW = union(EXPRESSION_FOLLOW, ADD_OPERATORS);
+	private static final EnumSet<Scanner.TokenKind> FACTOR_FOLLOW = union(TERM_FOLLOW, MULTIPLY_OPERATORS);
+	
+	private static EnumSet<Scanner.TokenKind> union(EnumSet<Scanner.TokenKind> first, EnumSet<Scanner.TokenKind> second) {
+		EnumSet<Scanner.TokenKind> set = EnumSet.copyOf(first);
+		set.addAll(second);
+		return set;
+	}
+	
 	// Input file name.
 	private String inputFile;
 	
-	// Builder for the generated code. We print this to the file.
+	// Where the pass or fail messages are printed.
+	private PrintStream log;
+	
+	// Set when the program has been parsed and its generated code written.
+	private boolean passed;
+	
+	// Size of the buffers used to write the generated code.
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+	
+	// Builder for the generated code not yet written to the file. It is written out
+	// after the global declarations and after each function, so it only holds one function.
 	private StringBuilder outputCode;
 	
-	// Container for global variables.
-	private ArrayList<String> globals;
+	// The generated code is written to a temporary file next to the result file, which
+	// is renamed to the result file on success and deleted on failure.
+	private File outputFile;
+	private File tempOutputFile;
+	private Writer outputWriter;
+	private char[] writeBuffer;
 	
-	// Container for local variables, should be cleared when exiting function scope.
-	private ArrayList<String> locals;
+	// Symbol table for global variables.
+	private SymbolTable globals;
+	
+	// Symbol table for local variables, should be cleared when exiting function scope.
+	private SymbolTable locals;
+	
+	// Slots of the identifiers used in a function without being declared, which are 
+	// variables like the declared ones and not temporaries.
+	private BitSet undeclaredLocals;
+	
+	// The values of the current block of a function that are in temporaries.
+	private LocalValueNumbering values;
 	
 	// Maintains the current while loops' (possibly nested) labels in code. Should be synchronized all the time.
 	// We need both starts and ends of while loop, so that continue and break statements can be translated.
-	ArrayList<String> loopStarts;
-	ArrayList<String> loopEnds;
+	ArrayList<Integer> loopStarts;
+	ArrayList<Integer> loopEnds;
 	
 	// Check if are in a loop.
 	private boolean isInsideLoop() {
@@ -110,7 +174,7 @@ public class Parser {
 	}
 	
 	// Add a new loop labels.
-	private void addLoopLabels(String start, String end) {
+	private void addLoopLabels(int start, int end) {
 		loopStarts.add(start);
 		loopEnds.add(end);
 	}
@@ -124,77 +188,260 @@ public class Parser {
 	// Label counter.
 	private int labelCounter;
 	
-	// Flag to determine whether to wrap numerical factor in local variable.
-	private boolean wrapFactorInLocalVar;
+	// Tokens of the one function a function parser generates the code for, read instead of the scanner.
+	private List<Scanner.Token> functionTokens;
+	private int functionTokenIndex;
+	
+	// Thrown when a function parser reads past its tokens, if they end at a scanner error.
+	private Scanner.ScannerException endError;
+	
+	// Messages of a function parser, printed when its code is written.
+	private ByteArrayOutputStream functionLog;
+	
+	// Number of functions generated at the same time by program(), one for the sequential parse.
+	private int threads;
+	
+	// Most functions split off and not yet written in the parallel parse, per thread. 
+	// Bounds the tokens and generated code held in memory.
+	private static final int FUNCTIONS_PER_THREAD = 4;
+	
+	// Code of functions generated before, used by the parallel parse when set.
+	private GeneratedCodeCache cache;
+	
+	// Layout of the globals, part of the key of a cached function.
+	private String globalsLayout;
+	
+	// Functions of the last compile of the file, and those of this one.
+	private GeneratedCodeCache.FunctionPack cachedFunctions;
+	
+	// Key of the function of a function parser in the function pack.
+	private String functionKey;
 	
 	public Parser(String fileName) throws FileNotFoundException, IOException {
+		this(fileName, new File(Scanner.getResultFilename(fileName)), System.out);
+	}
+	
+	// Constructor with the result file and where to print the messages, used by the batch compiler.
+	public Parser(String fileName, File outputFile, PrintStream log) throws FileNotFoundException, IOException {
 		this.inputFile = fileName;
+		this.log = log;
+		this.passed = false;
 		this.scanner = new Scanner(fileName);
-		this.lookAheadTokens = new ArrayList<Scanner.Token>();
+		this.lookAheadTokens = new Scanner.TokenRing(LOOK_AHEAD);
+		this.outputCode = new StringBuilder();
+		this.outputFile = outputFile;
+		this.writeBuffer = new char[WRITE_BUFFER_SIZE];
+		
+		this.globals = new SymbolTable();
+		this.locals = new SymbolTable();
+		this.undeclaredLocals = new BitSet();
+		this.values = new LocalValueNumbering(undeclaredLocals);
+		this.labelCounter = 0;
+		
+		this.loopStarts = new ArrayList<Integer>();
+		this.loopEnds = new ArrayList<Integer>();
+		this.threads = 1;
+	}
+	
+	/*
+	 * Constructor of a function parser for the parallel parse. It reads the given tokens 
+	 * of one function and keeps the generated code, with locals and labels of its own. 
+	 * The globals are shared, they are only read once the global declarations are done.
+	 */
+	private Parser(SymbolTable globals, List<Scanner.Token> functionTokens) {
+		this.functionLog = new ByteArrayOutputStream();
+		this.log = new PrintStream(functionLog);
+		this.lookAheadTokens = new Scanner.TokenRing(LOOK_AHEAD);
 		this.outputCode = new StringBuilder();
+		this.functionTokens = functionTokens;
+		this.functionTokenIndex = 0;
 		
-		this.globals = new ArrayList<String>();
-		this.locals = new ArrayList<String>();
+		this.globals = globals;
+		this.locals = new SymbolTable();
+		this.undeclaredLocals = new BitSet();
+		this.values = new LocalValueNumbering(undeclaredLocals);
 		this.labelCounter = 0;
-		this.wrapFactorInLocalVar = false;
 		
-		this.loopStarts = new ArrayList<String>();
-		this.loopEnds = new ArrayList<String>();
+		this.loopStarts = new ArrayList<Integer>();
+		this.loopEnds = new ArrayList<Integer>();
+		this.threads = 1;
+	}
+	
+	// Generate the functions on this many threads, see programParallel.
+	public void setThreads(int threads) {
+		this.threads = Math.max(threads, 1);
 	}
 	
-	// Get the next valid label to be used.
-	private String getNextLabel() {
-		return "c" + Integer.toString(++labelCounter);
+	// Get the next valid label to be used, label n is written cn.
+	private int getNextLabel() {
+		return ++labelCounter;
 	}
 	
-	// Finds the given id or expression in locals.
+	// Finds the given id or expression in locals, then in globals.
 	private SymbolLocation findVarIndex(String code, boolean isArray) {
 		if (isArray) {
-			// Find the first index position.
+			// Find the base of the array.
+			int base = locals.findArray(code);
+			if (base != -1) {
+				return new SymbolLocation(base, false);
+			}
+			
+			base = globals.findArray(code);
+			if (base != -1) {
+				return new SymbolLocation(base, true);
+			}
+			
+			// Not a declared array, look for the first index position by name.
 			code += "[0]"; 
 		}
 		
 		// Check the locals.
-		for (int i = 0; i < locals.size(); i++) {
-			if (locals.get(i).equals(code)) {
-				return new SymbolLocation(i, false);
-			}
+		int i = locals.find(code);
+		if (i != -1) {
+			return new SymbolLocation(i, false);
 		}
 		
-		for (int i = 0; i < globals.size(); i++) {
-			if (globals.get(i).equals(code)) {
-				return new SymbolLocation(i, true);
-			}
+		i = globals.find(code);
+		if (i != -1) {
+			return new SymbolLocation(i, true);
 		}
 		
 		// Add it to the locals then.
-		addSymbol(code, false);		
-		return new SymbolLocation(locals.size() - 1, false);
+		int slot = locals.add(code);
+		undeclaredLocals.set(slot);
+		return new SymbolLocation(slot, false);
 	}
 	
 	// Adds the symbol (identifier or expression) to the local or global symbol list.
-	// Also gives the assignment code necessary for this.
-	private String addSymbol(String s, boolean isGlobal) {
-		String code = "";
+	private void addSymbol(String s, boolean isGlobal) {
 		if (isGlobal) {
 			globals.add(s);
-			code += System.lineSeparator() + "global[" + Integer.toString(globals.size() - 1) + "] = " + s + ";";
 		} else {
 			locals.add(s);
-			code += System.lineSeparator() + "local[" + Integer.toString(locals.size() - 1) + "] = " + s + ";";
+		}
+	}
+	
+	// Adds a temporary set to a op b, or to a for COPY, with the instruction for it, unless a
+	// temporary of the current block already has the value. Returns the temporary.
+	private int addTemporary(GeneratedCode g, int opcode, int a, int b) {
+		int i = values.find(opcode, a, b);
+		if (i != -1) {
+			return GeneratedCode.local(i);
+		}
+		int temp = locals.addSlot();
+		g.add(opcode, GeneratedCode.local(temp), a, b);
+		values.computed(opcode, a, b, temp);
+		return GeneratedCode.local(temp);
+	}
+	
+	// Adds a temporary set to the result of the function called with the arguments added to the
+	// code after the mark. Returns the temporary.
+	private int addCallTemporary(GeneratedCode g, String function, int argumentMark) {
+		int temp = GeneratedCode.local(locals.addSlot());
+		g.addCall(GeneratedCode.CALL, temp, function, argumentMark);
+		values.called();
+		return temp;
+	}
+	
+	// Makes the last instruction of the code, which sets the temporary, set the target instead, so
+	// the temporary is not copied to the target. False when the last instruction is not the temporary's.
+	private boolean assignLastTemporary(GeneratedCode g, int temp, int target) {
+		if (!values.isTemporary(temp) || !g.replaceLastTarget(temp, target)) {
+			return false;
+		}
+		// The temporary is never set, so it does not have the value.
+		int last = g.size() - 1;
+		values.remove(g.getOpcode(last), g.getA(last), g.getB(last));
+		return true;
+	}
+	
+	// Adds a label or a jump, the values of the block before it can not be used after it.
+	private void addJump(GeneratedCode g, int opcode, int a, int b) {
+		g.add(opcode, GeneratedCode.NONE, a, b);
+		values.endBlock();
+	}
+	
+	// Jumps to trueLabel when the condition is not 0, to falseLabel when it is.
+	private void addBranch(GeneratedCode g, int condition, int trueLabel, int falseLabel) {
+		addJump(g, GeneratedCode.IF_GOTO, condition, trueLabel);
+		addJump(g, GeneratedCode.GOTO, falseLabel, GeneratedCode.NONE);
+	}
+	
+	// Value of the equivalent if it is a number from factor or a folded operation, null otherwise.
+	private static Long getConstant(GeneratedCode g, int equivalent) {
+		if (GeneratedCode.getKind(equivalent) != GeneratedCode.NUMBER) {
+			return null;
+		}
+		return getConstant(g.getText(GeneratedCode.getNumber(equivalent)));
+	}
+	
+	// Value of the number, null for one with a leading zero, which is octal in the generated code,
+	// so it is left alone.
+	private static Long getConstant(String equivalent) {
+		int start = equivalent.startsWith("-") ? 1 : 0;
+		int length = equivalent.length() - start;
+		if (length == 0 || length > 10 || (length > 1 && equivalent.charAt(start) == '0')) {
+			return null;
+		}
+		for (int i = start; i < equivalent.length(); i++) {
+			if (!Character.isDigit(equivalent.charAt(i))) {
+				return null;
+			}
+		}
+		long value = Long.parseLong(equivalent);
+		return (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) ? null : value;
+	}
+	
+	/*
+	 * Equivalent of lhs op rhs when it is known without running the code: both sides are 
+	 * numbers and the result fits an int, or one side makes it x + 0, x - 0, x * 1, x / 1 
+	 * or x * 0. NONE when the code has to be generated. A global is not passed on in place 
+	 * of a local, since a function called later in the expression can change it.
+	 */
+	private static int foldOperation(GeneratedCode g, int lhs, int op, int rhs) {
+		Long l = getConstant(g, lhs);
+		Long r = getConstant(g, rhs);
+		if (l != null && r != null) {
+			long value;
+			if (op == GeneratedCode.ADD) {
+				value = l + r;
+			} else if (op == GeneratedCode.SUBTRACT) {
+				value = l - r;
+			} else if (op == GeneratedCode.MULTIPLY) {
+				value = l * r;
+			} else if (r != 0) {
+				// Both round toward zero.
+				value = l / r;
+			} else {
+				return GeneratedCode.NONE;
+			}
+			return (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) ? GeneratedCode.NONE : g.number(Long.toString(value));
 		}
 		
-		return code; 
+		boolean zeroLhs = l != null && l == 0;
+		boolean zeroRhs = r != null && r == 0;
+		boolean oneLhs = l != null && l == 1;
+		boolean oneRhs = r != null && r == 1;
+		if (op == GeneratedCode.MULTIPLY && (zeroLhs || zeroRhs)) {
+			return g.number("0");
+		}
+		int kept = GeneratedCode.NONE;
+		if ((op == GeneratedCode.ADD && zeroLhs) || (op == GeneratedCode.MULTIPLY && oneLhs)) {
+			kept = rhs;
+		} else if (((op == GeneratedCode.ADD || op == GeneratedCode.SUBTRACT) && zeroRhs) 
+				|| ((op == GeneratedCode.MULTIPLY || op == GeneratedCode.DIVIDE) && oneRhs)) {
+			kept = lhs;
+		}
+		int kind = GeneratedCode.getKind(kept);
+		if (kept == GeneratedCode.NONE || kind == GeneratedCode.GLOBAL || kind == GeneratedCode.GLOBAL_AT) {
+			return GeneratedCode.NONE;
+		}
+		return kept;
 	}
 	
 	// Print local variable at specific position.
 	private String printLocalVariable(int i) {
-		return System.lineSeparator() + "local[" + Integer.toString(i) + "] = " + locals.get(i) + ";";
-	}
-	
-	// Print last local variable.
-	private String getLastLocalVariable() {
-		return "local[" + Integer.toString(locals.size() - 1) + "]";
+		return System.lineSeparator() + "local[" + Integer.toString(i) + "] = " + locals.getName(i) + ";";
 	}
 	
 	// Returns all local variable statements, assuming no arrays in locals at this point.
@@ -206,67 +453,153 @@ public class Parser {
 		return sb.toString();
 	}
 	
-	private Scanner.Token peekNextToken() {
-		Scanner.Token token = getNextToken();
-		lookAheadTokens.add(token);
-		return token;
+	/*
+	 * Look ahead k tokens past word without consuming them, reading from the scanner as needed.
+	 * peek(1) is the token nextWord will return next.
+	 */
+	private Scanner.Token peek(int k) {
+		while (lookAheadTokens.size() < k) {
+			lookAheadTokens.add(getNextToken());
+		}
+		return lookAheadTokens.peek(k);
 	}
 	
 	/*
 	 * First checks the look ahead collection, if it's empty - requests the scanner for a new token.
+	 * After the last token it returns END_OF_FILE, every time it is called.
 	 */
 	public Scanner.Token nextWord() {
-		Scanner.Token token = null;		
-		if (lookAheadTokens.size() > 0) {
-			token = lookAheadTokens.get(0);
-			lookAheadTokens.remove(0);
-		} else {
-			token = getNextToken();
+		if (!lookAheadTokens.isEmpty()) {
+			return lookAheadTokens.poll();
 		}
-		return token;
+		return getNextToken();
 	}
 	
 	/*
 	 * Get next token that is not meta-statement from scanner, not used directly.
 	 * Called by getNextWord when there are no more look ahead tokens.
-	 * Called by peekNextToken to get a look ahead token.
+	 * Called by peek to get a look ahead token.
 	 */
 	private Scanner.Token getNextToken() {
 		Scanner.Token token = null;
 		// Get the non-meta statement tokens only.
 		do {
-			if (scanner.hasMoreTokens()) {
-				token = scanner.getNextToken();
+			token = readToken();
 				
-				// Copy over the meta statements.
-				if (token.getTokenType() == Scanner.TokenType.META_STATEMENT) {
-					outputCode.append(token.getTokenName() + System.lineSeparator());
-				}								
-			}
+			// Copy over the meta statements.
+			if (token != null && token.getTokenType() == Scanner.TokenType.META_STATEMENT) {
+				outputCode.append(token.getTokenName() + System.lineSeparator());
+			}								
 		} while (token != null && token.getTokenType() == Scanner.TokenType.META_STATEMENT);
 		
-		return token;
+		return (token != null) ? token : END_OF_FILE;
+	}
+	
+	// Next token of any type from the scanner, or from the function tokens of a function parser.
+	private Scanner.Token readToken() {
+		if (functionTokens != null) {
+			if (functionTokenIndex < functionTokens.size()) {
+				return functionTokens.get(functionTokenIndex++);
+			}
+			if (endError != null) {
+				throw endError;
+			}
+			return null;
+		}
+		if (scanner.hasMoreTokens()) {
+			return scanner.getNextToken();
+		}
+		return null;
 	}
 	
 	public void fail() {
-		System.out.println("Fail");
-		System.out.println("Failed token: " + word.getTokenName());		
+		discardOutput();
+		log.println("Fail");
+		log.println("Failed token: " + word.getTokenName());		
+	}
+	
+	// Keeps the code of each function in the cache and takes unchanged ones from it, 
+	// only used when the functions are generated on more than one thread.
+	public void setCache(GeneratedCodeCache cache) {
+		this.cache = cache;
+	}
+	
+	// True once program() has written the generated code.
+	public boolean isPassed() {
+		return passed;
 	}
 	
 	public void success() {
-		// Writer for the generated output file.
-		PrintWriter outputWriter = null;		
-		
 		try {
-			// Output file writer. Note this will wipe out the file if exists, so every
-			// new scanner run will produce the output file again.
-			outputWriter = new PrintWriter(Scanner.getResultFilename(inputFile));
-			outputWriter.write(getGeneratedCode());			
-		} catch (IOException e) {
-			System.out.println("Error reading input file. " + e.getMessage());
-			System.exit(1);
-		} finally {
+			// Write what is left and replace the result file. Note this will wipe out the file 
+			// if exists, so every new run will produce the output file again.
+			writeOutput();
 			outputWriter.close();
+			outputWriter = null;
+			try {
+				Files.move(tempOutputFile.toPath(), outputFile.toPath(), 
+						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempOutputFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			passed = true;
+		} catch (IOException e) {
+			discardOutput();
+			throw new GenerationException("Error writing output file. " + e.getMessage(), e);
+		}
+	}
+	
+	// Opens the temporary output file, the generated code is written there as it is produced.
+	private void openOutput() {
+		try {
+			File dir = outputFile.getAbsoluteFile().getParentFile();
+			tempOutputFile = File.createTempFile(outputFile.getName(), ".tmp", dir);
+			outputWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempOutputFile)), 
+					WRITE_BUFFER_SIZE);
+		} catch (IOException e) {
+			discardOutput();
+			throw new GenerationException("Error writing output file. " + e.getMessage(), e);
+		}
+	}
+	
+	// Writes the code generated so far to the output file and empties the builder.
+	private void writeOutput() throws IOException {
+		int length = outputCode.length();
+		for (int i = 0; i < length; i += writeBuffer.length) {
+			int n = Math.min(writeBuffer.length, length - i);
+			outputCode.getChars(i, i + n, writeBuffer, 0);
+			outputWriter.write(writeBuffer, 0, n);
+		}
+		outputCode.setLength(0);
+	}
+	
+	// Called when a function is finished, writes it out so the builder only ever holds one function.
+	// A function parser has no file, its code is written by the parser that split the function off.
+	private void flushOutput() {
+		if (outputWriter == null) {
+			return;
+		}
+		try {
+			writeOutput();
+		} catch (IOException e) {
+			discardOutput();
+			throw new GenerationException("Error writing output file. " + e.getMessage(), e);
+		}
+	}
+	
+	// Closes and deletes the temporary output file, the result file is left as it was.
+	private void discardOutput() {
+		if (outputWriter != null) {
+			try {
+				outputWriter.close();
+			} catch (IOException e) {
+				// Nothing more to do, the file is deleted anyway.
+			}
+			outputWriter = null;
+		}
+		if (tempOutputFile != null) {
+			tempOutputFile.delete();
+			tempOutputFile = null;
 		}
 	}
 	
@@ -274,34 +607,273 @@ public class Parser {
 	 * <program> --> <data decls> <func list>
 	 */
 	public void program() {
-		word = nextWord();
-		
-		// Generated code from each rule.
-		if (data_decls(true)) {
-			
-			// Add the global data declaration code to the generated code.
-			if (globals.size() > 0) {
-				outputCode.append("int global[" + globals.size() + "];" + System.lineSeparator());
-			}
-			
-			if (!func_list()) {
-				fail();
-				return;
-			}
+		if (threads > 1) {
+			programParallel();
+			return;
+		}
+		try {
+			openOutput();
+			word = nextWord();
 			
-			// Check if input is exhausted.
-			if (word == null) {
-				success();
-				return;
+			// Generated code from each rule.
+			if (data_decls(true)) {
+				
+				// Add the global data declaration code to the generated code.
+				if (globals.size() > 0) {
+					outputCode.append("int global[" + globals.size() + "];" + System.lineSeparator());
+				}
+				flushOutput();
+				
+				if (!func_list()) {
+					fail();
+					return;
+				}
+				
+				// Check if input is exhausted.
+				if (word == END_OF_FILE) {
+					success();
+					return;
+				} else {
+					fail();
+					return;
+				}
+				
 			} else {
 				fail();
 				return;
 			}
-			
-		} else {
-			fail();
+		} catch (RuntimeException e) {
+			// Scanner and generation errors stop the file, make sure the partial file does not stay behind.
+			discardOutput();
+			throw e;
+		} finally {
+			closeInput();
+		}
+	}
+	
+	private void closeInput() {
+		try {
+			scanner.close();
+		} catch (IOException e) {
+			// Nothing more to do, the input has been read.
+		}
+	}
+	
+	/*
+	 * The parallel form of program(). The global declarations are parsed here, then the
+	 * rest of the input is split into functions, each one up to the semicolon of a function
+	 * declaration or the right brace that closes the body, with the meta statements after
+	 * it. The functions are generated at the same time by function parsers on a pool and
+	 * their code is written in source order. Labels are numbered within each function, 
+	 * otherwise the generated code is the same as from the sequential parse.
+	 * 
+	 * If any part fails the file is parsed again sequentially, so that the same messages
+	 * are printed as by a sequential run.
+	 */
+	private void programParallel() {
+		// The messages are kept until it is known whether the file is parsed again.
+		PrintStream out = log;
+		ByteArrayOutputStream parallelLog = new ByteArrayOutputStream();
+		log = new PrintStream(parallelLog);
+		
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		boolean generated = false;
+		try {
+			generated = generateParallel(pool);
+		} catch (InterruptedException e) {
+			discardOutput();
+			Thread.currentThread().interrupt();
+			throw new GenerationException("Interrupted while generating code.", e);
+		} catch (RuntimeException e) {
+			// Parsed again below, which gives the error.
+		} finally {
+			pool.shutdownNow();
+			closeInput();
+			if (cachedFunctions != null) {
+				// Only the functions of a file that passed replace the ones kept before.
+				cachedFunctions.close(generated);
+				cachedFunctions = null;
+			}
+			log.flush();
+			log = out;
+		}
+		if (generated) {
+			log.print(parallelLog.toString());
 			return;
 		}
+		
+		discardOutput();
+		try {
+			Parser parser = new Parser(inputFile, outputFile, log);
+			parser.program();
+			passed = parser.isPassed();
+		} catch (IOException e) {
+			throw new GenerationException("Error reading input file. " + e.getMessage(), e);
+		}
+	}
+	
+	// Parses the globals and splits off the functions, returns false if the code could not be generated.
+	private boolean generateParallel(ForkJoinPool pool) throws InterruptedException {
+		openOutput();
+		word = nextWord();
+		if (!data_decls(true)) {
+			return false;
+		}
+		if (globals.size() > 0) {
+			outputCode.append("int global[" + globals.size() + "];" + System.lineSeparator());
+		}
+		flushOutput();
+		if (cache != null) {
+			globalsLayout = globals.getLayout();
+			cachedFunctions = cache.openFunctions(inputFile);
+		}
+		
+		// The first function starts with the word and the tokens data_decls looked ahead at.
+		ArrayDeque<Scanner.Token> readTokens = new ArrayDeque<Scanner.Token>();
+		if (word != END_OF_FILE) {
+			readTokens.add(word);
+		}
+		while (!lookAheadTokens.isEmpty()) {
+			Scanner.Token token = lookAheadTokens.poll();
+			if (token != END_OF_FILE) {
+				readTokens.add(token);
+			}
+		}
+		
+		// Functions split off and not yet written, oldest first.
+		ArrayDeque<Future<Parser>> pending = new ArrayDeque<Future<Parser>>();
+		List<Scanner.Token> function = new ArrayList<Scanner.Token>();
+		int braceDepth = 0;
+		boolean functionEnded = false;
+		while (true) {
+			Scanner.Token token = readTokens.isEmpty() ? readToken() : readTokens.poll();
+			if (token == null) {
+				break;
+			}
+			
+			boolean isMeta = token.getTokenType() == Scanner.TokenType.META_STATEMENT;
+			if (functionEnded && !isMeta) {
+				// The next function starts, hand this one to the pool.
+				pending.add(submitFunction(pool, function));
+				function = new ArrayList<Scanner.Token>();
+				functionEnded = false;
+				
+				if (pending.size() >= threads * FUNCTIONS_PER_THREAD && !writeFunction(pending.poll())) {
+					return false;
+				}
+			}
+			
+			function.add(token);
+			if (token.getTokenKind() == Scanner.TokenKind.LEFT_BRACE) {
+				braceDepth++;
+			} else if (token.getTokenKind() == Scanner.TokenKind.RIGHT_BRACE) {
+				functionEnded = --braceDepth == 0;
+			} else if (token.getTokenKind() == Scanner.TokenKind.SEMICOLON) {
+				functionEnded = braceDepth == 0;
+			}
+		}
+		if (!function.isEmpty()) {
+			pending.add(submitFunction(pool, function));
+		}
+		
+		while (!pending.isEmpty()) {
+			if (!writeFunction(pending.poll())) {
+				return false;
+			}
+		}
+		
+		success();
+		return true;
+	}
+	
+	private Future<Parser> submitFunction(ForkJoinPool pool, final List<Scanner.Token> tokens) {
+		final Parser parser = new Parser(globals, tokens);
+		return pool.submit(new Callable<Parser>() {
+			public Parser call() {
+				if (cache == null) {
+					return parser.generateFunction() ? parser : null;
+				}
+				
+				// A function with the same tokens and globals has the same code and messages.
+				parser.functionKey = cache.getFunctionKey(globalsLayout, tokens);
+				String[] cached = cachedFunctions.get(parser.functionKey);
+				if (cached != null) {
+					parser.outputCode.append(cached[0]);
+					parser.log.print(cached[1]);
+					return parser;
+				}
+				return parser.generateFunction() ? parser : null;
+			}
+		});
+	}
+	
+	// Generates the code for the function tokens of a function parser, false on a syntax error.
+	boolean generateFunction() {
+		word = nextWord();
+		return func_list();
+	}
+	
+	// Parses the tokens of a function parser as the global declarations into its globals, 
+	// false on a syntax error. Used by IncrementalParser.
+	boolean generateGlobals() {
+		word = nextWord();
+		if (!data_decls(true) || word != END_OF_FILE) {
+			return false;
+		}
+		if (globals.size() > 0) {
+			outputCode.append("int global[" + globals.size() + "];" + System.lineSeparator());
+		}
+		return true;
+	}
+	
+	// Function parser over the given tokens, for IncrementalParser. The error, if not null, 
+	// is thrown where the scanner found it, when the parser reads past the last token.
+	static Parser forTokens(SymbolTable globals, List<Scanner.Token> tokens, Scanner.ScannerException endError) {
+		Parser parser = new Parser(globals, tokens);
+		parser.endError = endError;
+		return parser;
+	}
+	
+	// Code generated by a function parser.
+	String getGeneratedCode() {
+		return outputCode.toString();
+	}
+	
+	// Messages printed by a function parser.
+	String getMessages() {
+		log.flush();
+		return functionLog.toString();
+	}
+	
+	// What fail() prints, for a function parser that failed.
+	String getFailMessage() {
+		return "Fail" + System.lineSeparator() + "Failed token: " 
+				+ word.getTokenName() + System.lineSeparator();
+	}
+	
+	// Waits for a function and writes its code, false if it could not be generated.
+	private boolean writeFunction(Future<Parser> future) throws InterruptedException {
+		Parser parser;
+		try {
+			parser = future.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			return false;
+		}
+		if (parser == null) {
+			return false;
+		}
+		
+		parser.log.flush();
+		if (cachedFunctions != null) {
+			cachedFunctions.add(parser.functionKey, parser.outputCode.toString(), parser.functionLog.toString());
+		}
+		outputCode.append(parser.outputCode);
+		flushOutput();
+		log.print(parser.functionLog.toString());
+		return true;
 	}
 	
 	/*
@@ -312,52 +884,54 @@ public class Parser {
 	<func list> --> empty
 	*/
 	public boolean func_list() {
-		if (word == null) {
-			// <func list> --> empty
-			// First+: {eof}
-			return true;
-		} else if (word.getTokenName().equals("int") || word.getTokenName().equals("void") 
-					|| word.getTokenName().equals("binary") || word.getTokenName().equals("decimal")) {
+		// Loop over the repeated part instead of recursing, so long inputs do not run out of stack.
+		while (true) {
+			if (word == END_OF_FILE) {
+				// <func list> --> empty
+				// First+: {eof}
+				return true;
+			} else if (TYPE_SPECIFIERS.contains(word.getTokenKind())) {
 				
-				// Add the function declaration to generated code verbatim.
-				outputCode.append(word.getTokenName());
-				word = nextWord();
+					// Add the function declaration to generated code verbatim.
+					outputCode.append(word.getTokenName());
+					word = nextWord();
 				
-				if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
-					return false;
-				}
+					if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
+						return false;
+					}
 				
-				outputCode.append(" " + word.getTokenName());
-				word = nextWord();
+					outputCode.append(" " + word.getTokenName());
+					word = nextWord();
 				
-				if (!word.getTokenName().equals("(")) {
-					return false;
-				}			
+					if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+						return false;
+					}			
 				
-				outputCode.append(" " + word.getTokenName());
-				word = nextWord();
+					outputCode.append(" " + word.getTokenName());
+					word = nextWord();
 				
-				if (!parameter_list()) {
-					return false;
-				}
+					if (!parameter_list()) {
+						return false;
+					}
 				
-				if (!word.getTokenName().equals(")")) {
-					return false;
-				}			
+					if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+						return false;
+					}			
 				
-				outputCode.append(" " + word.getTokenName());
-				word = nextWord();
+					outputCode.append(" " + word.getTokenName());
+					word = nextWord();
 				
-				if (!func_prime()) {
-					return false;
-				}
+					if (!func_prime()) {
+						return false;
+					}
 				
-				// Clear out the local variables as we exit function scope.
-				locals.clear();
+					// Clear out the local variables as we exit function scope.
+					locals.clear();
 				
-				return func_list();
-		} else  {
-			return false;
+					continue;
+			} else  {
+				return false;
+			}
 		}
 	}
 	
@@ -366,47 +940,55 @@ public class Parser {
 	<func prime> --> left_brace <data decls> <statements> right_brace
 	*/
 	public boolean func_prime() {
-		if (word.getTokenName().equals(";")) {
+		if (word.getTokenKind() == Scanner.TokenKind.SEMICOLON) {
 			outputCode.append(" " + word.getTokenName() + System.lineSeparator());
 			word = nextWord();
 			
 			// Clear out the local variables if any were added, since this is a function declaration rather than definition.
 			locals.clear();
 			
+			flushOutput();
 			return true;
-		} else if (word.getTokenName().equals("{")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.LEFT_BRACE) {
 			outputCode.append(System.lineSeparator() + word.getTokenName() + System.lineSeparator());
 			word = nextWord();
 			
-			// Use a local builder.
-			StringBuilder funcSb = new StringBuilder();						
-			
-			// Add the local variable declarations for parameters so far for the parameters.
-			funcSb.append(localVarStatements());
+			// Get the local variable statements for the parameters, before the declarations add more locals.
+			String parameterCode = localVarStatements();
 			
 			if (!data_decls(false)) {
 				return false;
 			}
 			
+			// The slots after the parameters and declared variables are the temporaries of the statements,
+			// and the undeclared variables.
+			int declaredSlots = locals.size();
+			undeclaredLocals.clear();
+			values.clear(declaredSlots);
+			
 			// Get the generated code for statements.
 			GeneratedCode funcCode = new GeneratedCode();
 			if (!statements(funcCode)) {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals("}")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACE) {
 				return false;
 			}
 			
-			if (locals.size() > 0) {
-				funcSb.insert(0, "int local[" + Integer.toString(locals.size()) + "];");
-			}
+			// Take out the jumps to jumps and the code that can not run.
+			new ControlFlowGraph(funcCode).optimize();
 			
-			// Add the generated code to the builder.
-			funcSb.append(funcCode.getCode());
+			// Temporaries that are no longer live give their slot to later ones.
+			LocalSlotAllocator allocator = new LocalSlotAllocator(declaredSlots, undeclaredLocals);
+			allocator.allocate(funcCode, locals.size());
 			
-			// Append the function contents to the original.
-			outputCode.append(funcSb.toString());
+			// Append the function contents to the output, the local array goes first.
+			if (allocator.getSlotCount() > 0) {
+				outputCode.append("int local[" + Integer.toString(allocator.getSlotCount()) + "];");
+			}
+			outputCode.append(parameterCode);
+			new CodePrinter(outputCode, allocator.getLocalSlots()).print(funcCode);
 			
 			outputCode.append(System.lineSeparator() + word.getTokenName() + System.lineSeparator() + System.lineSeparator());
 			word = nextWord();
@@ -414,6 +996,9 @@ public class Parser {
 			// Clear out the local variables if any were added, 
 			// since we are going out of the scope.
 			locals.clear();
+			
+			// The function is done, write it out.
+			flushOutput();
 			return true;
 		} else {
 			return false;
@@ -428,13 +1013,13 @@ public class Parser {
 	<parameter list> --> empty
 	*/
 	public boolean parameter_list() {
-		if (word.getTokenName().equals("void")) {
+		if (word.getTokenKind() == Scanner.TokenKind.VOID) {
 			// Add to the output code.
 			outputCode.append(" " + word.getTokenName());
 			word = nextWord();
 			
 			return parameter_list_prime();
-		} else if (word.getTokenName().equals("int") || word.getTokenName().equals("binary") || word.getTokenName().equals("decimal")) {
+		} else if (NON_VOID_TYPE_SPECIFIERS.contains(word.getTokenKind())) {
 			
 			outputCode.append(" " + word.getTokenName());
 			word = nextWord();
@@ -450,7 +1035,7 @@ public class Parser {
 			
 			word = nextWord();
 			return ne_list_prime();
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <parameter list> --> empty
 			// First+: {empty, right_parenthesis}
 			return true;
@@ -472,7 +1057,7 @@ public class Parser {
 			
 			word = nextWord();
 			return ne_list_prime();
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <parameter list prime> --> empty
 			// First+: {empty, right_parenthesis}
 			return true;
@@ -486,12 +1071,12 @@ public class Parser {
 	<ne list prime> --> empty
 	*/
 	public boolean ne_list_prime() {
-		if (word.getTokenName().equals(",")) {
+		if (word.getTokenKind() == Scanner.TokenKind.COMMA) {
 			outputCode.append(word.getTokenName());
 			
 			word = nextWord();
 			return ne_list_part();
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <ne list prime> --> empty
 			// First+: {empty, right_parenthesis}
 			return true;
@@ -507,8 +1092,7 @@ public class Parser {
 	<ne list part> --> decimal ID <ne list prime>
 	*/
 	public boolean ne_list_part() {
-		if (word.getTokenName().equals("int") || word.getTokenName().equals("void") 
-				|| word.getTokenName().equals("binary") || word.getTokenName().equals("decimal")) {
+		if (TYPE_SPECIFIERS.contains(word.getTokenKind())) {
 			
 			outputCode.append(" " + word.getTokenName());
 			word = nextWord();
@@ -538,59 +1122,58 @@ public class Parser {
 	*/
 	
 	public boolean data_decls(boolean isGlobal) {
-		if (word == null || word.getTokenType() == Scanner.TokenType.IDENTIFIER || word.getTokenName().equals("if")
-				|| word.getTokenName().equals("while") || word.getTokenName().equals("return")
-				|| word.getTokenName().equals("break") || word.getTokenName().equals("continue") || word.getTokenName().equals("read")
-				|| word.getTokenName().equals("write") || word.getTokenName().equals("print") || word.getTokenName().equals("}")) {
-			// <data decls> --> empty
-			// First+: {empty, int, void, binary, decimal, ID, if, while, return, break, continue, read, write, print, right_brace, eof}
-			// Among these int, void, binary, decimal have been handled as part of the look ahead below.
-			return true;
-		} else if (word.getTokenName().equals("int") || word.getTokenName().equals("void") ||
-					word.getTokenName().equals("binary") || word.getTokenName().equals("decimal")) {
-				/*
-				 *  Match without consuming, unless we are sure this is a data declaration.
-				 *  Need to peek ahead two tokens, if we get identifier followed by left_parenthesis then
-				 *  we are matching a func_list and should return true without consuming anything. 
-				 *  Otherwise we keep on matching more data_decls. This is part of the rule: <data decls> --> empty
-				 *  The rest of the empty expansion is handled below.
-				 */
-				Scanner.Token peek1 = peekNextToken();
-				Scanner.Token peek2 = peekNextToken();
-				if (peek1.getTokenType() == Scanner.TokenType.IDENTIFIER && peek2.getTokenName().equals("(")) {
-					return true;
-				}
+		// Loop over the repeated part instead of recursing, so long inputs do not run out of stack.
+		while (true) {
+			if (word == END_OF_FILE || DATA_DECLS_FOLLOW.contains(word.getTokenKind())) {
+				// <data decls> --> empty
+				// First+: {empty, int, void, binary, decimal, ID, if, while, return, break, continue, read, write, print, right_brace, eof}
+				// Among these int, void, binary, decimal have been handled as part of the look ahead below.
+				return true;
+			} else if (TYPE_SPECIFIERS.contains(word.getTokenKind())) {
+					/*
+					 *  Match without consuming, unless we are sure this is a data declaration.
+					 *  Need to peek ahead two tokens, if we get identifier followed by left_parenthesis then
+					 *  we are matching a func_list and should return true without consuming anything. 
+					 *  Otherwise we keep on matching more data_decls. This is part of the rule: <data decls> --> empty
+					 *  The rest of the empty expansion is handled below.
+					 */
+					Scanner.Token peek1 = peek(1);
+					Scanner.Token peek2 = peek(2);
+					if (peek1.getTokenType() == Scanner.TokenType.IDENTIFIER && peek2.getTokenKind() == Scanner.TokenKind.LEFT_PARENTHESIS) {
+						return true;
+					}
 				
-				// Safe to consume word.
-				word = nextWord();
+					// Safe to consume word.
+					word = nextWord();
 				
-				if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
-					return false;
-				}
+					if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
+						return false;
+					}
 				
-				// Get the identifier name so that we can pass it down.
-				String id = word.getTokenName();
+					// Get the identifier name so that we can pass it down.
+					String id = word.getTokenName();
 				
-				// Consume the word.
-				word = nextWord();			
+					// Consume the word.
+					word = nextWord();			
 				
-				if (!id_prime(id, isGlobal)) {
-					return false;
-				}
+					if (!id_prime(id, isGlobal)) {
+						return false;
+					}
 				
-				if (!id_list_prime(isGlobal)) {
-					return false;
-				}
+					if (!id_list_prime(isGlobal)) {
+						return false;
+					}
 				
-				if (!word.getTokenName().equals(";")) {
-					return false;
-				}
+					if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+						return false;
+					}
 				
-				word = nextWord();
+					word = nextWord();
 				
-				return data_decls(isGlobal);
-		} else  {
-			return false;
+					continue;
+			} else  {
+				return false;
+			}
 		}
 	}
 	
@@ -599,7 +1182,7 @@ public class Parser {
 	<id prime> --> empty
 	*/
 	public boolean id_prime(String id, boolean isGlobal) {
-		if (word.getTokenName().equals("[")) {
+		if (word.getTokenKind() == Scanner.TokenKind.LEFT_BRACKET) {
 			word = nextWord();
 			
 			// Get the expression value.
@@ -608,7 +1191,7 @@ public class Parser {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals("]")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACKET) {
 				return false;
 			}			
 			word = nextWord();
@@ -616,18 +1199,21 @@ public class Parser {
 			try {
 				// If we are given a number as the expression equivalent,
 				// then we are okay, otherwise we must exit and show error.
-				int arraySize = Integer.parseInt(eg.getEquivalent());
+				int size = eg.getEquivalent();
+				int arraySize = Integer.parseInt((GeneratedCode.getKind(size) == GeneratedCode.NUMBER) ? eg.getText(GeneratedCode.getNumber(size)) : "");
 				
-				// Add each of the array member to the locals.
-				for (int i = 0; i < arraySize; i++) {
-					addSymbol(id + "[" + Integer.toString(i) + "]", isGlobal);
+				// Add the array members to the symbol table.
+				if (isGlobal) {
+					globals.addArray(id, arraySize);
+				} else {
+					locals.addArray(id, arraySize);
 				}
 			} catch (NumberFormatException e) {
-				System.out.println("Non integer array size used for array: " + id);
+				log.println("Non integer array size used for array: " + id);
 			}
 			
 			return true;
-		} else if (word.getTokenName().equals(",") || word.getTokenName().equals(";")) {
+		} else if (ID_PRIME_FOLLOW.contains(word.getTokenKind())) {
 			// <id prime> --> empty
 			// First+: {empty, comma, semicolon}
 			
@@ -645,7 +1231,7 @@ public class Parser {
 	<id list prime> --> empty
 	*/
 	public boolean id_list_prime(boolean isGlobal) {
-		if (word.getTokenName().equals(",")) {
+		if (word.getTokenKind() == Scanner.TokenKind.COMMA) {
 			word = nextWord();
 			
 			if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
@@ -663,7 +1249,7 @@ public class Parser {
 			}
 			
 			return id_list_prime(isGlobal);
-		} else if (word.getTokenName().equals(";")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.SEMICOLON) {
 			// <id list prime> --> empty
 			// First+: {empty, semicolon}
 			return true;
@@ -685,285 +1271,288 @@ public class Parser {
 	<statements> --> empty
 	*/
 	public boolean statements(GeneratedCode g) {
-		if (word.getTokenType() == Scanner.TokenType.IDENTIFIER) {
-			// Get the identifier.
-			String id = word.getTokenName();
+		// Loop over the repeated part instead of recursing, so long inputs do not run out of stack.
+		while (true) {
+			switch (word.getTokenKind()) {
+			case IDENTIFIER: {
+				// Get the identifier.
+				String id = word.getTokenName();
 			
-			word = nextWord();
+				word = nextWord();
 			
-			// Get the generated code for the rule.
-			if (!statement_prime(id, g)) {
-				return false;
+				// Get the generated code for the rule.
+				if (!statement_prime(id, g)) {
+					return false;
+				}
+			
+				// Continuously add the code for other statements.
+				continue;
 			}
+			case IF: {
+				word = nextWord();
 			
-			// Continuously add the code for other statements.
-			return statements(g);
-		} else if (word.getTokenName().equals("if")) {
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals("(")) {
-				return false;
-			}
-			word = nextWord();
+				// Get the labels for the if statement, the condition jumps to them.
+				int ifLabel = getNextLabel();
+				int ifNotLabel = getNextLabel();
 			
-			// Get the generated code for condition expression.
-			if (!condition_expression(g)) {
-				return false;
-			}
+				// Get the generated code for condition expression.
+				if (!condition_expression(g, ifLabel, ifNotLabel)) {
+					return false;
+				}
 			
-			// Get the conditional equivalent.
-			String condEquivalent = g.getEquivalent();
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(")")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_BRACE) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals("{")) {
-				return false;
-			}
-			word = nextWord();
+				// Add code for the if statement.
+				addJump(g, GeneratedCode.LABEL, ifLabel, GeneratedCode.NONE);
+			
+				// Get the generated code for the statements inside if.
+				if (!statements(g)) {
+					return false;
+				}
 			
-			// Also get the labels for the if statement.
-			String ifLabel = getNextLabel();
-			String ifNotLabel = getNextLabel();
+				addJump(g, GeneratedCode.LABEL, ifNotLabel, GeneratedCode.NONE);
 			
-			// Add code for the if statement.
-			g.addCode(System.lineSeparator() + "if ( " + condEquivalent + " ) goto " + ifLabel + ";");
-			g.addCode(System.lineSeparator() + "goto " + ifNotLabel + ";");
-			g.addCode(System.lineSeparator() + ifLabel + ": ;");
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACE) {
+					return false;
+				}			
 			
-			// Get the generated code for the statements inside if.
-			if (!statements(g)) {
-				return false;
+				// Continuously add the code for other statements.
+				word = nextWord();
+				continue;
 			}
+			case WHILE: {
+				// Get the labels for the equivalent if statement and the loop start.
+				// The label for if not is the current loop's end label.
+				int loopStart = getNextLabel();
+				int ifLabel = getNextLabel();
+				int ifNotLabel = getNextLabel();
 			
-			g.addCode(System.lineSeparator() + ifNotLabel + ": ;");
+				// Add the loop.
+				addLoopLabels(loopStart, ifNotLabel);
 			
-			if (!word.getTokenName().equals("}")) {
-				return false;
-			}			
+				word = nextWord();
 			
-			// Continuously add the code for other statements.
-			word = nextWord();
-			return statements(g);
-		} else if (word.getTokenName().equals("while")) {
-			// Get the labels for the equivalent if statement and the loop start.
-			// The label for if not is the current loop's end label.
-			String loopStart = getNextLabel();
-			String ifLabel = getNextLabel();
-			String ifNotLabel = getNextLabel();
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			// Add the loop.
-			addLoopLabels(loopStart, ifNotLabel);
+				// Add the code for the while loop, so that it encapsulates the contents of the conditional expression.
+				addJump(g, GeneratedCode.LABEL, loopStart, GeneratedCode.NONE);
 			
-			word = nextWord();
+				// Get the conditional expressions generated code, it jumps into the loop or out of it.
+				if (!condition_expression(g, ifLabel, ifNotLabel)) {
+					return false;
+				}
 			
-			if (!word.getTokenName().equals("(")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			// Add the code for the while loop, so that it encapsulates the contents of the conditional expression.
-			g.addCode(System.lineSeparator() + loopStart + ": ;");
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_BRACE) {
+					return false;
+				}
+				word = nextWord();
 			
-			// Get the conditional expressions generated code.
-			if (!condition_expression(g)) {
-				return false;
-			}
+				// Add the start of the loop body.
+				addJump(g, GeneratedCode.LABEL, ifLabel, GeneratedCode.NONE);
 			
-			// Get the conditional expression equivalent.
-			String condEquivalent = g.getEquivalent();
+				// Get the generated code for while statements.
+				if (!statements(g)) {
+					return false;
+				}
 			
-			if (!word.getTokenName().equals(")")) {
-				return false;
-			}
-			word = nextWord();
+				// Add the rest of the loop.
+				addJump(g, GeneratedCode.GOTO, loopStart, GeneratedCode.NONE);
+				addJump(g, GeneratedCode.LABEL, ifNotLabel, GeneratedCode.NONE);
 			
-			if (!word.getTokenName().equals("{")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACE) {
+					return false;
+				}
 			
-			// Add the if condition for the loop.
-			g.addCode(System.lineSeparator() + "if ( " + condEquivalent + " ) goto " + ifLabel + ";");
-			g.addCode(System.lineSeparator() + "goto " + ifNotLabel + ";");
-			g.addCode(System.lineSeparator() + ifLabel + ": ;");
+				// Our loop has ended, remove the loop's labels.
+				removeLastLoop();
 			
-			// Get the generated code for while statements.
-			if (!statements(g)) {
-				return false;
+				// Continuously add the code for other statements.
+				word = nextWord();
+				continue;
 			}
+			case RETURN: {
+				word = nextWord();
 			
-			// Add the rest of the loop.
-			g.addCode(System.lineSeparator() + "goto " + loopStart + ";");
-			g.addCode(System.lineSeparator() + ifNotLabel + ": ;");
+				// Get the generated code for return.
+				if (!return_statement_prime(g)) {
+					return false;
+				}
 			
-			if (!word.getTokenName().equals("}")) {
-				return false;
+				// Continuously add the code for other statements.
+				continue;
 			}
+			case BREAK: {
+				word = nextWord();
 			
-			// Our loop has ended, remove the loop's labels.
-			removeLastLoop();
-			
-			// Continuously add the code for other statements.
-			word = nextWord();
-			return statements(g);
-		} else if (word.getTokenName().equals("return")) {
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+					return false;
+				}
 			
-			// Get the generated code for return.
-			if (!return_statement_prime(g)) {
-				return false;
-			}
+				// Found a break. Check if we are inside a loop.
+				if (isInsideLoop()) {
+					int loopEnd = loopEnds.get(loopEnds.size() - 1);
+					addJump(g, GeneratedCode.GOTO, loopEnd, GeneratedCode.NONE);
+				} else {
+					throw new GenerationException("break statement used outside loop. Quiting.");
+				}
 			
-			// Continuously add the code for other statements.
-			return statements(g);
-		} else if (word.getTokenName().equals("break")) {
-			word = nextWord();
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(";")) {
-				return false;
+				// Continuously add the code for other statements.
+				continue;
 			}
+			case CONTINUE: {
+				word = nextWord();
 			
-			// Found a break. Check if we are inside a loop.
-			if (isInsideLoop()) {
-				String loopEnd = loopEnds.get(loopEnds.size() - 1);
-				g.addCode(System.lineSeparator() + "goto " + loopEnd + ";");
-			} else {
-				System.out.println("break statement used outside loop. Quiting.");
-				System.exit(1);
-			}
+				if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+					return false;
+				}
 			
-			word = nextWord();
+				// Found a break. Check if we are inside a loop.
+				if (isInsideLoop()) {
+					int loopStart = loopStarts.get(loopStarts.size() - 1);
+					addJump(g, GeneratedCode.GOTO, loopStart, GeneratedCode.NONE);
+				} else {
+					throw new GenerationException("continue statement used outside loop. Quiting.");
+				}
 			
-			// Continuously add the code for other statements.
-			return statements(g);
-		} else if (word.getTokenName().equals("continue")) {
-			word = nextWord();
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(";")) {
-				return false;
+				// Continuously add the code for other statements.
+				continue;
 			}
+			case READ: {
+				word = nextWord();
 			
-			// Found a break. Check if we are inside a loop.
-			if (isInsideLoop()) {
-				String loopStart = loopStarts.get(loopStarts.size() - 1);
-				g.addCode(System.lineSeparator() + "goto " + loopStart + ";");
-			} else {
-				System.out.println("continue statement used outside loop. Quiting.");
-				System.exit(1);
-			}
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			word = nextWord();
+				if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
+					return false;
+				}
 			
-			// Continuously add the code for other statements.
-			return statements(g);
-		} else if (word.getTokenName().equals("read")) {
-			word = nextWord();
+				// Save the identifier.
+				String id = word.getTokenName();
+				word = nextWord();
 			
-			if (!word.getTokenName().equals("(")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
-				return false;
-			}
+				if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+					return false;
+				}
 			
-			// Save the identifier.
-			String id = word.getTokenName();
-			word = nextWord();
+				// Get the identifier location in locals.
+				SymbolLocation pos = findVarIndex(id, false);
 			
-			if (!word.getTokenName().equals(")")) {
-				return false;
-			}
-			word = nextWord();
+				// Add the code for the read statement.
+				g.add(GeneratedCode.READ, GeneratedCode.NONE, pos.getOperand(), GeneratedCode.NONE);
+				values.stored(pos.getOperand());
 			
-			if (!word.getTokenName().equals(";")) {
-				return false;
+				word = nextWord();
+			
+				// Continuously add generated code over statements.
+				continue;
 			}
+			case WRITE: {
+				word = nextWord();
 			
-			// Get the identifier location in locals.
-			SymbolLocation pos = findVarIndex(id, false);
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			// Add the code for the read statement.
-			g.addCode(System.lineSeparator() + "read ( " + pos.getSymbolString() + " );");
+				// Get the expression code.
+				if (!expression(g)) {
+					return false;
+				}
 			
-			word = nextWord();
+				// Get the write parameter equivalent.
+				int writeParam = g.getEquivalent();
 			
-			// Continuously add generated code over statements.
-			return statements(g);
-		} else if (word.getTokenName().equals("write")) {
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals("(")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+					return false;
+				}
 			
-			// Get the expression code.
-			if (!expression(g)) {
-				return false;
-			}
+				// Add the write statement code.
+				g.add(GeneratedCode.WRITE, GeneratedCode.NONE, writeParam, GeneratedCode.NONE);
 			
-			// Get the write parameter equivalent.
-			String writeParam = g.getEquivalent();
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(")")) {
-				return false;
+				// Continuously add generated code over statements.
+				continue;
 			}
-			word = nextWord();
+			case PRINT: {
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(";")) {
-				return false;
-			}
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			// Add the write statement code.
-			g.addCode(System.lineSeparator() + "write ( " + writeParam + " );");
+				if (word.getTokenType() != Scanner.TokenType.STRING) {
+					return false;
+				}
 			
-			word = nextWord();
+				// Save the string to print.
+				String printStr =  word.getTokenName();
+				word = nextWord();
 			
-			// Continuously add generated code over statements.
-			return statements(g);
-		} else if (word.getTokenName().equals("print")) {
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals("(")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+					return false;
+				}
 			
-			if (word.getTokenType() != Scanner.TokenType.STRING) {
-				return false;
-			}
+				// Add the code for print string.
+				g.add(GeneratedCode.PRINT, GeneratedCode.NONE, g.text(printStr), GeneratedCode.NONE);
 			
-			// Save the string to print.
-			String printStr =  word.getTokenName();
-			word = nextWord();
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(")")) {
-				return false;
+				// Continuously add generated code over statements.
+				continue;
 			}
-			word = nextWord();
-			
-			if (!word.getTokenName().equals(";")) {
+			case RIGHT_BRACE: {
+				// <statements> --> empty
+				// First+: {empty, right_brace}
+				return true;
+			}
+			default:
 				return false;
 			}
-			
-			// Add the code for print string.
-			g.addCode(System.lineSeparator() + "print ( " + printStr + " );");
-			
-			word = nextWord();
-			
-			// Continuously add generated code over statements.
-			return statements(g);
-		} else if (word.getTokenName().equals("}")) {
-			// <statements> --> empty
-			// First+: {empty, right_brace}
-			return true;
-		} else {
-			return false;
 		}
 	}
 	
@@ -973,7 +1562,7 @@ public class Parser {
 	<statement prime> --> left_parenthesis <expr list> right_parenthesis semicolon
 	*/
 	public boolean statement_prime(String id, GeneratedCode g) {
-		if (word.getTokenName().equals("=")) {
+		if (word.getTokenKind() == Scanner.TokenKind.EQUAL_SIGN) {
 			word = nextWord();
 			
 			// Generated code for expression.
@@ -982,9 +1571,9 @@ public class Parser {
 			}
 			
 			// Get the right hand side expression equivalent.
-			String rhsEquivalent = g.getEquivalent();
+			int rhsEquivalent = g.getEquivalent();
 			
-			if (!word.getTokenName().equals(";")) {
+			if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
 				return false;
 			}
 			
@@ -992,12 +1581,16 @@ public class Parser {
 			// Get the identifiers location.
 			SymbolLocation pos = findVarIndex(id, false);
 			
-			// Add the code for the assignment.
-			g.addCode(System.lineSeparator() + pos.getSymbolString() + " = " + rhsEquivalent + ";");			
+			// Add the code for the assignment, a temporary made for the right hand side is set to the 
+			// identifier instead.
+			if (!assignLastTemporary(g, rhsEquivalent, pos.getOperand())) {
+				g.add(GeneratedCode.COPY, pos.getOperand(), rhsEquivalent, GeneratedCode.NONE);
+			}
+			values.stored(pos.getOperand());
 			
 			word = nextWord();			
 			return true;
-		} else if (word.getTokenName().equals("[")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.LEFT_BRACKET) {
 			word = nextWord();
 			
 			// The array offset.
@@ -1006,14 +1599,14 @@ public class Parser {
 			}
 			
 			// Get the array offset expression equivalent.
-			String arrayOffset = g.getEquivalent();
+			int arrayOffset = g.getEquivalent();
 			
-			if (!word.getTokenName().equals("]")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACKET) {
 				return false;
 			}
 			word = nextWord();
 			
-			if (!word.getTokenName().equals("=")) {
+			if (word.getTokenKind() != Scanner.TokenKind.EQUAL_SIGN) {
 				return false;
 			}
 			word = nextWord();
@@ -1024,9 +1617,9 @@ public class Parser {
 			}
 			
 			// Get the right hand side expression equivalent to be used.
-			String  rhsEquivalent = g.getEquivalent();
+			int rhsEquivalent = g.getEquivalent();
 			
-			if (!word.getTokenName().equals(";")) {
+			if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
 				return false;
 			}
 			
@@ -1035,52 +1628,38 @@ public class Parser {
 			SymbolLocation base = findVarIndex(id, true);
 			
 			// Add base + expression equivalent to local variables.
-			String code = addSymbol(Integer.toString(base.getIndex()) + " + " + arrayOffset, false);
-			g.addCode(code);
+			int index = addTemporary(g, GeneratedCode.ADD, g.number(Integer.toString(base.getIndex())), arrayOffset);
 			
 			// Now dereference the array element.
-			String lhsSymbol;
-			if (base.isGlobal()) {
-				lhsSymbol = "global";
-			} else {
-				lhsSymbol = "local";
-			}
-			
-			lhsSymbol += "[" + getLastLocalVariable()  + "]";			
+			int lhsSymbol = GeneratedCode.element(base.isGlobal(), GeneratedCode.getNumber(index));
 			
 			// Finally add the code for the expression assignment.
-			g.addCode(System.lineSeparator() + lhsSymbol + " = " + rhsEquivalent + ";");
+			g.add(GeneratedCode.COPY, lhsSymbol, rhsEquivalent, GeneratedCode.NONE);
+			values.stored(lhsSymbol);
 			
 			word = nextWord();			
 			return true;
-		} else if (word.getTokenName().equals("(")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.LEFT_PARENTHESIS) {
 			word = nextWord();
 			
-			// Turn the flag on so that all code generated are local variables.
-			wrapFactorInLocalVar = true;
-			
-			// Expression list generated code.
+			// Expression list generated code, the arguments are added after the mark.
+			int argumentMark = g.getArgumentMark();
 			if (!expr_list(g)) {
 				return false;
 			}
 			
-			// Get the function call parameter list equivalent.
-			String paramList = g.getEquivalent();
-			
-			// Turn the flag off, we are done.
-			wrapFactorInLocalVar = false;
-			
-			if (!word.getTokenName().equals(")")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
 				return false;
 			}
 			word = nextWord();
 			
-			if (!word.getTokenName().equals(";")) {
+			if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
 				return false;
 			}
 			
 			// An stand-alone function call.
-			g.addCode(System.lineSeparator() + id + " ( " + paramList + " );");
+			g.addCall(GeneratedCode.CALL_STATEMENT, GeneratedCode.NONE, id, argumentMark);
+			values.called();
 			
 			word = nextWord();			
 			return true;
@@ -1095,13 +1674,12 @@ public class Parser {
 	*/
 	public boolean expr_list(GeneratedCode g) {
 		if (expression(g)) {
+			// Add the expression to the arguments of the call.
+			g.addArgument(g.getEquivalent());
 			return ne_expr_list_prime(g);
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <expr list> --> empty
 			// First+: {empty, right_parenthesis}
-			
-			// Clear out the equivalent if any, since this was empty.
-			g.setEquivalent("");
 			return true;
 		} else {
 			return false;
@@ -1113,22 +1691,19 @@ public class Parser {
 	<ne expr list prime> --> empty
 	*/
 	public boolean ne_expr_list_prime(GeneratedCode g) {
-		if (word.getTokenName().equals(",")) {
+		if (word.getTokenKind() == Scanner.TokenKind.COMMA) {
 			word = nextWord();
 			
-			// Save the current expression list.
-			String currentList = g.getEquivalent();
-			
 			// Get the next expression in the list.
 			if (!expression(g)) {
 				return false;
 			}
 			
-			// Add the generated code to the left side generated code.
-			g.setEquivalent(currentList + ", " + g.getEquivalent());
+			// Add it after the arguments before it.
+			g.addArgument(g.getEquivalent());
 			
 			return ne_expr_list_prime(g);
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <ne expr list prime> --> empty
 			// First+: {empty, right_parenthesis}			
 			return true;
@@ -1139,10 +1714,11 @@ public class Parser {
 	
 	/*
 	<condition expression> -->  <condition> <condition expression prime>
+	The code jumps to trueLabel when the condition holds and to falseLabel when it does not.
 	*/
-	public boolean condition_expression(GeneratedCode g) {
+	public boolean condition_expression(GeneratedCode g, int trueLabel, int falseLabel) {
 		if (condition(g)) {
-			return condition_expression_prime(g);
+			return condition_expression_prime(g, trueLabel, falseLabel);
 		} else {
 			return false;
 		}
@@ -1153,30 +1729,33 @@ public class Parser {
 	<condition expression prime> --> double_or_sign <condition> 
 	<condition expression prime> --> empty
 	*/
-	public boolean condition_expression_prime(GeneratedCode g) {
-		if (word.getTokenName().equals("&&") || word.getTokenName().equals("||")) {
+	public boolean condition_expression_prime(GeneratedCode g, int trueLabel, int falseLabel) {
+		if (LOGICAL_OPERATORS.contains(word.getTokenKind())) {
 			// Save the operator.
-			String op = word.getTokenName();
+			int op = GeneratedCode.getOpcode(word.getTokenName());
 			
 			word = nextWord();
 			
-			// Save the left hand side equivalent.
-			String lhsEquivalent = g.getEquivalent();
+			// The right hand side only runs when the left hand side does not decide the condition:
+			// when it holds for &&, when it does not for ||.
+			int rhsLabel = getNextLabel();
+			if (op == GeneratedCode.AND) {
+				addBranch(g, g.getEquivalent(), rhsLabel, falseLabel);
+			} else {
+				addBranch(g, g.getEquivalent(), trueLabel, rhsLabel);
+			}
+			addJump(g, GeneratedCode.LABEL, rhsLabel, GeneratedCode.NONE);
 			
-			// Get the right hand side code and equivalent.
+			// Get the right hand side code, it decides the condition.
 			if (condition(g)) {
-				// Add the code for the conditional operation.
-				String rhsEquivalent = g.getEquivalent();
-				String code = addSymbol("( " + lhsEquivalent + " " + op + " " + rhsEquivalent + " )", false);
-				g.addCode(code);
-				g.setEquivalent(getLastLocalVariable());
-				
+				addBranch(g, g.getEquivalent(), trueLabel, falseLabel);
 				return true;
 			}
 			return false;							
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <condition expression prime> --> empty
 			// First+: {empty, right_parenthesis}			
+			addBranch(g, g.getEquivalent(), trueLabel, falseLabel);
 			return true;
 		} else {
 			return false;
@@ -1203,25 +1782,21 @@ public class Parser {
 	<condition prime> --> <=  <expression>
 	*/
 	public boolean condition_prime(GeneratedCode g) {
-		if (word.getTokenName().equals("==") || word.getTokenName().equals("!=")
-				|| word.getTokenName().equals(">") || word.getTokenName().equals(">=")
-				|| word.getTokenName().equals("<") || word.getTokenName().equals("<=")) {
+		if (CONDITION_OPERATORS.contains(word.getTokenKind())) {
 			
 			// Save the operator.
-			String op = word.getTokenName();
+			int op = GeneratedCode.getOpcode(word.getTokenName());
 			
 			word = nextWord();
 			
 			// Save the left hand side equivalent.
-			String lhsEquivalent = g.getEquivalent();
+			int lhsEquivalent = g.getEquivalent();
 			
 			// The right hand side generated code.
 			if (expression(g)) {
 				// Add the code for the conditional operation.
-				String rhsEquivalent = g.getEquivalent();
-				String code = addSymbol("( " + lhsEquivalent + " " + op + " " + rhsEquivalent + " )", false);
-				g.addCode(code);
-				g.setEquivalent(getLastLocalVariable());
+				int rhsEquivalent = g.getEquivalent();
+				g.setEquivalent(addTemporary(g, op, lhsEquivalent, rhsEquivalent));
 				
 				return true;
 			}
@@ -1237,23 +1812,20 @@ public class Parser {
 	*/
 	public boolean return_statement_prime(GeneratedCode g) {
 		if (expression(g)) {
-			if (!word.getTokenName().equals(";")) {
+			if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
 				return false;
 			}
 			
 			// Add the expression code.
-			String retEquivalent = g.getEquivalent();
+			int retEquivalent = g.getEquivalent();
 			
-			// Wrap the equivalent into another local variable.
-			String code = addSymbol(retEquivalent, false);
-			g.addCode(code);			
-			g.addCode(System.lineSeparator() + "return " + getLastLocalVariable() + ";");
+			g.add(GeneratedCode.RETURN, GeneratedCode.NONE, retEquivalent, GeneratedCode.NONE);
 			
 			word = nextWord();			
 			return true;
-		} else if (word.getTokenName().equals(";")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.SEMICOLON) {
 			// Simple return statement.
-			g.addCode(System.lineSeparator() + "return;");
+			g.add(GeneratedCode.RETURN_VOID, GeneratedCode.NONE, GeneratedCode.NONE, GeneratedCode.NONE);
 			
 			word = nextWord();			
 			return true;
@@ -1279,34 +1851,32 @@ public class Parser {
 	<expression prime> --> empty
 	*/
 	public boolean expression_prime(GeneratedCode g) {
-		if (word.getTokenName().equals("+") || word.getTokenName().equals("-")) {
+		if (ADD_OPERATORS.contains(word.getTokenKind())) {
 			
 			// Save the operator.
-			String op = word.getTokenName();
+			int op = GeneratedCode.getOpcode(word.getTokenName());
 			
 			word = nextWord();
 			
 			// Save the left hand side equivalent.
-			String lhsEquivalent = g.getEquivalent();
+			int lhsEquivalent = g.getEquivalent();
 			
 			// Get the right hand side.
 			if (!term(g)) {
 				return false;
 			}
 			
-			// Add the code for addition/subtraction on the left hand side.
-			String rhsEquivalent = g.getEquivalent();
-			String code = addSymbol(lhsEquivalent + " " + op + " " + rhsEquivalent, false);
-			g.addCode(code);
-			g.setEquivalent(getLastLocalVariable());
+			// Add the code for addition/subtraction on the left hand side, unless it is known now.
+			int rhsEquivalent = g.getEquivalent();
+			int folded = foldOperation(g, lhsEquivalent, op, rhsEquivalent);
+			if (folded != GeneratedCode.NONE) {
+				g.setEquivalent(folded);
+			} else {
+				g.setEquivalent(addTemporary(g, op, lhsEquivalent, rhsEquivalent));
+			}
 			
 			return expression_prime(g);
-		} else if (word.getTokenName().equals(";") || word.getTokenName().equals("&&")
-					|| word.getTokenName().equals("||") || word.getTokenName().equals(")")
-					|| word.getTokenName().equals("==") || word.getTokenName().equals("!=")
-					|| word.getTokenName().equals(">") || word.getTokenName().equals(">=")
-					|| word.getTokenName().equals("<") || word.getTokenName().equals("<=")
-					|| word.getTokenName().equals(",") || word.getTokenName().equals("]")) {
+		} else if (EXPRESSION_FOLLOW.contains(word.getTokenKind())) {
 			// <expression prime> --> empty
 			// First+: {empty, semicolon, double_and_sign, double_or_sign, right_parenthesis, 
 			//			==, !=, >, >=, <, <=, comma, right_bracket}			
@@ -1333,34 +1903,31 @@ public class Parser {
 	<term prime> --> empty
 	*/
 	public boolean term_prime(GeneratedCode g) {
-		if (word.getTokenName().equals("*") || word.getTokenName().equals("/")) {
+		if (MULTIPLY_OPERATORS.contains(word.getTokenKind())) {
 			// Save the operator.
-			String op = word.getTokenName();
+			int op = GeneratedCode.getOpcode(word.getTokenName());
 			
 			word = nextWord();
 			
 			// Save the left hand side.
-			String lhsEquivalent = g.getEquivalent();
+			int lhsEquivalent = g.getEquivalent();
 			
 			// Get the right hand side.
 			if (!factor(g)) {
 				return false;
 			}
 			
-			// Add the code for multiplication/division to the left hand side.
-			String rhsEquivalent = g.getEquivalent();
-			String code = addSymbol(lhsEquivalent + " " + op + " " + rhsEquivalent, false);
-			g.addCode(code);
-			g.setEquivalent(getLastLocalVariable());
+			// Add the code for multiplication/division to the left hand side, unless it is known now.
+			int rhsEquivalent = g.getEquivalent();
+			int folded = foldOperation(g, lhsEquivalent, op, rhsEquivalent);
+			if (folded != GeneratedCode.NONE) {
+				g.setEquivalent(folded);
+			} else {
+				g.setEquivalent(addTemporary(g, op, lhsEquivalent, rhsEquivalent));
+			}
 			
 			return term_prime(g);
-		} else if (word.getTokenName().equals("+") || word.getTokenName().equals("-")
-					|| word.getTokenName().equals(";") || word.getTokenName().equals("&&")
-					|| word.getTokenName().equals("||") || word.getTokenName().equals(")")
-					|| word.getTokenName().equals("==") || word.getTokenName().equals("!=")
-					|| word.getTokenName().equals(">") || word.getTokenName().equals(">=")
-					|| word.getTokenName().equals("<") || word.getTokenName().equals("<=")
-					|| word.getTokenName().equals(",") || word.getTokenName().equals("]")) {
+		} else if (TERM_FOLLOW.contains(word.getTokenKind())) {
 				// <term prime> --> empty
 				// First+: {empty, plus_sign, minus_sign, semicolon, double_and_sign, double_or_sign, right_parenthesis, 
 				//			==, !=, >, >=, <, <=, comma, right_bracket}
@@ -1389,38 +1956,24 @@ public class Parser {
 			return factor_prime(id, g);
 		} else if (word.getTokenType() == Scanner.TokenType.NUMBER) {
 			
-			// Check if we have to wrap the number in a local variable.
-			if (wrapFactorInLocalVar) {
-				String code = addSymbol(word.getTokenName(), false);
-				g.addCode(code);
-				g.setEquivalent(getLastLocalVariable());
-			} else {
-				// This is a number, place it in the equivalent directly.
-				g.setEquivalent(word.getTokenName());
-			}
+			// This is a number, place it in the equivalent directly.
+			g.setEquivalent(g.number(word.getTokenName()));
 			
 			word = nextWord();			
 			return true;
-		} else if (word.getTokenName().equals("-")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.MINUS_SIGN) {
 			word = nextWord();
 			
 			if (word.getTokenType() != Scanner.TokenType.NUMBER) {
 				return false;
 			}
 			
-			// Check if we have to wrap the number in a local variable.
-			if (wrapFactorInLocalVar) {
-				String code = addSymbol("-" + word.getTokenName(), false);
-				g.addCode(code);
-				g.setEquivalent(getLastLocalVariable());
-			} else {
-				// This is a negative number, place it in the equivalent directly.
-				g.setEquivalent("-" + word.getTokenName());
-			}
+			// This is a negative number, place it in the equivalent directly.
+			g.setEquivalent(g.number("-" + word.getTokenName()));
 			
 			word = nextWord();
 			return true;
-		} else if (word.getTokenName().equals("(")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.LEFT_PARENTHESIS) {
 			word = nextWord();
 			
 			// This is an expression, directly pass the generated code.
@@ -1428,7 +1981,7 @@ public class Parser {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals(")")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
 				return false;
 			}
 			
@@ -1445,7 +1998,7 @@ public class Parser {
 	<factor prime> --> empty
 	*/
 	public boolean factor_prime(String id, GeneratedCode g) {
-		if (word.getTokenName().equals("[")) {
+		if (word.getTokenKind() == Scanner.TokenKind.LEFT_BRACKET) {
 			
 			// Array dereference. 
 			word = nextWord();
@@ -1455,9 +2008,9 @@ public class Parser {
 			}
 			
 			// Get the expression equivalent.
-			String exprEquivalent = g.getEquivalent();
+			int exprEquivalent = g.getEquivalent();
 			
-			if (!word.getTokenName().equals("]")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACKET) {
 				return false;
 			}			
 			word = nextWord();
@@ -1466,84 +2019,87 @@ public class Parser {
 			SymbolLocation base = findVarIndex(id, true);
 			
 			// Add base + expression equivalent to local variables.
-			String code = addSymbol(Integer.toString(base.getIndex()) + " + " + exprEquivalent, false);
-			g.addCode(code);
+			int index = addTemporary(g, GeneratedCode.ADD, g.number(Integer.toString(base.getIndex())), exprEquivalent);
 			
 			// Now dereference the array element in a new local variable.
-			String symbolToAdd;
-			if (base.isGlobal()) {
-				symbolToAdd = "global";
-			} else {
-				symbolToAdd = "local";
-			}
-			
-			symbolToAdd += "[" + getLastLocalVariable() + "]";			
-			code = addSymbol(symbolToAdd, false);
-			g.addCode(code);
-			g.setEquivalent(getLastLocalVariable());
+			int element = GeneratedCode.element(base.isGlobal(), GeneratedCode.getNumber(index));
+			g.setEquivalent(addTemporary(g, GeneratedCode.COPY, element, GeneratedCode.NONE));
 			
 			return true;
-		} else if (word.getTokenName().equals("(")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.LEFT_PARENTHESIS) {
 			word = nextWord();
 			
+			// The arguments are added after the mark.
+			int argumentMark = g.getArgumentMark();
 			if (!expr_list(g)) {
 				return false;
 			}
 			
-			// Get the expression list equivalent.
-			String exprListEquivalent = g.getEquivalent();
-			
-			if (!word.getTokenName().equals(")")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
 				return false;
 			}			
 			word = nextWord();
 			
 			// Is a function call, add it to the locals.
-			String code = addSymbol(id + " ( " + exprListEquivalent + " ) ", false);
-			g.addCode(code);
-			g.setEquivalent(getLastLocalVariable());
+			g.setEquivalent(addCallTemporary(g, id, argumentMark));
 			
 			return true;
-		} else if (word.getTokenName().equals("*") || word.getTokenName().equals("/") 
-				|| word.getTokenName().equals("+") || word.getTokenName().equals("-")
-				|| word.getTokenName().equals(";") || word.getTokenName().equals("&&")
-				|| word.getTokenName().equals("||") || word.getTokenName().equals(")")
-				|| word.getTokenName().equals("==") || word.getTokenName().equals("!=")
-				|| word.getTokenName().equals(">") || word.getTokenName().equals(">=")
-				|| word.getTokenName().equals("<") || word.getTokenName().equals("<=")
-				|| word.getTokenName().equals(",") || word.getTokenName().equals("]")) {
+		} else if (FACTOR_FOLLOW.contains(word.getTokenKind())) {
 			// <factor prime> --> empty
 			// First+: {empty, star_sign, forward_slash, plus_sign, minus_sign, semicolon, 
 			//			double_and_sign, double_or_sign, right_parenthesis, ==, !=, >, >=, <, <=, comma, right_bracket}
 			
 			// Just an identifier, return the corresponding local variable.
 			SymbolLocation index = findVarIndex(id, false);
-			g.setEquivalent(index.getSymbolString());			
+			g.setEquivalent(index.getOperand());			
 			return true;
 		} else {
 			return false;
 		}
 	}
 	
-	public String getGeneratedCode() {
-		return outputCode.toString();
-	}
-	
 	public static void main(String[] args) {
+		// Generate the functions on more than one thread with: -threads N input_file
+		int threads = 1;
+		int fileArg = 0;
+		if (args.length > 1 && args[0].equals("-threads")) {
+			try {
+				threads = Integer.parseInt(args[1]);
+			} catch (NumberFormatException e) {
+				System.out.println("Invalid number of threads. " + e.getMessage());
+				System.exit(1);
+			}
+			fileArg = 2;
+		}
+		
 		// Basic sanity check.
-		if (args.length == 0) {
+		if (args.length <= fileArg) {
 			System.out.println("Must give the input file location as parameter.");
 			return;
 		}
 		
 		// Create parser and start parsing.
 		try {
-			Parser parser = new Parser(args[0]);			
+			// Results of earlier runs are reused when the csc512.cache property gives a cache directory.
+			GeneratedCodeCache cache = GeneratedCodeCache.fromProperties();
+			if (cache != null) {
+				try {
+					cache.compile(args[fileArg], new File(Scanner.getResultFilename(args[fileArg])), threads, System.out);
+				} finally {
+					cache.flushCounts();
+				}
+				return;
+			}
+			Parser parser = new Parser(args[fileArg]);
+			parser.setThreads(threads);
 			// Call with the starting non-terminal symbol.
 			parser.program();						
 		} catch (IOException e) {
 			System.out.println("Error reading input file. " + e.getMessage());
 			System.exit(1);
+		} catch (Scanner.ScannerException | GenerationException e) {
+			System.out.println(e.getMessage());
+			System.exit(1);
 		}
 	}
 
@@ -3,9 +3,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * Owner: ShaownS
@@ -23,14 +26,109 @@ public class Scanner {
 	
 	public static String scanner_error_prefix = "Error in Scanner: ";
 	
+	/*
+	 * Thrown when the input can not be scanned, stops the file being scanned.
+	 * The message is what is printed for the user.
+	 */
+	public static class ScannerException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		
+		public ScannerException(String message) {
+			super(message);
+		}
+		
+		public ScannerException(String message, Throwable cause) {
+			super(message, cause);
+		}
+	}
+	
 	public static enum TokenType {
         // Our language has these token types.
-        IDENTIFIER, NUMBER, RESERVED_WORD, SYMBOL, STRING, META_STATEMENT;
+        IDENTIFIER, NUMBER, RESERVED_WORD, SYMBOL, STRING, META_STATEMENT,
+        
+        // Never scanned, the parser reads it after the last token.
+        END_OF_FILE;
     }
 	
+	// Finer grained than the token type, every reserved word and symbol has its own
+	// kind. The parser can tell tokens apart by kind without comparing their text.
+	// Reserved words and symbols keep their text, the rest have null.
+	public static enum TokenKind {
+		IDENTIFIER(TokenType.IDENTIFIER, null),
+		NUMBER(TokenType.NUMBER, null),
+		STRING(TokenType.STRING, null),
+		META_STATEMENT(TokenType.META_STATEMENT, null),
+		
+		// Reserved words.
+		INT(TokenType.RESERVED_WORD, "int"),
+		VOID(TokenType.RESERVED_WORD, "void"),
+		IF(TokenType.RESERVED_WORD, "if"),
+		WHILE(TokenType.RESERVED_WORD, "while"),
+		RETURN(TokenType.RESERVED_WORD, "return"),
+		READ(TokenType.RESERVED_WORD, "read"),
+		WRITE(TokenType.RESERVED_WORD, "write"),
+		PRINT(TokenType.RESERVED_WORD, "print"),
+		CONTINUE(TokenType.RESERVED_WORD, "continue"),
+		BREAK(TokenType.RESERVED_WORD, "break"),
+		BINARY(TokenType.RESERVED_WORD, "binary"),
+		DECIMAL(TokenType.RESERVED_WORD, "decimal"),
+		
+		// Symbols.
+		LEFT_PARENTHESIS(TokenType.SYMBOL, "("),
+		RIGHT_PARENTHESIS(TokenType.SYMBOL, ")"),
+		LEFT_BRACE(TokenType.SYMBOL, "{"),
+		RIGHT_BRACE(TokenType.SYMBOL, "}"),
+		LEFT_BRACKET(TokenType.SYMBOL, "["),
+		RIGHT_BRACKET(TokenType.SYMBOL, "]"),
+		COMMA(TokenType.SYMBOL, ","),
+		SEMICOLON(TokenType.SYMBOL, ";"),
+		PLUS_SIGN(TokenType.SYMBOL, "+"),
+		MINUS_SIGN(TokenType.SYMBOL, "-"),
+		STAR_SIGN(TokenType.SYMBOL, "*"),
+		FORWARD_SLASH(TokenType.SYMBOL, "/"),
+		EQUAL_SIGN(TokenType.SYMBOL, "="),
+		DOUBLE_EQUAL_SIGN(TokenType.SYMBOL, "=="),
+		NOT_EQUAL_SIGN(TokenType.SYMBOL, "!="),
+		GREATER_THAN(TokenType.SYMBOL, ">"),
+		GREATER_OR_EQUAL(TokenType.SYMBOL, ">="),
+		LESS_THAN(TokenType.SYMBOL, "<"),
+		LESS_OR_EQUAL(TokenType.SYMBOL, "<="),
+		DOUBLE_AND_SIGN(TokenType.SYMBOL, "&&"),
+		DOUBLE_OR_SIGN(TokenType.SYMBOL, "||"),
+		
+		END_OF_FILE(TokenType.END_OF_FILE, null);
+		
+		private final TokenType type;
+		private final String text;
+		
+		private TokenKind(TokenType type, String text) {
+			this.type = type;
+			this.text = text;
+		}
+		
+		public TokenType getTokenType() {
+			return type;
+		}
+		
+		public String getText() {
+			return text;
+		}
+		
+		// Kind of a token given by its type and text, null if there is no such token.
+		public static TokenKind forToken(TokenType type, String text) {
+			for (TokenKind kind : values()) {
+				if (kind.type == type && (kind.text == null || kind.text.equals(text))) {
+					return kind;
+				}
+			}
+			return null;
+		}
+	}
+	
 	// Our simple token class, has a type and token string or name.
     public static class Token {
         private TokenType type;
+        private TokenKind kind;
         private String tokenString;
         
         public Token() {
@@ -38,7 +136,12 @@ public class Scanner {
         }
         
         public Token(TokenType t, String s) {
-            this.type = t;
+            this(TokenKind.forToken(t, s), s);
+        }
+        
+        public Token(TokenKind k, String s) {
+        	this.type = k.getTokenType();
+        	this.kind = k;
             this.tokenString = s;
         }
         
@@ -46,58 +149,227 @@ public class Scanner {
         	return type;
         }
         
+        public TokenKind getTokenKind() {
+        	return kind;
+        }
+        
         public String getTokenName() {
         	return tokenString;
         }
     }
+    
+    // Compact list of scanned tokens, kept in parallel primitive arrays so that
+    // scanning does not create a Token and a string for every token. A token is
+    // its kind (the TokenKind ordinal), the offset of its first byte in the source
+    // file and its length in bytes. The text is only created when asked for, through
+    // Scanner.getTokenText.
+    public static class TokenBuffer {
+    	private int[] kinds;
+    	private long[] starts;
+    	private int[] lengths;
+    	private int size;
+    	
+    	public TokenBuffer(int capacity) {
+    		capacity = Math.max(capacity, 1);
+    		this.kinds = new int[capacity];
+    		this.starts = new long[capacity];
+    		this.lengths = new int[capacity];
+    		this.size = 0;
+    	}
+    	
+    	public int size() {
+    		return size;
+    	}
+    	
+    	public void clear() {
+    		size = 0;
+    	}
+    	
+    	public int getKind(int i) {
+    		return kinds[i];
+    	}
+    	
+    	public TokenKind getTokenKind(int i) {
+    		return TOKEN_KIND_VALUES[kinds[i]];
+    	}
+    	
+    	public TokenType getTokenType(int i) {
+    		return TOKEN_KIND_VALUES[kinds[i]].getTokenType();
+    	}
+    	
+    	public long getStart(int i) {
+    		return starts[i];
+    	}
+    	
+    	public int getLength(int i) {
+    		return lengths[i];
+    	}
+    	
+    	public void add(int kind, long start, int length) {
+    		if (size == kinds.length) {
+    			// Full, double the arrays.
+    			int capacity = size * 2;
+    			kinds = Arrays.copyOf(kinds, capacity);
+    			starts = Arrays.copyOf(starts, capacity);
+    			lengths = Arrays.copyOf(lengths, capacity);
+    		}
+    		kinds[size] = kind;
+    		starts[size] = start;
+    		lengths[size] = length;
+    		size++;
+    	}
+    }
 
+    // Fixed size circular buffer of look ahead tokens for the parsers. Tokens are
+    // added at the tail and taken from the head, so neither end moves the others.
+    // peek(1) is the token at the head, peek(2) the one after it and so on.
+    // A null token (end of input) can be stored like any other token.
+    public static class TokenRing {
+    	private final Token[] tokens;
+    	private int head;
+    	private int size;
+    	
+    	public TokenRing(int capacity) {
+    		this.tokens = new Token[Math.max(capacity, 1)];
+    		this.head = 0;
+    		this.size = 0;
+    	}
+    	
+    	public int size() {
+    		return size;
+    	}
+    	
+    	public int capacity() {
+    		return tokens.length;
+    	}
+    	
+    	public boolean isEmpty() {
+    		return size == 0;
+    	}
+    	
+    	public boolean isFull() {
+    		return size == tokens.length;
+    	}
+    	
+    	public void clear() {
+    		Arrays.fill(tokens, null);
+    		head = 0;
+    		size = 0;
+    	}
+    	
+    	// Token k places from the head, k starts at 1 and must not exceed size().
+    	public Token peek(int k) {
+    		if (k < 1 || k > size) {
+    			throw new IndexOutOfBoundsException("Look ahead " + k + " of " + size + " tokens.");
+    		}
+    		return tokens[(head + k - 1) % tokens.length];
+    	}
+    	
+    	public void add(Token token) {
+    		if (size == tokens.length) {
+    			throw new IllegalStateException("Look ahead buffer is full.");
+    		}
+    		tokens[(head + size) % tokens.length] = token;
+    		size++;
+    	}
+    	
+    	// Removes and returns the token at the head.
+    	public Token poll() {
+    		if (size == 0) {
+    			throw new IllegalStateException("Look ahead buffer is empty.");
+    		}
+    		Token token = tokens[head];
+    		tokens[head] = null;
+    		head = (head + 1) % tokens.length;
+    		size--;
+    		return token;
+    	}
+    }
+    
     // Constructor. Must give a file name, throws exceptions based on the file
     // reading or attribute issues like file is a directory and does not exist.
+	// Scans the raw bytes of the file, see the constructor below.
 	public Scanner(String srcFilename) throws FileNotFoundException, IOException {
+		this(srcFilename, true);
+	}
+	
+	// Constructor with the choice of input mode. When mapInput is set the source
+	// file is memory mapped and scanned as raw ASCII bytes, files too large to
+	// be mapped at once are read in chunks instead. Otherwise the source is decoded
+	// one character at a time through a reader with the default charset.
+	public Scanner(String srcFilename, boolean mapInput) throws FileNotFoundException, IOException {
     	this.curTokenBuilder = new StringBuilder();
-    	this.nextTokenChar = Character.MIN_VALUE;
+    	this.nextTokenChar = -1;
     	this.nextToken = null;
+    	this.readOffset = 0;
+    	this.tokenScratch = new byte[MAX_RESERVED_LENGTH];
     	
     	// Start processing the input file.
-    	InputStream srcStream = new FileInputStream(srcFilename);
+    	FileInputStream srcStream = new FileInputStream(srcFilename);
+    	if (mapInput) {
+    		FileChannel channel = srcStream.getChannel();
+    		if (channel.size() <= MAX_MAPPED_SIZE) {
+    			// The whole file fits in one mapping, the mapping stays valid after closing the channel.
+    			inputBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    			channel.close();
+    		} else {
+    			// Too large to map, read the file one chunk at a time.
+    			inputChannel = channel;
+    			inputBuffer = ByteBuffer.allocateDirect(INPUT_CHUNK_SIZE);
+    			inputBuffer.flip();
+    		}
+    		return;
+    	}
+    	
         InputStreamReader streamReader = new InputStreamReader(srcStream, Charset.defaultCharset());
         
         // Use a buffered reader for efficiency.
         inputReader = new BufferedReader(streamReader);
     }
 	
+	// Constructor that scans the given bytes instead of a file, as the byte input does.
+	// Used by IncrementalParser to scan again the part of a file that was edited.
+	public Scanner(byte[] source) {
+    	this.curTokenBuilder = new StringBuilder();
+    	this.nextTokenChar = -1;
+    	this.nextToken = null;
+    	this.readOffset = 0;
+    	this.tokenScratch = new byte[MAX_RESERVED_LENGTH];
+    	this.inputBuffer = ByteBuffer.wrap(source);
+	}
+	
 	// Looks ahead for tokens in file, if there is one caches it.
 	// Can be called multiple times, would not lose tokens. Must
-	// call before calling getNextToken, otherwise program quits
-	// with error code. This is done to enforce the coupling between
+	// call before calling getNextToken, otherwise getNextToken
+	// throws. This is done to enforce the coupling between
 	// these two functions. If this function returns true, then the
 	// next getNextToken is guaranteed to return a valid token.
 	public boolean hasMoreTokens() {
     	// Check if there is already a token cached or not.
 		if (this.nextToken == null) {    		
     		// Scan the next token in file.
-    		Token nextTokenInFile = scanNextTokenInFile();
-    		if (nextTokenInFile == null) {
+    		TokenKind nextTokenKind = scanNextTokenInFile();
+    		if (nextTokenKind == null) {
 	    		// We have reached the white spaces
 				// at the end of the file while scanning.
 				return false;
     		}
     		
     		// Otherwise cache it for easy retrieval.
-    		this.nextToken = nextTokenInFile;
+    		this.nextToken = newToken(nextTokenKind);
 		}
 		
 		return true;
     }
 	
 	// Should only be called after checking by hasMoreTokens.
-	// Otherwise will stop the program with error code. Gets
+	// Otherwise throws a ScannerException. Gets
 	// the cached token that was fetched by the hasMoreTokens call.
 	public Token getNextToken() {
 		if (this.nextToken == null) {
 			// Someone called this without checking for hasMoreTokens.
 			// Should not have done that.
-			System.exit(1);
+			throw new ScannerException("getNextToken called without a token from hasMoreTokens.");
 		}
 		
 		// Return the cached one and empty the cache. So, that next
@@ -107,413 +379,362 @@ public class Scanner {
 		return retToken;
 	}
     
+	// Scans up to maxTokens tokens into the buffer, without creating Token objects
+	// or strings. The buffer is not cleared first. Returns the number of tokens added,
+	// 0 once the end of the file has been reached. Offsets are only meaningful with
+	// the byte input, and this should not be mixed with hasMoreTokens/getNextToken
+	// on the same scanner.
+	public int scanTokens(TokenBuffer tokens, int maxTokens) {
+		int count = 0;
+		while (count < maxTokens) {
+			TokenKind tokenKind = scanNextTokenInFile();
+			if (tokenKind == null) {
+				break;
+			}
+			tokens.add(tokenKind.ordinal(), tokenStart, tokenLength);
+			count++;
+		}
+		return count;
+	}
+	
+	// Text of the i-th token in the buffer.
+	public String getTokenText(TokenBuffer tokens, int i) {
+		return getTokenText(tokens.getStart(i), tokens.getLength(i));
+	}
+	
+	// Text of the source between the given offsets, read from the mapped file,
+	// the current chunk or the file itself. Needs the byte input.
+	public String getTokenText(long start, int length) {
+		if (inputBuffer == null) {
+			// The reader input does not keep the source around.
+			throw new ScannerException("Token text by offset needs the byte input.");
+		}
+		
+		byte[] tokenBytes = new byte[length];
+		readSourceBytes(start, length, tokenBytes);
+		
+		// Only strings and meta statements can have non-ASCII bytes, decode them
+		// with the default charset to give the same text as the reader input.
+		for (int i = 0; i < length; i++) {
+			if (tokenBytes[i] < 0) {
+				return new String(tokenBytes, Charset.defaultCharset());
+			}
+		}
+		return new String(tokenBytes, StandardCharsets.ISO_8859_1);
+	}
+	
 	// Retrieves the next token in source file. Will
 	// return null, if the end of the file has been 
 	// reached and we don't have a token. Will start
 	// with either the character saved from last matching
 	// or the next character in the source file.
-    private Token scanNextTokenInFile() {
-    	Token nextToken = null;
-    	int readValue = -1;
-    	while (nextToken == null) {
-	    	// Check if we have a character left from previous
+	//
+	// This is the whole finite automaton of the scanner. Every character
+	// is classified through the CHAR_CLASSES table, the TRANSITIONS table
+	// gives the action for the current state and character class, so all
+	// token types are matched by the same loop. A token ends either with
+	// the character that completes it (e.g. the second & of &&) or with
+	// the first character that can not be part of it, which is saved in
+	// nextTokenChar for the next token.
+    // The token is not created here, only its offsets are set in tokenStart
+    // and tokenLength. The reader input also keeps its text in the builder.
+    private TokenKind scanNextTokenInFile() {
+    	// Clear the token builder, since we are starting a new match.
+    	curTokenBuilder.setLength(0);
+    	boolean keepText = keepTokenText();
+    	
+    	// Offset of the first character of the token, moves along while skipping white space.
+    	tokenStart = (nextTokenChar != -1) ? readOffset - 1 : readOffset;
+    	
+    	int state = S_START;
+    	while (true) {
+    		// Check if we have a character left from previous
 	    	// match. Otherwise read one from the file.
-    		char ch;
-    		if (nextTokenChar != Character.MIN_VALUE) {
-    			ch = nextTokenChar;
+    		int readValue = nextTokenChar;
+    		if (readValue != -1) {
+    			nextTokenChar = -1;
     		} else {
     			readValue = getNextCharValue();
-    			if (readValue == -1) {
-    				// Reached end of file. Don't have any more to scan.
-    				break;
+    		}
+    		
+    		int charClass;
+    		if (readValue == -1) {
+    			charClass = C_EOF;
+    		} else if (readValue < CHAR_CLASSES.length) {
+    			charClass = CHAR_CLASSES[readValue];
+    		} else {
+    			charClass = C_OTHER;
+    		}
+    		
+    		int action = TRANSITIONS[state][charClass];
+    		int target = action & TARGET_MASK;
+    		switch (action & KIND_MASK) {
+    		case MOVE:
+    			// Character is part of the token, keep matching in the target state.
+    			if (keepText) {
+    				curTokenBuilder.append((char) readValue);
+    			}
+    			state = target;
+    			break;
+    		case SKIP:
+    			// White space between tokens.
+    			tokenStart = readOffset;
+    			break;
+    		case ACCEPT:
+    			// Character does not belong to the token, it is for the next one.
+    			nextTokenChar = readValue;
+    			return acceptToken(target, (readValue == -1) ? readOffset : readOffset - 1);
+    		case ACCEPT_WITH:
+    			// Character completes the token.
+    			if (keepText) {
+    				curTokenBuilder.append((char) readValue);
+    			}
+    			return acceptToken(target, readOffset);
+    		case ACCEPT_DROP:
+    			// Character ends the token but is not part of it (the new line of a meta statement).
+    			return acceptToken(target, readOffset - 1);
+    		case FAIL_WITH:
+    			if (keepText) {
+    				curTokenBuilder.append((char) readValue);
     			}
-    			ch = (char) readValue;
+    			rejectToken(target, readOffset);
+    			break;
+    		case FAIL:
+    			rejectToken(target, (readValue == -1) ? readOffset : readOffset - 1);
+    			break;
+    		default:
+    			// Reached end of file. Don't have any more to scan.
+    			return null;
     		}
-    			
-			// Get the next token starting from the initial state.
-			nextToken = scanTokenFromStart(ch);		
     	}
-    	
-    	return nextToken;
     }
-
-    // Will get the next token matching with the starting 
-    // character. Returns null if the end of file has been
-    // reached. Functionally, the starting state of all tokens, 
-    // goes into different matching states based on the character
-    // read. If the first non-whitespace character is not one
-    // of the characters that begins a token, then it's an 
-    // invalid one and the program halts.
-	private Token scanTokenFromStart(char ch) {
-		// Consume white space characters.
-		while (isWhitespace(ch)) {
-			int readValue = getNextCharValue();
-			if (readValue == -1) {
-				// Reached end of file while reading white spaces.
-				return null;
-			}			
-			ch = (char) readValue;
-		}
-		
-		// Clear the token builder, since we are starting a new match.
-		curTokenBuilder.setLength(0);
-		
-		// Append the character to the token builder and start matching.
-		curTokenBuilder.append(ch);		
-		
-		if (isLetter(ch)) {
-			// Identifiers or reserved words.
-			return matchIdentifierOrReserved();
-		} else if (isDigit(ch)) {
-			// Numbers.
-			return matchNumber();
-		} else if (ch == '"') {
-			// Strings.
-			return matchStrings();
-		} else if (ch == '#') {
-			// Meta statement.
-			return matchMetaStatements();
-		} else if (ch == '/') {
-			// Can be meta statement if there is another '/' or a single forward slash symbol.
-			return matchMetaStatementOrSymbol();
-		}  else if (isSingleCharSymbol(ch)) {
-			/*
-			 * Single character symbols that can not be followed by anything.
-			 * left_parenthesis | right_parenthesis | left_brace | right_brace | left_bracket | right_bracket | 
-			 * comma | semicolon | plus_sign | minus_sign | star_sign | forward_slash
-			 */
-			// Token was matched, no more characters for the next token.
-			this.nextTokenChar = Character.MIN_VALUE;
-			return new Token(TokenType.SYMBOL, curTokenBuilder.toString());
-		} else if (isAssignOperatorSymbol(ch)) {
-			/*
-			 * Operator symbols that can be followed by = or not.
-			 * assign (=) | greater_than (<) || lesser_than(>)
-			 */
-			return matchAssignOperatorSymbols();
-		} else if (ch == '!') {
-			/*
-			 * ! can only be followed by =.
-			 * Anything else makes an invalid token.
-			 */
-			return matchNotEqualSymbol();
-		} else if (ch == '&') {
-			/*
-			 * & can only be followed by another &.
-			 * Anything else makes an invalid token.
-			 */
-			return matchLogicalAnd();
-		} else if (ch == '|') {
-			/*
-			 * | can only be followed by another |.
-			 * Anything else makes an invalid token.
-			 */
-			return matchLogicalOr();
-		} 
-		else {
-			// Not identified character. Reject token.
-			System.out.println(scanner_error_prefix + "Invalid token in source file " + Character.toString(ch));
-			System.exit(1);
-		}
-		
-		// Should never reach this.
-		return null;
-	}
     
-	/* Each match*** function is a FA that matches certain type(s) of tokens.
-	 * When they are done, the scanner is ready for another scan for new token.
-	 * The next scan can have one character that was read from the last matching,
-	 * which is cached in the nextTokenChar member.
-	 */
-	
-	// Matches &&, a single & is not a symbol in our language. So
-    // if a & is not followed by another, then it's an invalid token.
-    private Token matchLogicalAnd() {
-    	// Flag to check if the contents of the builder is valid or not.
-    	boolean tokenMatched = false;
-    	Token matchedToken = null;
-    	int readValue = getNextCharValue();
-    	if (readValue != -1) {
-    		char ch = (char) readValue;
-    		
-    		// If this character is a '&' then it's logical and symbol,
-    		// otherwise this is an invalid token.
-        	if (ch == '&') {
-				curTokenBuilder.append(ch);
-				tokenMatched = true;
-				
-				// Token was matched, no more characters left for the next one.
-				this.nextTokenChar = Character.MIN_VALUE;
-			} else {
-				// Character for next token.
-				this.nextTokenChar = ch;
-			}
+    // Sets the length of the matched token and gives its kind. Identifiers can still be
+    // reserved words, and symbols are told apart by their first character and length.
+    private TokenKind acceptToken(int tokenType, long tokenEnd) {
+    	tokenLength = (int) (tokenEnd - tokenStart);
+    	if (tokenType == T_IDENTIFIER && tokenLength >= MIN_RESERVED_LENGTH && tokenLength <= MAX_RESERVED_LENGTH) {
+    		copyTokenBytes(tokenLength);
+    		int reservedIndex = reservedWordIndex(tokenScratch, tokenLength);
+    		if (reservedIndex != -1) {
+    			// It is a reserved word.
+    			return reservedWordKinds[reservedIndex];
+    		}
+    	} else if (tokenType == T_SYMBOL) {
+    		copyTokenBytes(1);
+    		if (tokenLength == 1) {
+    			return SINGLE_SYMBOL_KINDS[tokenScratch[0]];
+    		}
+    		return DOUBLE_SYMBOL_KINDS[tokenScratch[0]];
     	}
-    	
-    	// We have found a valid token or reached the end of file. If there was a match then
-    	// return the token. Otherwise if there is content in the token builder, it's an invalid token.
-    	if (tokenMatched) {
-    		matchedToken = new Token(TokenType.SYMBOL, curTokenBuilder.toString());
-		} else if (curTokenBuilder.length() > 0) {
-			System.out.println(scanner_error_prefix + "Invalid token in source file: " + curTokenBuilder.toString());
-			System.exit(1);
-		}
-    	
-    	return matchedToken;
+    	return TOKEN_KINDS[tokenType];
     }
     
-    // Matches ||, a single | is not a symbol in our language. So
-    // if a | is not followed by another, then it's an invalid token.
-    private Token matchLogicalOr() {
-    	// Flag to check if the contents of the builder is valid or not.
-    	boolean tokenMatched = false;    	
-    	Token matchedToken = null;
-    	int readValue = getNextCharValue();
-    	if (readValue != -1) {
-    		char ch = (char) readValue;
-    		
-    		// If this character is a '|' then it's logical or symbol,
-    		// otherwise this is an invalid token.
-        	if (ch == '|') {
-				curTokenBuilder.append(ch);
-    			tokenMatched = true;
-    			
-    			// Token was matched, no more characters left for the next one.
-				this.nextTokenChar = Character.MIN_VALUE;
-			} else {
-				// Character for next token.
-				this.nextTokenChar = ch;
-    		}
-    	}
-    	
-    	// We have found a valid token or reached the end of file. If there was a match then
-    	// return the token. Otherwise if there is content in the token builder, it's an invalid token.
-    	if (tokenMatched) {
-    		matchedToken = new Token(TokenType.SYMBOL, curTokenBuilder.toString());
-		} else if (curTokenBuilder.length() > 0) {
-			System.out.println(scanner_error_prefix + "Invalid token in source file: " + curTokenBuilder.toString());
-			System.exit(1);
+    // Copies the first bytes of the token into the scratch array.
+    private void copyTokenBytes(int length) {
+    	if (keepTokenText()) {
+			// Only used for identifiers and symbols, which are ASCII.
+			for (int i = 0; i < length; i++) {
+				tokenScratch[i] = (byte) curTokenBuilder.charAt(i);
+			}
+		} else {
+			readSourceBytes(tokenStart, length, tokenScratch);
 		}
-    	
-    	return matchedToken;
     }
     
-    // Matches !=, in our language ! is not a symbol. So, any !
-    // encountered must be followed by a =, otherwise it's invalid.
-    private Token matchNotEqualSymbol() {
-    	// Flag to check if the contents of the builder is valid or not.
-    	boolean tokenMatched = false;
-    	Token matchedToken = null;
-    	int readValue = getNextCharValue();
-    	if (readValue != -1) {
-    		char ch = (char) readValue;
-    		
-    		// If this character is a '=' then it's not equal symbol,
-    		// otherwise this is an invalid token.
-        	if (ch == '=') {
-				curTokenBuilder.append(ch);
-				tokenMatched = true;
-    			
-				// Token was matched, no more characters left for the next one.
-				this.nextTokenChar = Character.MIN_VALUE;
-			} else {
-				// Character for next token.
-				this.nextTokenChar = ch;
-    		}
+    // Not identified character or an incomplete token. Reject token.
+    private void rejectToken(int error, long tokenEnd) {
+    	String tokenText;
+    	if (keepTokenText()) {
+    		tokenText = curTokenBuilder.toString();
+    	} else {
+    		tokenText = getTokenText(tokenStart, (int) (getCharacterEnd(tokenEnd) - tokenStart));
     	}
-    	
-    	// We have found a valid token or reached the end of file. If there was a match then
-    	// return the token. Otherwise if there is content in the token builder, it's an invalid token.
-    	if (tokenMatched) {
-    		matchedToken = new Token(TokenType.SYMBOL, curTokenBuilder.toString());
-		} else if (curTokenBuilder.length() > 0) {
-			System.out.println(scanner_error_prefix + "Invalid symbol token in file: " + curTokenBuilder.toString());
-			System.exit(1);
-		}
-    	
-    	return matchedToken;
+    	throw new ScannerException(scanner_error_prefix + SCANNER_ERRORS[error] + tokenText);
     }
     
-    // Matches those symbols that can be a symbol on their own,
-    // or have a = followed (=, <, >). So, if these are followed
-    // by a =, we take the longest match. Otherwise we keep the 
-    // read character for the next token, and have the previous
-    // one returned as a symbol token.
-    private Token matchAssignOperatorSymbols() {
-    	Token matchedToken = null;
-    	int readValue = getNextCharValue();
-    	if (readValue != -1) {
-    		char ch = (char) readValue;
-    		
-    		// If this character is a '=' then it's assign operator symbol,
-    		// otherwise the previous character was a single symbol.
-        	if (ch == '=') {
-				curTokenBuilder.append(ch);
-				
-				// Token was matched, no more characters left for the next one.
-				this.nextTokenChar = Character.MIN_VALUE;
-    							
-			} else {    			
-    			// Character for next token.
-				this.nextTokenChar = ch;
+    // A character that is not ASCII is rejected on its first byte. The reader input gives the
+    // whole character in the error, so with a UTF-8 default charset the end is moved past the
+    // rest of its bytes. Other charsets decode the byte on its own, as the reader does.
+    private long getCharacterEnd(long tokenEnd) {
+    	if (tokenEnd == tokenStart || !Charset.defaultCharset().equals(StandardCharsets.UTF_8)) {
+    		return tokenEnd;
+    	}
+    	byte[] oneByte = new byte[1];
+    	readSourceBytes(tokenEnd - 1, 1, oneByte);
+    	int lead = oneByte[0] & 0xff;
+    	int following = (lead >= 0xf8) ? 0 : (lead >= 0xf0) ? 3 : (lead >= 0xe0) ? 2 : (lead >= 0xc0) ? 1 : 0;
+    	long sourceLength = getSourceLength();
+    	long end = tokenEnd;
+    	for (int i = 0; i < following && end < sourceLength; i++) {
+    		readSourceBytes(end, 1, oneByte);
+    		if ((oneByte[0] & 0xc0) != 0x80) {
+    			break;
     		}
+    		end++;
     	}
-    	
-    	// We have found a valid token or reached the end of file.
-    	matchedToken = new Token(TokenType.SYMBOL, curTokenBuilder.toString());
-		return matchedToken;
+    	return end;
     }
     
-    // Matches meta statements that begins with // or the symbol '/'.
-    private Token matchMetaStatementOrSymbol() {
-    	Token matchedToken = null;
-    	int readValue = getNextCharValue();
-    	if (readValue != -1) {
-    		char ch = (char) readValue;
-    		
-    		// If this character is also a '/' then it's a meta statement,
-    		// otherwise the previous character was a forward slash symbol.
-        	if (ch == '/') {
-        		curTokenBuilder.append(ch);
-        		
-        		// The rest is same as  a meta statement, match it there.
-				return matchMetaStatements();
-			} else {
-    			// The first '/' was a symbol. This character is for next token.
- 				this.nextTokenChar = ch;
-    		}
+    // Number of bytes of the source, for the byte input.
+    private long getSourceLength() {
+    	if (inputChannel == null) {
+    		return inputBuffer.limit();
+    	}
+    	try {
+    		return inputChannel.size();
+    	} catch (IOException e) {
+    		// Error reading the file, should not happen.
+    		throw new ScannerException(e.getMessage(), e);
     	}
-    	// The previous '/' was a symbol, return it.
-		matchedToken = new Token(TokenType.SYMBOL, curTokenBuilder.toString());
-    	return matchedToken;
     }
     
-    // Matches the meta statements starting with #, to the end of the line included.
-    private Token matchMetaStatements() {
-    	Token matchedToken = null;
-    	int readValue = getNextCharValue();
-    	while (readValue != -1) {
-    		char ch = (char) readValue;
-    		
-    		// Read until the end of line.
-    		if (ch != '\n') {
-    			curTokenBuilder.append(ch);
-    		} else {
-    			break;
-    		}
-    		readValue = getNextCharValue();
-    	}
-    	
-    	// We have found the end of the file or a new line. The contents of
-    	// the builder is a meta statement.
-		matchedToken = new Token(TokenType.META_STATEMENT, curTokenBuilder.toString());
-    	return matchedToken;
+    // The reader input keeps the token text in the builder, since its source can not be read again.
+    private boolean keepTokenText() {
+    	return inputReader != null;
     }
     
-    // Match the longest string between double quotes ("),
-    // Strings can not have new lines in between the quotes,
-    // so a string with beginning quote spanning over more 
-    // than one line is considered an invalid token.
-    private Token matchStrings() {
-    	// Flag to check if the contents of the builder is valid or not.
-    	boolean tokenMatched = false;
-    	Token matchedToken = null;
-    	int readValue = getNextCharValue();
-    	while (readValue != -1) {
-    		char ch = (char) readValue;
-    		
-    		// Anything that is not another double quote or a newline
-    		// gets appended to the string.
-    		if (ch != '"' && ch != '\n') {
-    			curTokenBuilder.append(ch);
-    		} else if (ch == '"') {
-    			// We have found the end of the identified string token.
-    			curTokenBuilder.append(ch);
-    			tokenMatched = true;
-    			
-    			// Token was matched, no more characters left for the next one.
-				this.nextTokenChar = Character.MIN_VALUE;				
-    			break;
-    		}    		
-    		else if (ch == '\n') {
-    			// Have found a newline without the matching double quote.
-    			curTokenBuilder.append(ch);
-    			
-    			// No more characters left for the next one.
-    			this.nextTokenChar = Character.MIN_VALUE;
-				break;
+    // Character classes, the columns of the transition table.
+    private static final int C_LETTER = 0;		// letters and underscore
+    private static final int C_DIGIT = 1;
+    private static final int C_SPACE = 2;		// white space other than new line
+    private static final int C_NEWLINE = 3;
+    private static final int C_QUOTE = 4;		// "
+    private static final int C_HASH = 5;		// #
+    private static final int C_SLASH = 6;		// /
+    private static final int C_SINGLE = 7;		// ( ) { } [ ] , ; + - *
+    private static final int C_EQUAL = 8;		// =
+    private static final int C_ANGLE = 9;		// < >
+    private static final int C_BANG = 10;		// !
+    private static final int C_AMP = 11;		// &
+    private static final int C_PIPE = 12;		// |
+    private static final int C_OTHER = 13;		// anything that can not start a token
+    private static final int C_EOF = 14;
+    
+    // Scanner states, the rows of the transition table.
+    private static final int S_START = 0;		// between tokens
+    private static final int S_IDENT = 1;		// identifier or reserved word
+    private static final int S_NUMBER = 2;
+    private static final int S_STRING = 3;		// after the opening quote
+    private static final int S_META = 4;		// # or // up to the end of line
+    private static final int S_SLASH = 5;		// forward slash symbol or start of //
+    private static final int S_ASSIGN = 6;		// = < > that can be followed by =
+    private static final int S_BANG = 7;		// ! must be followed by =
+    private static final int S_AMP = 8;			// & must be followed by &
+    private static final int S_PIPE = 9;		// | must be followed by |
+    
+    // Token types an accepting action can give, indexes into TOKEN_TYPES.
+    private static final int T_IDENTIFIER = 0;
+    private static final int T_NUMBER = 1;
+    private static final int T_SYMBOL = 2;
+    private static final int T_STRING = 3;
+    private static final int T_META = 4;
+    
+    private static final TokenKind[] TOKEN_KIND_VALUES = TokenKind.values();
+    
+    // Symbols have no entry here, their kind is found from their text.
+    private static final TokenKind[] TOKEN_KINDS = {TokenKind.IDENTIFIER, TokenKind.NUMBER, 
+    											null, TokenKind.STRING, TokenKind.META_STATEMENT};
+    
+    // Symbol kinds by first character, for one and two character symbols.
+    private static final TokenKind[] SINGLE_SYMBOL_KINDS = new TokenKind[128];
+    private static final TokenKind[] DOUBLE_SYMBOL_KINDS = new TokenKind[128];
+    static {
+    	for (TokenKind kind : TOKEN_KIND_VALUES) {
+    		if (kind.getTokenType() == TokenType.SYMBOL) {
+    			String text = kind.getText();
+    			if (text.length() == 1) {
+    				SINGLE_SYMBOL_KINDS[text.charAt(0)] = kind;
+    			} else {
+    				DOUBLE_SYMBOL_KINDS[text.charAt(0)] = kind;
+    			}
     		}
-    		
-    		readValue = getNextCharValue();
     	}
-    	
-    	// We have found a valid token or reached the end of file. If there was a match then
-    	// return the token. Otherwise if there is content in the token builder, it's an invalid token.
-    	if (tokenMatched) {
-    		matchedToken = new Token(TokenType.STRING, curTokenBuilder.toString());
-		} else if (curTokenBuilder.length() > 0) {
-			System.out.println(scanner_error_prefix + "Invalid token in file: " + curTokenBuilder.toString());
-			System.exit(1);
-		}
-    	return matchedToken;
     }
     
-    // Match the longest running number.
-    private Token matchNumber() {
-    	Token matchedToken = null;
-    	int readValue = getNextCharValue();
-    	while (readValue != -1) {
-    		char ch = (char) readValue;
-    		
-    		// Any following digits.
-    		if (isDigit(ch)) {
-    			curTokenBuilder.append(ch);
-    		} else {
-    			// We have found the end of the identified token.
-    			// Character for next token.
-				this.nextTokenChar = ch;
-				break;
-    		}
-    		
-    		readValue = getNextCharValue();
-    	}
-    	
-    	// We have found a valid token or reached the end of file. The contents of the builder is
-    	// the longest matched number we have found.
-    	matchedToken = new Token(TokenType.NUMBER, curTokenBuilder.toString());		
-    	return matchedToken;
-	}
-
-	// Matches longest running identifier token or reserve words.
-    private Token matchIdentifierOrReserved() {
-    	Token matchedToken = null;
-    	int readValue = getNextCharValue();
-    	while (readValue != -1) {
-    		char ch = (char) readValue;
-    		
-    		// Any following letter or digits, append.
-    		if (isLetter(ch) || isDigit(ch)) {
-    			curTokenBuilder.append(ch);
-    		} else {
-    			// Character for next token.
-				this.nextTokenChar = ch;
-				break;
+    // Errors a failing action can give, indexes into SCANNER_ERRORS.
+    // The rejected token in the builder is printed after the message.
+    private static final int E_CHAR = 0;
+    private static final int E_TOKEN = 1;
+    private static final int E_SYMBOL = 2;
+    private static final int E_STRING = 3;
+    
+    private static final String[] SCANNER_ERRORS = {"Invalid token in source file ", "Invalid token in source file: ",
+    												"Invalid symbol token in file: ", "Invalid token in file: "};
+    
+    // Action kinds, the high bits of a transition. The low bits are the target,
+    // which is the next state, the accepted token type or the error to show.
+    private static final int MOVE = 0x000;			// append the character and go to the target state
+    private static final int SKIP = 0x100;			// consume the character, stay in the start state
+    private static final int ACCEPT = 0x200;		// accept the token, character is for the next token
+    private static final int ACCEPT_WITH = 0x300;	// append the character and accept the token
+    private static final int ACCEPT_DROP = 0x400;	// consume the character and accept the token
+    private static final int FAIL = 0x500;			// reject the token
+    private static final int FAIL_WITH = 0x600;		// append the character and reject the token
+    private static final int DONE = 0x700;			// end of file between tokens
+    private static final int KIND_MASK = 0xF00;
+    private static final int TARGET_MASK = 0x0FF;
+    
+    // Shorthands for the transition table below.
+    private static final short ID = MOVE | S_IDENT, NUM = MOVE | S_NUMBER, STR = MOVE | S_STRING, 
+    		MET = MOVE | S_META, SLA = MOVE | S_SLASH, ASG = MOVE | S_ASSIGN, BNG = MOVE | S_BANG,
+    		AMP = MOVE | S_AMP, PIP = MOVE | S_PIPE, SKP = SKIP, END = DONE,
+    		aID = ACCEPT | T_IDENTIFIER, aNM = ACCEPT | T_NUMBER, aSY = ACCEPT | T_SYMBOL, aMT = ACCEPT | T_META,
+    		wSY = ACCEPT_WITH | T_SYMBOL, wST = ACCEPT_WITH | T_STRING, dMT = ACCEPT_DROP | T_META,
+    		fTK = FAIL | E_TOKEN, fSY = FAIL | E_SYMBOL, fST = FAIL | E_STRING,
+    		xCH = FAIL_WITH | E_CHAR, xST = FAIL_WITH | E_STRING;
+    
+    // Transition table, one row per state and one column per character class.
+    private static final short[][] TRANSITIONS = {
+    	//				letter	digit	space	newline	"		#		/		single	=		< >		!		&		|		other	eof
+    	/* START */		{ID,	NUM,	SKP,	SKP,	STR,	MET,	SLA,	wSY,	ASG,	ASG,	BNG,	AMP,	PIP,	xCH,	END},
+    	/* IDENT */		{ID,	ID,		aID,	aID,	aID,	aID,	aID,	aID,	aID,	aID,	aID,	aID,	aID,	aID,	aID},
+    	/* NUMBER */	{aNM,	NUM,	aNM,	aNM,	aNM,	aNM,	aNM,	aNM,	aNM,	aNM,	aNM,	aNM,	aNM,	aNM,	aNM},
+    	/* STRING */	{STR,	STR,	STR,	xST,	wST,	STR,	STR,	STR,	STR,	STR,	STR,	STR,	STR,	STR,	fST},
+    	/* META */		{MET,	MET,	MET,	dMT,	MET,	MET,	MET,	MET,	MET,	MET,	MET,	MET,	MET,	MET,	aMT},
+    	/* SLASH */		{aSY,	aSY,	aSY,	aSY,	aSY,	aSY,	MET,	aSY,	aSY,	aSY,	aSY,	aSY,	aSY,	aSY,	aSY},
+    	/* ASSIGN */	{aSY,	aSY,	aSY,	aSY,	aSY,	aSY,	aSY,	aSY,	wSY,	aSY,	aSY,	aSY,	aSY,	aSY,	aSY},
+    	/* BANG */		{fSY,	fSY,	fSY,	fSY,	fSY,	fSY,	fSY,	fSY,	wSY,	fSY,	fSY,	fSY,	fSY,	fSY,	fSY},
+    	/* AMP */		{fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	wSY,	fTK,	fTK,	fTK},
+    	/* PIPE */		{fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	fTK,	wSY,	fTK,	fTK}
+    };
+    
+    // Character class of every ASCII character, anything above is C_OTHER.
+    private static final byte[] CHAR_CLASSES = new byte[128];
+    static {
+    	for (char ch = 0; ch < CHAR_CLASSES.length; ch++) {
+    		int charClass = C_OTHER;
+    		if (isLetter(ch)) {
+    			charClass = C_LETTER;
+    		} else if (isDigit(ch)) {
+    			charClass = C_DIGIT;
+    		} else if (ch == '\n') {
+    			charClass = C_NEWLINE;
+    		} else if (isWhitespace(ch)) {
+    			charClass = C_SPACE;
+    		} else if (ch == '"') {
+    			charClass = C_QUOTE;
+    		} else if (ch == '#') {
+    			charClass = C_HASH;
+    		} else if (ch == '/') {
+    			// Checked before the single character symbols, since it can also start a meta statement.
+    			charClass = C_SLASH;
+    		} else if (isSingleCharSymbol(ch)) {
+    			charClass = C_SINGLE;
+    		} else if (ch == '=') {
+    			charClass = C_EQUAL;
+    		} else if (isAssignOperatorSymbol(ch)) {
+    			charClass = C_ANGLE;
+    		} else if (ch == '!') {
+    			charClass = C_BANG;
+    		} else if (ch == '&') {
+    			charClass = C_AMP;
+    		} else if (ch == '|') {
+    			charClass = C_PIPE;
     		}
-    		
-    		readValue = getNextCharValue();
+    		CHAR_CLASSES[ch] = (byte) charClass;
     	}
-    	
-    	// We have found a valid token or reached the end of file. The contents of the builder
-    	// is the longest matching identifier or a reserved word.
-    	if (isReserved(curTokenBuilder.toString())) {
-    		// It is a reserved word.  		
-			matchedToken = new Token(TokenType.RESERVED_WORD, curTokenBuilder.toString());
-		} else {
-			matchedToken = new Token(TokenType.IDENTIFIER, curTokenBuilder.toString());
-		}
-		
-		return matchedToken;
-    }    	
+    }
     
     // Utility functions.
     public static boolean isLetter(char ch) {
@@ -540,20 +761,115 @@ public class Scanner {
     			(ch == ',') || (ch == ';') || (ch == '+') || (ch == '-') || (ch == '*') || (ch == '/');
     }
     
+    // Creates the token last matched by scanNextTokenInFile. Reserved
+    // words and symbols share the text of their kind.
+    private Token newToken(TokenKind kind) {
+    	if (kind.getText() != null) {
+    		return new Token(kind, kind.getText());
+    	}
+    	if (keepTokenText()) {
+    		return new Token(kind, curTokenBuilder.toString());
+    	}
+    	return new Token(kind, getTokenText(tokenStart, tokenLength));
+    }
+    
     // Wrapper function for reading next char value from stream, so that 
     // don't have to write try/catch block every time a character is read.
+    // Byte input is read straight from the buffer, refilling it from the
+    // channel when the file is read in chunks.
     private int getNextCharValue() {
+    	if (inputBuffer != null) {
+    		if (!inputBuffer.hasRemaining() && !refillInputBuffer()) {
+    			return -1;
+    		}
+    		readOffset++;
+    		return inputBuffer.get() & 0xFF;
+    	}
+    	
     	int readValue = -1;
     	try {
 			readValue = inputReader.read();			
 		} catch (IOException e) {
 			// Error reading the buffer, should not happen.
-			System.out.println(e.getMessage());
-			System.exit(1);
+			throw new ScannerException(e.getMessage(), e);
 		}
+    	if (readValue != -1) {
+    		readOffset++;
+    	}
     	return readValue;
     }
     
+    // Copies the source bytes between the given offsets. The file is either mapped
+    // in one piece, or the bytes are still in the current chunk, or else they are
+    // read again from the file.
+    private void readSourceBytes(long start, int length, byte[] dst) {
+    	if (inputChannel == null) {
+    		for (int i = 0; i < length; i++) {
+    			dst[i] = inputBuffer.get((int) start + i);
+    		}
+    	} else if (start >= chunkStart && start + length <= chunkStart + inputBuffer.limit()) {
+    		int chunkOffset = (int) (start - chunkStart);
+    		for (int i = 0; i < length; i++) {
+    			dst[i] = inputBuffer.get(chunkOffset + i);
+    		}
+    	} else {
+    		try {
+    			ByteBuffer dstBuffer = ByteBuffer.wrap(dst, 0, length);
+    			while (dstBuffer.hasRemaining()) {
+    				if (inputChannel.read(dstBuffer, start + dstBuffer.position()) == -1) {
+    					break;
+    				}
+    			}
+    		} catch (IOException e) {
+    			// Error reading the file, should not happen.
+    			throw new ScannerException(e.getMessage(), e);
+    		}
+    	}
+    }
+    
+    // Reads the next chunk of the file into the input buffer. Returns false
+    // if the whole file has been read or it was mapped in one piece.
+    private boolean refillInputBuffer() {
+    	if (inputChannel == null) {
+    		return false;
+    	}
+    	
+    	try {
+    		// The channel is kept open after the end of file, token text can be read again from it.
+    		chunkStart += inputBuffer.limit();
+    		inputBuffer.clear();
+    		int readCount = 0;
+    		while (readCount == 0) {
+    			readCount = inputChannel.read(inputBuffer);
+    		}
+    		inputBuffer.flip();
+    		
+    		if (readCount == -1) {
+    			// Reached end of file.
+    			return false;
+    		}
+    	} catch (IOException e) {
+    		// Error reading the file, should not happen.
+    		throw new ScannerException(e.getMessage(), e);
+    	}
+    	return true;
+    }
+    
+    // Closes the source file. The mapped input needs nothing, its channel was closed after mapping.
+    public void close() throws IOException {
+    	if (inputChannel != null) {
+    		inputChannel.close();
+    	}
+    	if (inputReader != null) {
+    		inputReader.close();
+    	}
+    }
+    
+    // Number of bytes read so far, after an error it is the end of the rejected text.
+    public long getReadOffset() {
+    	return readOffset;
+    }
+
     // Utility function to give the generated file name.
     public static String getResultFilename(String filename) {
     	File srcFile = new File(filename);
@@ -575,18 +891,90 @@ public class Scanner {
     private static final String[] reservedWords = {"int", "void", "if", "while", "return", "read", 
 													"write", "print", "continue", "break", "binary", "decimal"};
     
-    // Utility function to check if an identifier is a reserved word.
-    private boolean isReserved(String tokenString) {
+    // Shortest and longest reserved word, no other identifier needs to be checked.
+    private static final int MIN_RESERVED_LENGTH = 2;
+    private static final int MAX_RESERVED_LENGTH = 8;
+    
+    // Reserved words as bytes, for comparing with the source directly, and their token kinds.
+    private static final byte[][] reservedWordBytes = new byte[reservedWords.length][];
+    private static final TokenKind[] reservedWordKinds = new TokenKind[reservedWords.length];
+    static {
     	for (int i = 0; i < reservedWords.length; i++) {
-			if (tokenString.equals(reservedWords[i])) {
-				return true;
-			}
-		}
-    	return false;
+    		reservedWordBytes[i] = reservedWords[i].getBytes(StandardCharsets.US_ASCII);
+    		reservedWordKinds[i] = TokenKind.forToken(TokenType.RESERVED_WORD, reservedWords[i]);
+    	}
     }
     
+    // Gives the index of the reserved word in reservedWords, or -1 if the identifier
+    // is not one. The length and at most two bytes pick the only possible reserved
+    // word, which is then compared byte by byte. No two reserved words share the
+    // length and first byte, except while and write.
+    private static int reservedWordIndex(byte[] word, int length) {
+    	int candidate;
+    	switch (length) {
+    	case 2:
+    		candidate = 2;									// if
+    		break;
+    	case 3:
+    		candidate = 0;									// int
+    		break;
+    	case 4:
+    		candidate = (word[0] == 'v') ? 1 : 5;			// void, read
+    		break;
+    	case 5:
+    		switch (word[0]) {
+    		case 'w':
+    			candidate = (word[1] == 'h') ? 3 : 6;		// while, write
+    			break;
+    		case 'p':
+    			candidate = 7;								// print
+    			break;
+    		default:
+    			candidate = 9;								// break
+    			break;
+    		}
+    		break;
+    	case 6:
+    		candidate = (word[0] == 'r') ? 4 : 10;			// return, binary
+    		break;
+    	case 7:
+    		candidate = 11;									// decimal
+    		break;
+    	case 8:
+    		candidate = 8;									// continue
+    		break;
+    	default:
+    		return -1;
+    	}
+    	
+    	byte[] reservedWord = reservedWordBytes[candidate];
+    	for (int i = 0; i < length; i++) {
+    		if (word[i] != reservedWord[i]) {
+    			return -1;
+    		}
+    	}
+    	return candidate;
+    }
+    
+    // Largest file that is mapped in one piece and the chunk size used beyond that.
+    private static final long MAX_MAPPED_SIZE = Integer.MAX_VALUE;
+    private static final int INPUT_CHUNK_SIZE = 1 << 20;
+    
     private BufferedReader inputReader;
+    private ByteBuffer inputBuffer;
+    private FileChannel inputChannel;
 	private StringBuilder curTokenBuilder;
-	private char nextTokenChar;
+	private int nextTokenChar;
 	private Token nextToken;
+	
+	// Offset of the next character to be read, and the offsets of the last token scanned.
+	private long readOffset;
+	private long tokenStart;
+	private int tokenLength;
+	
+	// Offset of the current chunk in the file, when it is read in chunks.
+	private long chunkStart;
+	
+	// First bytes of the token, for telling reserved words and symbols apart.
+	private byte[] tokenScratch;
 }
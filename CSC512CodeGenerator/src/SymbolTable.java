@@ -0,0 +1,212 @@
+import java.util.Arrays;
+
+
+/**
+ * Owner: ShaownS
+ * File: SymbolTable.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * One scope of symbols for the code generator, the parser keeps one for the globals
+ * and one for the locals of the current function. Every symbol gets the next slot
+ * in the global[] or local[] array of the generated code.
+ *
+ * Names are found through an open addressing hash index from name to slot, so a
+ * lookup does not depend on the number of symbols in the scope. An array takes a
+ * range of slots but is kept as a single record of its base slot and length, so
+ * declaring an array costs the same whatever its length.
+ */
+public class SymbolTable {
+
+	// Initial capacity of the hash indexes, must be a power of two.
+	private static final int INITIAL_INDEX_CAPACITY = 16;
+
+	// Number of slots used, including the slots of arrays.
+	private int size;
+
+	// Named symbols, in slot order, with the slot of each. Array elements have no entry.
+	private String[] names;
+	private int[] nameSlots;
+	private int nameCount;
+
+	// Hash index of the names, holds name + 1 and 0 for an empty entry.
+	private int[] nameIndex;
+
+	// Array records, the name, first slot and length of each declared array.
+	private String[] arrayNames;
+	private int[] arrayBases;
+	private int[] arrayLengths;
+	private int arrayCount;
+
+	// Hash index of the array names, holds record + 1 and 0 for an empty entry.
+	private int[] arrayIndex;
+
+	public SymbolTable() {
+		this.size = 0;
+		this.names = new String[INITIAL_INDEX_CAPACITY];
+		this.nameSlots = new int[INITIAL_INDEX_CAPACITY];
+		this.nameCount = 0;
+		this.nameIndex = new int[INITIAL_INDEX_CAPACITY];
+
+		this.arrayNames = new String[INITIAL_INDEX_CAPACITY];
+		this.arrayBases = new int[INITIAL_INDEX_CAPACITY];
+		this.arrayLengths = new int[INITIAL_INDEX_CAPACITY];
+		this.arrayCount = 0;
+		this.arrayIndex = new int[INITIAL_INDEX_CAPACITY];
+	}
+
+	// Number of slots used in this scope.
+	public int size() {
+		return size;
+	}
+
+	// Name of the symbol in the slot, null for a slot of an array.
+	public String getName(int slot) {
+		// Slots are given out in increasing order, so the names are sorted by slot.
+		int i = Arrays.binarySearch(nameSlots, 0, nameCount, slot);
+		return i < 0 ? null : names[i];
+	}
+
+	// Adds the symbol (identifier or expression) to the next slot and returns the slot.
+	// A name already in the scope keeps resolving to its first slot.
+	public int add(String name) {
+		if (nameCount == names.length) {
+			int capacity = nameCount * 2;
+			names = Arrays.copyOf(names, capacity);
+			nameSlots = Arrays.copyOf(nameSlots, capacity);
+		}
+		int slot = size++;
+		int n = nameCount++;
+		names[n] = name;
+		nameSlots[n] = slot;
+
+		if (findName(name) == -1) {
+			if (2 * nameCount > nameIndex.length) {
+				nameIndex = rehash(nameIndex, names);
+			}
+			insert(nameIndex, names, n);
+		}
+		return slot;
+	}
+
+	// Adds a slot without a name, for a temporary, and returns it.
+	public int addSlot() {
+		return size++;
+	}
+	
+	// Slot of the symbol with this name, -1 if it is not in this scope.
+	public int find(String name) {
+		int n = findName(name);
+		return n == -1 ? -1 : nameSlots[n];
+	}
+
+	// Adds an array of the given length and returns the base slot. The elements
+	// take the next length slots, but only the array record is stored.
+	public int addArray(String name, int length) {
+		int base = size;
+		if (length > 0) {
+			size += length;
+		}
+
+		// An empty array has no element to point to, leave it unrecorded.
+		if (length > 0 && findArrayRecord(name) == -1) {
+			if (arrayCount == arrayNames.length) {
+				int capacity = arrayCount * 2;
+				arrayNames = Arrays.copyOf(arrayNames, capacity);
+				arrayBases = Arrays.copyOf(arrayBases, capacity);
+				arrayLengths = Arrays.copyOf(arrayLengths, capacity);
+			}
+			int record = arrayCount++;
+			arrayNames[record] = name;
+			arrayBases[record] = base;
+			arrayLengths[record] = length;
+
+			if (2 * arrayCount > arrayIndex.length) {
+				arrayIndex = rehash(arrayIndex, arrayNames);
+			}
+			insert(arrayIndex, arrayNames, record);
+		}
+		return base;
+	}
+
+	// Base slot of the array with this name, -1 if it is not in this scope.
+	public int findArray(String name) {
+		int record = findArrayRecord(name);
+		return record == -1 ? -1 : arrayBases[record];
+	}
+
+	// The slots of the names and the array records, which is all that code using the scope depends on.
+	public String getLayout() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(size);
+		for (int i = 0; i < nameCount; i++) {
+			sb.append(' ').append(names[i]).append('=').append(nameSlots[i]);
+		}
+		for (int i = 0; i < arrayCount; i++) {
+			sb.append(' ').append(arrayNames[i]).append('[').append(arrayBases[i]).append(':').append(arrayLengths[i]).append(']');
+		}
+		return sb.toString();
+	}
+
+	// Removes all the symbols, used when we go out of a function scope.
+	public void clear() {
+		size = 0;
+		if (nameCount > 0) {
+			Arrays.fill(names, 0, nameCount, null);
+			Arrays.fill(nameIndex, 0);
+			nameCount = 0;
+		}
+		if (arrayCount > 0) {
+			Arrays.fill(arrayNames, 0, arrayCount, null);
+			Arrays.fill(arrayIndex, 0);
+			arrayCount = 0;
+		}
+	}
+
+	private int findName(String name) {
+		int entry = nameIndex[probe(nameIndex, names, name)];
+		return entry - 1;
+	}
+
+	private int findArrayRecord(String name) {
+		int entry = arrayIndex[probe(arrayIndex, arrayNames, name)];
+		return entry - 1;
+	}
+
+	// Position of the name in the index, or of the empty entry where it would go.
+	// Linear probing, the index is never more than half full so this always ends.
+	private static int probe(int[] index, String[] keys, String name) {
+		int mask = index.length - 1;
+		int i = mix(name.hashCode()) & mask;
+		while (index[i] != 0 && !keys[index[i] - 1].equals(name)) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	private static void insert(int[] index, String[] keys, int key) {
+		index[probe(index, keys, keys[key])] = key + 1;
+	}
+
+	// Double the index and put the indexed keys back in.
+	private static int[] rehash(int[] index, String[] keys) {
+		int[] larger = new int[index.length * 2];
+		for (int i = 0; i < index.length; i++) {
+			if (index[i] != 0) {
+				insert(larger, keys, index[i] - 1);
+			}
+		}
+		return larger;
+	}
+
+	// Spread the string hash so that similar names do not cluster in the index.
+	private static int mix(int h) {
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		return h;
+	}
+}
@@ -0,0 +1,195 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Owner: ShaownS
+ * File: RandomProgram.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Random programs that the code generator accepts and that are also C with one meaning,
+ * so the output of the generated code can be checked against gcc on the program itself.
+ *
+ * Every program has a few globals, functions f0.. that each take one int and call only the
+ * ones before them, and main. The functions change the globals and write, and the
+ * statements are assignments to locals, globals and array elements, writes, ifs, while
+ * loops with a counter, break, continue and returns. Conditions can have && and ||.
+ *
+ * C does not say in which order the operands of an operator are evaluated, so an
+ * expression or condition with a call has only that one call and reads no globals. The
+ * call can be on the right of && or ||, where it only runs when the left does not decide.
+ * The loops count up to at most 5 and nothing divides, so every program ends the same way.
+ */
+public class RandomProgram {
+
+	private static final int FUNCTION_COUNT = 4;
+	private static final String[] CONDITION_OPERATORS = { "<", ">", "==", "!=", "<=", ">=" };
+	private static final String[] INDEXES = { "0", "1", "7", "3 - 2" };
+
+	private Random random;
+	private StringBuilder sb;
+
+	// Functions written so far, and the loop counters of the one being written.
+	private int functions;
+	private List<String> counters;
+	private int counterCount;
+
+	// Calls still allowed in the expression being written, and whether it can read globals.
+	private int callsLeft;
+	private boolean readsGlobals;
+
+	private RandomProgram(long seed) {
+		this.random = new Random(seed);
+		this.sb = new StringBuilder();
+	}
+
+	// The program for the seed, always the same for the same seed.
+	public static String generate(long seed) {
+		RandomProgram program = new RandomProgram(seed);
+		program.program();
+		return program.sb.toString();
+	}
+
+	private void program() {
+		sb.append("#include <stdio.h>\n");
+		sb.append("#define write(x) printf(\"%d\\n\", x)\n");
+		sb.append("int g0, g1, ga[8];\n");
+		for (functions = 0; functions <= FUNCTION_COUNT; functions++) {
+			boolean isMain = functions == FUNCTION_COUNT;
+			counters = new ArrayList<String>();
+			StringBuilder body = new StringBuilder();
+			StringBuilder header = sb;
+			sb = body;
+			statements(3, 1, false);
+			sb = header;
+
+			sb.append(isMain ? "int main(void) {\n" : "int f" + functions + "(int x) {\n");
+			sb.append("\tint y, z, a[8]");
+			for (String counter : counters) {
+				sb.append(", ").append(counter);
+			}
+			sb.append(";\n\ty = 1;\n\tz = 2;\n\ta[0] = 0;\n\ta[1] = 1;\n\ta[7] = 3;\n");
+			sb.append(body);
+			sb.append("\twrite(y + z + g0 + g1);\n");
+			sb.append(isMain ? "\treturn 0;\n" : "\treturn y - z;\n");
+			sb.append("}\n");
+		}
+	}
+
+	private void statements(int depth, int indent, boolean inLoop) {
+		int count = 1 + random.nextInt(4);
+		for (int i = 0; i < count; i++) {
+			statement(depth, indent, inLoop);
+		}
+	}
+
+	private void statement(int depth, int indent, boolean inLoop) {
+		double r = random.nextDouble();
+		if (r < 0.4 || depth <= 0) {
+			startExpression();
+			String target = pick(variables(readsGlobals ? new String[] { "g0", "g1", "ga[" + pick(INDEXES) + "]" } : new String[0]));
+			line(indent, target + " = " + expression(3) + ";");
+		} else if (r < 0.55) {
+			startExpression();
+			line(indent, "write(" + expression(3) + ");");
+		} else if (r < 0.7) {
+			line(indent, "if (" + condition() + ") {");
+			statements(depth - 1, indent + 1, inLoop);
+			line(indent, "}");
+		} else if (r < 0.85) {
+			String k = "k" + (++counterCount);
+			counters.add(k);
+			line(indent, k + " = 0;");
+			line(indent, "while (" + k + " < " + (1 + random.nextInt(5)) + ") {");
+			line(indent + 1, k + " = " + k + " + 1;");
+			statements(depth - 1, indent + 1, true);
+			line(indent, "}");
+		} else if (inLoop && r < 0.9) {
+			line(indent, "if (" + condition() + ") {");
+			line(indent + 1, random.nextBoolean() ? "break;" : "continue;");
+			line(indent, "}");
+		} else {
+			line(indent, "if (" + condition() + ") {");
+			startExpression();
+			line(indent + 1, "return " + expression(2) + ";");
+			line(indent, "}");
+		}
+	}
+
+	// One comparison, or two joined by && or ||, with at most one call in all of it.
+	private String condition() {
+		startExpression();
+		String condition = expression(2) + " " + pick(CONDITION_OPERATORS) + " " + expression(2);
+		if (random.nextDouble() < 0.4) {
+			condition += (random.nextBoolean() ? " && " : " || ") + expression(1) + " " + pick(CONDITION_OPERATORS)
+					+ " " + expression(1);
+		}
+		return condition;
+	}
+
+	// Either one call and no globals in the expression, or globals and no call.
+	private void startExpression() {
+		boolean call = functions > 0 && random.nextDouble() < 0.35;
+		callsLeft = call ? 1 : 0;
+		readsGlobals = !call;
+	}
+
+	private String expression(int depth) {
+		double r = random.nextDouble();
+		if (depth <= 0 || r < 0.3) {
+			double c = random.nextDouble();
+			if (c < 0.45 || (!readsGlobals && c >= 0.75)) {
+				return pick(variables(new String[0]));
+			} else if (c < 0.6) {
+				return Integer.toString(random.nextInt(10));
+			} else if (c < 0.75) {
+				return "a[" + pick(INDEXES) + "]";
+			} else if (c < 0.87) {
+				return "ga[" + pick(INDEXES) + "]";
+			}
+			return random.nextBoolean() ? "g0" : "g1";
+		}
+		if (r < 0.45 && callsLeft > 0) {
+			callsLeft--;
+			return "f" + random.nextInt(functions) + "(" + expression(depth - 1) + ")";
+		}
+		if (r < 0.55) {
+			return "(" + expression(depth - 1) + ")";
+		}
+		if (r < 0.6) {
+			return "-" + random.nextInt(10);
+		}
+		return expression(depth - 1) + " " + "+-*".charAt(random.nextInt(3)) + " " + expression(depth - 1);
+	}
+
+	// The locals of the function and the names given.
+	private String[] variables(String[] more) {
+		boolean isMain = functions == FUNCTION_COUNT;
+		List<String> names = new ArrayList<String>();
+		if (!isMain) {
+			names.add("x");
+		}
+		names.add("y");
+		names.add("z");
+		for (String name : more) {
+			names.add(name);
+		}
+		return names.toArray(new String[names.size()]);
+	}
+
+	private String pick(String[] choices) {
+		return choices[random.nextInt(choices.length)];
+	}
+
+	private void line(int indent, String text) {
+		for (int i = 0; i < indent; i++) {
+			sb.append('\t');
+		}
+		sb.append(text).append('\n');
+	}
+}
@@ -0,0 +1,300 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+
+/**
+ * Owner: ShaownS
+ * File: RegressionTests.java
+ * Package:
+ * Project: CSC512CodeGenerator
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Checks the code generator against the cases in a directory, and against gcc on random
+ * programs. Compile it with the sources and run it from the CSC512CodeGenerator directory:
+ *
+ * % javac -d classes src/*.java test/*.java
+ * % java -cp classes RegressionTests [-random N] [test/cases]
+ *
+ * A case is name.c with what the generator should give for it: the code in name_gen.c,
+ * or no code when it fails, and the messages in name.msg, or none. The case is generated
+ * on one thread and on two, which must print the same messages. When gcc is on the path
+ * and there is a name.out, the code from both is compiled and run, with name.in as the
+ * input if there is one, and must write name.out.
+ *
+ * Then a file is changed with a list of edits in IncrementalParser, and after each edit
+ * its code and messages must be the same as generating the edited file with -threads 2.
+ *
+ * -random N also generates N random programs (RandomProgram) and runs the code of each,
+ * on one thread and on two, against gcc on the program itself.
+ *
+ * Prints each check that fails and exits with 1 if any did. The files of the failed checks
+ * are kept in a temporary directory, which is printed.
+ */
+public class RegressionTests {
+
+	private static final String GCC = "gcc";
+
+	// The file of the incremental parser, and the edits made to it one after the other: the
+	// text replaced, the first place it is found, and the new text.
+	private static final String INCREMENTAL_SOURCE = "int a;\nint f() { a = 1; }\nint g() { a = 2; }\n";
+	private static final String[][] INCREMENTAL_EDITS = {
+		// The last function is not closed, then closed again.
+		{ "2; }\n", "2; \n" },
+		{ "2; \n", "2; }\n" },
+		// An extra brace or parenthesis before its partner is typed.
+		{ "a = 2", "{ a = 2" },
+		{ "{ a = 2", "a = 2" },
+		{ "a = 1", "a = (1" },
+		{ "a = (1", "a = 1" },
+		// The header of the first function becomes a global declaration and a new function.
+		{ "() { a = 1; }", "; int h() { a = 1; }" },
+		{ "; int h() {", "() { a = 3; }\nint h() {" },
+		// The globals go.
+		{ "int a;\n", "" },
+	};
+
+	private File work;
+	private boolean hasGcc;
+	private int checks;
+	private int failures;
+
+	public RegressionTests() throws IOException {
+		this.work = Files.createTempDirectory("csc512-tests").toFile();
+		this.hasGcc = findGcc();
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int randomCount = 0;
+		String casesDir = "test" + File.separator + "cases";
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-random") && i + 1 < args.length) {
+				randomCount = Integer.parseInt(args[++i]);
+			} else {
+				casesDir = args[i];
+			}
+		}
+
+		RegressionTests tests = new RegressionTests();
+		if (!tests.hasGcc) {
+			System.out.println("gcc was not found, the generated code is not run.");
+		}
+		tests.runCases(new File(casesDir));
+		tests.runIncremental();
+		tests.runRandom(randomCount);
+
+		System.out.println(tests.checks + " checks, " + tests.failures + " failed.");
+		if (tests.failures > 0) {
+			System.out.println("The files are in " + tests.work.getPath());
+			System.exit(1);
+		}
+		deleteAll(tests.work);
+	}
+
+	public void runCases(File dir) throws IOException, InterruptedException {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			throw new IOException("No cases in " + dir.getPath());
+		}
+		Arrays.sort(files);
+		for (File file : files) {
+			String name = file.getName();
+			if (name.endsWith(".c") && !name.endsWith("_gen.c")) {
+				runCase(dir, name.substring(0, name.length() - 2));
+			}
+		}
+	}
+
+	private void runCase(File dir, String name) throws IOException, InterruptedException {
+		File source = new File(dir, name + ".c");
+		File expectedCode = new File(dir, name + "_gen.c");
+		File expectedMessages = new File(dir, name + ".msg");
+		File expectedOutput = new File(dir, name + ".out");
+		File input = new File(dir, name + ".in");
+
+		File code = new File(work, name + "_gen.c");
+		String messages = generate(source, 1, code);
+		check(name + ": messages", readText(expectedMessages), messages);
+		check(name + ": code", readText(expectedCode), readText(code));
+
+		File threadsCode = new File(work, name + "_threads_gen.c");
+		String threadsMessages = generate(source, 2, threadsCode);
+		check(name + ": messages with -threads 2", messages, threadsMessages);
+		check(name + ": code with -threads 2", Boolean.toString(code.exists()), Boolean.toString(threadsCode.exists()));
+
+		if (hasGcc && expectedOutput.exists() && code.exists()) {
+			String expected = readText(expectedOutput);
+			check(name + ": output", expected, compileAndRun(code, input.exists() ? input : null));
+			check(name + ": output with -threads 2", expected, compileAndRun(threadsCode, input.exists() ? input : null));
+		}
+	}
+
+	public void runIncremental() throws IOException {
+		File source = new File(work, "incremental.c");
+		Files.write(source.toPath(), INCREMENTAL_SOURCE.getBytes(StandardCharsets.UTF_8));
+		File code = new File(work, "incremental_gen.c");
+		code.delete();
+		IncrementalParser parser = new IncrementalParser(source.getPath(), code);
+
+		String text = INCREMENTAL_SOURCE;
+		File edited = new File(work, "edited.c");
+		File editedCode = new File(work, "edited_gen.c");
+		for (String[] edit : INCREMENTAL_EDITS) {
+			int offset = text.indexOf(edit[0]);
+			String name = "incremental edit of \"" + edit[0].replace("\n", "\\n") + "\"";
+			if (offset == -1) {
+				check(name + ": text found", edit[0], text);
+				return;
+			}
+			try {
+				parser.edit(offset, edit[0].length(), edit[1].getBytes(StandardCharsets.UTF_8));
+			} catch (RuntimeException e) {
+				check(name + ": edit", "", e.toString());
+				return;
+			}
+			text = text.substring(0, offset) + edit[1] + text.substring(offset + edit[0].length());
+
+			ByteArrayOutputStream messages = new ByteArrayOutputStream();
+			PrintStream log = new PrintStream(messages, true);
+			code.delete();
+			parser.write(log);
+			Files.write(edited.toPath(), text.getBytes(StandardCharsets.UTF_8));
+			check(name + ": messages", generate(edited, 2, editedCode), normalize(messages.toString()));
+			check(name + ": code", readText(editedCode), readText(code));
+		}
+	}
+
+	// Runs the code of random programs against gcc on the programs.
+	public void runRandom(int count) throws IOException, InterruptedException {
+		if (count > 0 && !hasGcc) {
+			System.out.println("The random programs need gcc.");
+			return;
+		}
+		for (int seed = 1; seed <= count; seed++) {
+			String name = "random" + seed;
+			File source = new File(work, name + ".c");
+			Files.write(source.toPath(), RandomProgram.generate(seed).getBytes(StandardCharsets.UTF_8));
+			String expected = compileAndRun(source, null);
+
+			File code = new File(work, name + "_gen.c");
+			check(name + ": messages", "", generate(source, 1, code));
+			check(name + ": output", expected, compileAndRun(code, null));
+			File threadsCode = new File(work, name + "_threads_gen.c");
+			check(name + ": messages with -threads 2", "", generate(source, 2, threadsCode));
+			check(name + ": output with -threads 2", expected, compileAndRun(threadsCode, null));
+		}
+	}
+
+	// Generates the code of the source into the output file, returns the messages.
+	private String generate(File source, int threads, File output) throws IOException {
+		ByteArrayOutputStream messages = new ByteArrayOutputStream();
+		PrintStream log = new PrintStream(messages, true);
+		output.delete();
+		try {
+			Parser parser = new Parser(source.getPath(), output, log);
+			parser.setThreads(threads);
+			parser.program();
+		} catch (Scanner.ScannerException | Parser.GenerationException e) {
+			log.println(e.getMessage());
+		}
+		log.flush();
+		return normalize(messages.toString());
+	}
+
+	// Compiles the C file with gcc and runs it, returns what it writes or why it could not run.
+	private String compileAndRun(File c, File input) throws IOException, InterruptedException {
+		File program = new File(work, c.getName() + ".exe");
+		ProcessBuilder gcc = new ProcessBuilder(GCC, "-w", "-fwrapv", "-o", program.getPath(), c.getPath());
+		gcc.redirectErrorStream(true);
+		Process compile = gcc.start();
+		String errors = readAll(compile.getInputStream());
+		if (compile.waitFor() != 0) {
+			return "gcc failed:" + System.lineSeparator() + errors;
+		}
+
+		ProcessBuilder run = new ProcessBuilder(program.getPath());
+		run.redirectErrorStream(true);
+		if (input != null) {
+			run.redirectInput(input);
+		}
+		Process process = run.start();
+		String output = readAll(process.getInputStream());
+		process.waitFor();
+		return normalize(output);
+	}
+
+	private void check(String what, String expected, String actual) {
+		checks++;
+		if (!expected.equals(actual)) {
+			failures++;
+			// Show the first line that differs.
+			String[] expectedLines = expected.split("\n", -1);
+			String[] actualLines = actual.split("\n", -1);
+			int line = 0;
+			while (line < expectedLines.length && line < actualLines.length && expectedLines[line].equals(actualLines[line])) {
+				line++;
+			}
+			System.out.println("FAIL " + what + ", line " + (line + 1));
+			System.out.println("  expected: " + ((line < expectedLines.length) ? expectedLines[line] : "(end)"));
+			System.out.println("  actual:   " + ((line < actualLines.length) ? actualLines[line] : "(end)"));
+		}
+	}
+
+	private static boolean findGcc() {
+		try {
+			Process process = new ProcessBuilder(GCC, "--version").redirectErrorStream(true).start();
+			readAll(process.getInputStream());
+			return process.waitFor() == 0;
+		} catch (IOException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	// The text of the file with \n line ends, empty if there is no such file.
+	private static String readText(File file) throws IOException {
+		if (!file.exists()) {
+			return "";
+		}
+		return normalize(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+	}
+
+	private static String readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		copy(in, bytes);
+		in.close();
+		return bytes.toString("UTF-8");
+	}
+
+	private static void copy(InputStream in, OutputStream out) throws IOException {
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = in.read(buffer)) != -1) {
+			out.write(buffer, 0, n);
+		}
+	}
+
+	private static String normalize(String text) {
+		return text.replace("\r\n", "\n");
+	}
+
+	private static void deleteAll(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				deleteAll(child);
+			}
+		}
+		file.delete();
+	}
+}
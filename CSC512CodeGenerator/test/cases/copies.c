@@ -0,0 +1,29 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int g, ga[4];
+int add(int x, int y) {
+	return x + y;
+}
+int main(void) {
+	int a, b, c, arr[4];
+	a = 6;
+	b = a;
+	c = a + b;
+	g = c;
+	ga[2] = g * 2;
+	arr[1] = ga[2];
+	a = arr[1] - 1;
+	write(a);
+	write(b);
+	write(c);
+	write(add(3, 4));
+	write(add(a, c));
+	b = add(add(1, 2), b);
+	write(b);
+	ga[add(1, 0)] = add(a, 5);
+	write(ga[1]);
+	c = 9;
+	c = c;
+	write(c);
+	return add(g, -1) - 11;
+}
@@ -0,0 +1,52 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int global[5];
+int add ( int x, int y )
+{
+int local[3];
+local[0] = x;
+local[1] = y;
+local[2] = local[0] + local[1];
+return local[2];
+}
+
+int main ( void )
+{
+int local[9];
+local[0] = 6;
+local[1] = local[0];
+local[2] = local[0] + local[1];
+global[0] = local[2];
+local[7] = global[0] * 2;
+local[8] = 1 + 2;
+global[local[8]] = local[7];
+local[8] = global[local[8]];
+local[7] = 3 + 1;
+local[local[7]] = local[8];
+local[7] = local[local[7]];
+local[0] = local[7] - 1;
+write ( local[0] );
+write ( local[1] );
+write ( local[2] );
+local[7] = add ( 3, 4 ) ;
+write ( local[7] );
+local[7] = add ( local[0], local[2] ) ;
+write ( local[7] );
+local[7] = add ( 1, 2 ) ;
+local[1] = add ( local[7], local[1] ) ;
+write ( local[1] );
+local[7] = add ( 1, 0 ) ;
+local[8] = add ( local[0], 5 ) ;
+local[7] = 1 + local[7];
+global[local[7]] = local[8];
+local[7] = 1 + 1;
+local[7] = global[local[7]];
+write ( local[7] );
+local[2] = 9;
+local[2] = local[2];
+write ( local[2] );
+local[7] = add ( global[0], -1 ) ;
+local[7] = local[7] - 11;
+return local[7];
+}
+
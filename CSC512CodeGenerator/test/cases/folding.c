@@ -0,0 +1,30 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int g, big;
+int set(int v) {
+	g = v;
+	return v;
+}
+int main(void) {
+	int a, b, c;
+	a = 2 + 3 * 4;
+	write(a);
+	b = (10 - 4) / 3 - 7;
+	write(b);
+	c = a * 1 + 0 + b - 0;
+	write(c);
+	c = a / 1 * (b * 0 + 1);
+	write(c);
+	c = 017 + 010 * 2;
+	write(c);
+	c = 8 / (4 - 4 + 2) + -3 * 5;
+	write(c);
+	big = 2147483647;
+	c = big - 2147483647 + 46340 * 46340 - 2147395600;
+	write(c);
+	g = 5;
+	c = set(9) * 1 + 0;
+	write(c + g * 0);
+	write(g + 0);
+	return 0;
+}
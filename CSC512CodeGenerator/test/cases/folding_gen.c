@@ -0,0 +1,40 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int global[2];
+int set ( int v )
+{
+int local[1];
+local[0] = v;
+global[0] = local[0];
+return local[0];
+}
+
+int main ( void )
+{
+int local[4];
+local[0] = 14;
+write ( local[0] );
+local[1] = -5;
+write ( local[1] );
+local[2] = local[0] + local[1];
+write ( local[2] );
+local[2] = local[0];
+write ( local[2] );
+local[3] = 010 * 2;
+local[2] = 017 + local[3];
+write ( local[2] );
+local[2] = -11;
+write ( local[2] );
+global[1] = 2147483647;
+local[3] = global[1] - 2147483647;
+local[3] = local[3] + 2147395600;
+local[2] = local[3] - 2147395600;
+write ( local[2] );
+global[0] = 5;
+local[2] = set ( 9 ) ;
+write ( local[2] );
+local[3] = global[0] + 0;
+write ( local[3] );
+return 0;
+}
+
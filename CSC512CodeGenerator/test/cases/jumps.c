@@ -0,0 +1,57 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int count;
+int main(void) {
+	int i, j, k, s;
+	i = 0;
+	s = 0;
+	while (i < 6) {
+		i = i + 1;
+		if (i < 3) {
+			if (i == 1) {
+				continue;
+			}
+			s = s + 100;
+		}
+		j = 0;
+		while (j < i) {
+			j = j + 1;
+			if (j == 2) {
+				continue;
+			}
+			if (j > 4) {
+				break;
+			}
+			k = 0;
+			while (k < 2) {
+				k = k + 1;
+				if (k == j) {
+					break;
+				}
+				s = s + k;
+			}
+			s = s + j;
+		}
+		if (i == 5) {
+			break;
+		}
+	}
+	write(s);
+	if (i < 5) {
+		write(1);
+	}
+	if (i != 5) {
+		write(2);
+	}
+	if (i == 5 || s > 1000) {
+		write(3);
+	}
+	while (count < 3) {
+		count = count + 1;
+		if (count == 2) {
+			write(count);
+		}
+	}
+	write(count);
+	return 0;
+}
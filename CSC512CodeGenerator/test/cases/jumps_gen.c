@@ -0,0 +1,72 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int global[1];
+int main ( void )
+{
+int local[5];
+local[0] = 0;
+local[3] = 0;
+c1: ;
+local[4] = ( local[0] >= 6 );
+if ( local[4] ) goto c3;
+local[0] = local[0] + 1;
+local[4] = ( local[0] >= 3 );
+if ( local[4] ) goto c5;
+local[4] = ( local[0] == 1 );
+if ( local[4] ) goto c1;
+local[3] = local[3] + 100;
+c5: ;
+local[1] = 0;
+c8: ;
+local[4] = ( local[1] >= local[0] );
+if ( local[4] ) goto c10;
+local[1] = local[1] + 1;
+local[4] = ( local[1] == 2 );
+if ( local[4] ) goto c8;
+local[4] = ( local[1] > 4 );
+if ( local[4] ) goto c10;
+local[2] = 0;
+c15: ;
+local[4] = ( local[2] >= 2 );
+if ( local[4] ) goto c17;
+local[2] = local[2] + 1;
+local[4] = ( local[2] == local[1] );
+if ( local[4] ) goto c17;
+local[3] = local[3] + local[2];
+goto c15;
+c17: ;
+local[3] = local[3] + local[1];
+goto c8;
+c10: ;
+local[4] = ( local[0] != 5 );
+if ( local[4] ) goto c1;
+c3: ;
+write ( local[3] );
+local[4] = ( local[0] >= 5 );
+if ( local[4] ) goto c23;
+write ( 1 );
+c23: ;
+local[4] = ( local[0] == 5 );
+if ( local[4] ) goto c25;
+write ( 2 );
+c25: ;
+local[4] = ( local[0] == 5 );
+if ( local[4] ) goto c26;
+local[4] = ( local[3] <= 1000 );
+if ( local[4] ) goto c27;
+c26: ;
+write ( 3 );
+c27: ;
+c29: ;
+local[4] = ( global[0] >= 3 );
+if ( local[4] ) goto c31;
+global[0] = global[0] + 1;
+local[4] = ( global[0] != 2 );
+if ( local[4] ) goto c29;
+write ( global[0] );
+goto c29;
+c31: ;
+write ( global[0] );
+return 0;
+}
+
@@ -0,0 +1,48 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int total, hist[10];
+int fib(int n) {
+	if (n < 2) {
+		return n;
+	}
+	return fib(n - 1) + fib(n - 2);
+}
+int main(void) {
+	int i, j, s;
+	i = 0;
+	s = 0;
+	while (i < 10) {
+		i = i + 1;
+		if (i == 3) {
+			continue;
+		}
+		if (i > 8) {
+			break;
+		}
+		j = 0;
+		while (j < i) {
+			j = j + 1;
+			if (j * j > i) {
+				s = s + j * 2;
+				continue;
+			}
+			s = s + (i + j) * (i + j);
+		}
+		hist[i] = s;
+	}
+	write(s);
+	write(hist[7] - hist[4]);
+	i = 0;
+	while (i < 5) {
+		while (1 < 2) {
+			i = i + 1;
+			if (i - i * 0 < 3) {
+				write(i * 10 + 1);
+			}
+			break;
+		}
+		total = total + fib(i);
+	}
+	write(total);
+	return 0;
+}
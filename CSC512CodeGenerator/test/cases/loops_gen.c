@@ -0,0 +1,81 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int global[11];
+int fib ( int n )
+{
+int local[3];
+local[0] = n;
+local[1] = ( local[0] >= 2 );
+if ( local[1] ) goto c2;
+return local[0];
+c2: ;
+local[1] = local[0] - 1;
+local[1] = fib ( local[1] ) ;
+local[2] = local[0] - 2;
+local[2] = fib ( local[2] ) ;
+local[2] = local[1] + local[2];
+return local[2];
+}
+
+int main ( void )
+{
+int local[5];
+local[0] = 0;
+local[2] = 0;
+c3: ;
+local[3] = ( local[0] >= 10 );
+if ( local[3] ) goto c5;
+local[0] = local[0] + 1;
+local[3] = ( local[0] == 3 );
+if ( local[3] ) goto c3;
+local[3] = ( local[0] > 8 );
+if ( local[3] ) goto c5;
+local[1] = 0;
+c10: ;
+local[3] = ( local[1] >= local[0] );
+if ( local[3] ) goto c12;
+local[1] = local[1] + 1;
+local[3] = local[1] * local[1];
+local[3] = ( local[3] <= local[0] );
+if ( local[3] ) goto c14;
+local[3] = local[1] * 2;
+local[2] = local[2] + local[3];
+goto c10;
+c14: ;
+local[3] = local[0] + local[1];
+local[3] = local[3] * local[3];
+local[2] = local[2] + local[3];
+goto c10;
+c12: ;
+local[3] = 1 + local[0];
+global[local[3]] = local[2];
+goto c3;
+c5: ;
+write ( local[2] );
+local[3] = 1 + 7;
+local[3] = global[local[3]];
+local[4] = 1 + 4;
+local[4] = global[local[4]];
+local[4] = local[3] - local[4];
+write ( local[4] );
+local[0] = 0;
+c15: ;
+local[4] = ( local[0] >= 5 );
+if ( local[4] ) goto c17;
+local[4] = ( 1 >= 2 );
+if ( local[4] ) goto c20;
+local[0] = local[0] + 1;
+local[4] = ( local[0] >= 3 );
+if ( local[4] ) goto c20;
+local[4] = local[0] * 10;
+local[4] = local[4] + 1;
+write ( local[4] );
+c20: ;
+local[4] = fib ( local[0] ) ;
+global[0] = global[0] + local[4];
+goto c15;
+c17: ;
+write ( global[0] );
+return 0;
+}
+
@@ -0,0 +1,29 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int n, a[4];
+int hit(int x) {
+	write(x);
+	n = n + 1;
+	return x;
+}
+int main(void) {
+	int i;
+	i = 0;
+	while (i < 4 && hit(i) < 2) {
+		i = i + 1;
+	}
+	if (i > 100 || hit(7) == 7) {
+		write(n);
+	}
+	if (i == 2 && a[hit(3)] == 0) {
+		write(99);
+	}
+	if (i != 2 || hit(5) > 0) {
+		write(n);
+	}
+	while (i > 0 || hit(8) < 0) {
+		i = i - 1;
+	}
+	write(n);
+	return 0;
+}
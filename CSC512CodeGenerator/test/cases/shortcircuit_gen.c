@@ -0,0 +1,64 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int global[5];
+int hit ( int x )
+{
+int local[1];
+local[0] = x;
+write ( local[0] );
+global[0] = global[0] + 1;
+return local[0];
+}
+
+int main ( void )
+{
+int local[2];
+local[0] = 0;
+c1: ;
+local[1] = ( local[0] >= 4 );
+if ( local[1] ) goto c3;
+local[1] = hit ( local[0] ) ;
+local[1] = ( local[1] >= 2 );
+if ( local[1] ) goto c3;
+local[0] = local[0] + 1;
+goto c1;
+c3: ;
+local[1] = ( local[0] > 100 );
+if ( local[1] ) goto c5;
+local[1] = hit ( 7 ) ;
+local[1] = ( local[1] != 7 );
+if ( local[1] ) goto c6;
+c5: ;
+write ( global[0] );
+c6: ;
+local[1] = ( local[0] != 2 );
+if ( local[1] ) goto c9;
+local[1] = hit ( 3 ) ;
+local[1] = 1 + local[1];
+local[1] = global[local[1]];
+local[1] = ( local[1] != 0 );
+if ( local[1] ) goto c9;
+write ( 99 );
+c9: ;
+local[1] = ( local[0] != 2 );
+if ( local[1] ) goto c11;
+local[1] = hit ( 5 ) ;
+local[1] = ( local[1] <= 0 );
+if ( local[1] ) goto c12;
+c11: ;
+write ( global[0] );
+c12: ;
+c14: ;
+local[1] = ( local[0] > 0 );
+if ( local[1] ) goto c15;
+local[1] = hit ( 8 ) ;
+local[1] = ( local[1] >= 0 );
+if ( local[1] ) goto c16;
+c15: ;
+local[0] = local[0] - 1;
+goto c14;
+c16: ;
+write ( global[0] );
+return 0;
+}
+
@@ -0,0 +1 @@
+int main(void) { int x; x = 3 + ; }
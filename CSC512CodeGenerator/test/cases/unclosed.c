@@ -0,0 +1,3 @@
+int a;
+int f() { a = 1; }
+int g() { a = 2;
@@ -0,0 +1,16 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int main(void) {
+	int i;
+	i = 0;
+	while (i < 4) {
+		if (i == 0) {
+			x = 7;
+		}
+		if (i != 0) {
+			write(x + i * 3 + (i + 1) * (i + 2));
+		}
+		i = i + 1;
+	}
+	return 0;
+}
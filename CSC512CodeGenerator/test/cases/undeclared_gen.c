@@ -0,0 +1,29 @@
+#include <stdio.h>
+#define write(x) printf("%d\n", x)
+int main ( void )
+{
+int local[5];
+local[0] = 0;
+c1: ;
+local[2] = ( local[0] >= 4 );
+if ( local[2] ) goto c3;
+local[2] = ( local[0] != 0 );
+if ( local[2] ) goto c5;
+local[1] = 7;
+c5: ;
+local[2] = ( local[0] == 0 );
+if ( local[2] ) goto c7;
+local[2] = local[0] * 3;
+local[2] = local[1] + local[2];
+local[3] = local[0] + 1;
+local[4] = local[0] + 2;
+local[4] = local[3] * local[4];
+local[4] = local[2] + local[4];
+write ( local[4] );
+c7: ;
+local[0] = local[0] + 1;
+goto c1;
+c3: ;
+return 0;
+}
+
@@ -0,0 +1,53 @@
+#include <stdio.h>
+#define read(x) scanf("%d", &x)
+#define write(x) printf("%d\n", x)
+int g, ga[4];
+int bump(int k) {
+	g = g + k;
+	ga[1] = ga[1] + k;
+	return k;
+}
+void show(int v) {
+	write(v);
+}
+int main(void) {
+	int a, b, c, arr[4], i;
+	a = 3;
+	b = 4;
+	g = 1;
+	ga[1] = 2;
+	c = a * b + b * a;
+	write(c);
+	c = g + 1;
+	bump(5);
+	c = c + (g + 1);
+	write(c);
+	c = ga[1] * 2;
+	bump(1);
+	c = c + ga[1] * 2;
+	write(c);
+	arr[1] = 5;
+	c = arr[1] + a;
+	arr[1] = 10;
+	c = c + (arr[1] + a);
+	write(c);
+	i = 1;
+	c = arr[i] + 1;
+	arr[i - 1 + 1] = 20;
+	c = c + arr[i] + 1;
+	write(c);
+	c = a + b;
+	a = a + b;
+	c = c + (a + b);
+	write(c);
+	read(a);
+	c = a * 2 + a * 2;
+	write(c);
+	read(a);
+	c = c + a * 2;
+	write(c);
+	c = 7 * 6 + 010 + 0 * b + b * 1 - b / 1;
+	write(c);
+	show(g + g);
+	return 0;
+}
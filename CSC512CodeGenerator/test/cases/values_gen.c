@@ -0,0 +1,90 @@
+#include <stdio.h>
+#define read(x) scanf("%d", &x)
+#define write(x) printf("%d\n", x)
+int global[5];
+int bump ( int k )
+{
+int local[3];
+local[0] = k;
+global[0] = global[0] + local[0];
+local[1] = 1 + 1;
+local[2] = global[local[1]];
+local[2] = local[2] + local[0];
+global[local[1]] = local[2];
+return local[0];
+}
+
+void show ( int v )
+{
+int local[1];
+local[0] = v;
+write ( local[0] );
+}
+
+int main ( void )
+{
+int local[10];
+local[0] = 3;
+local[1] = 4;
+global[0] = 1;
+local[8] = 1 + 1;
+global[local[8]] = 2;
+local[9] = local[0] * local[1];
+local[2] = local[9] + local[9];
+write ( local[2] );
+local[2] = global[0] + 1;
+bump ( 5 );
+local[9] = global[0] + 1;
+local[2] = local[2] + local[9];
+write ( local[2] );
+local[9] = global[local[8]];
+local[2] = local[9] * 2;
+bump ( 1 );
+local[8] = global[local[8]];
+local[8] = local[8] * 2;
+local[2] = local[2] + local[8];
+write ( local[2] );
+local[8] = 3 + 1;
+local[local[8]] = 5;
+local[9] = local[local[8]];
+local[2] = local[9] + local[0];
+local[local[8]] = 10;
+local[8] = local[local[8]];
+local[8] = local[8] + local[0];
+local[2] = local[2] + local[8];
+write ( local[2] );
+local[7] = 1;
+local[8] = 3 + local[7];
+local[8] = local[local[8]];
+local[2] = local[8] + 1;
+local[8] = local[7] - 1;
+local[8] = local[8] + 1;
+local[8] = 3 + local[8];
+local[local[8]] = 20;
+local[8] = 3 + local[7];
+local[8] = local[local[8]];
+local[8] = local[2] + local[8];
+local[2] = local[8] + 1;
+write ( local[2] );
+local[2] = local[0] + local[1];
+local[0] = local[0] + local[1];
+local[8] = local[0] + local[1];
+local[2] = local[2] + local[8];
+write ( local[2] );
+read ( local[0] );
+local[8] = local[0] * 2;
+local[2] = local[8] + local[8];
+write ( local[2] );
+read ( local[0] );
+local[8] = local[0] * 2;
+local[2] = local[2] + local[8];
+write ( local[2] );
+local[8] = 42 + 010;
+local[8] = local[8] + local[1];
+local[2] = local[8] - local[1];
+write ( local[2] );
+local[8] = global[0] + global[0];
+show ( local[8] );
+return 0;
+}
+
@@ -1,6 +1,6 @@
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.EnumSet;
 
 
 /**
@@ -17,50 +17,90 @@ import java.util.ArrayList;
 public class Parser {
 	
 	private Scanner scanner;
-	private ArrayList<Scanner.Token> lookAheadTokens;
+	// data_decls needs two tokens of look ahead to tell a declaration from a function.
+	private static final int LOOK_AHEAD = 2;
+	private Scanner.TokenRing lookAheadTokens;
 	private Scanner.Token word;
 	
 	// Parsing counters.
 	int numVar, numFunc, numStatement;
 	
+	// First and follow sets used to choose between the productions of a rule.
+	private static final EnumSet<Scanner.TokenKind> TYPE_SPECIFIERS = EnumSet.of(Scanner.TokenKind.INT, 
+			Scanner.TokenKind.VOID, Scanner.TokenKind.BINARY, Scanner.TokenKind.DECIMAL);
+	private static final EnumSet<Scanner.TokenKind> NON_VOID_TYPE_SPECIFIERS = EnumSet.of(Scanner.TokenKind.INT, 
+			Scanner.TokenKind.BINARY, Scanner.TokenKind.DECIMAL);
+	// Follow of <data decls> without the type names, which need the look ahead in data_decls.
+	private static final EnumSet<Scanner.TokenKind> DATA_DECLS_FOLLOW = EnumSet.of(Scanner.TokenKind.IDENTIFIER, 
+			Scanner.TokenKind.IF, Scanner.TokenKind.WHILE, Scanner.TokenKind.RETURN, Scanner.TokenKind.BREAK, 
+			Scanner.TokenKind.CONTINUE, Scanner.TokenKind.READ, Scanner.TokenKind.WRITE, Scanner.TokenKind.PRINT, 
+			Scanner.TokenKind.RIGHT_BRACE);
+	private static final EnumSet<Scanner.TokenKind> ID_PRIME_FOLLOW = EnumSet.of(Scanner.TokenKind.COMMA, 
+			Scanner.TokenKind.SEMICOLON);
+	private static final EnumSet<Scanner.TokenKind> CONDITION_OPERATORS = EnumSet.of(Scanner.TokenKind.DOUBLE_EQUAL_SIGN, 
+			Scanner.TokenKind.NOT_EQUAL_SIGN, Scanner.TokenKind.GREATER_THAN, Scanner.TokenKind.GREATER_OR_EQUAL, 
+			Scanner.TokenKind.LESS_THAN, Scanner.TokenKind.LESS_OR_EQUAL);
+	private static final EnumSet<Scanner.TokenKind> LOGICAL_OPERATORS = EnumSet.of(Scanner.TokenKind.DOUBLE_AND_SIGN, 
+			Scanner.TokenKind.DOUBLE_OR_SIGN);
+	private static final EnumSet<Scanner.TokenKind> ADD_OPERATORS = EnumSet.of(Scanner.TokenKind.PLUS_SIGN, 
+			Scanner.TokenKind.MINUS_SIGN);
+	private static final EnumSet<Scanner.TokenKind> MULTIPLY_OPERATORS = EnumSet.of(Scanner.TokenKind.STAR_SIGN, 
+			Scanner.TokenKind.FORWARD_SLASH);
+	// Follow of <expression>, <term> adds the add operators and <factor> the multiply operators.
+	private static final EnumSet<Scanner.TokenKind> EXPRESSION_FOLLOW = EnumSet.of(Scanner.TokenKind.SEMICOLON, 
+			Scanner.TokenKind.DOUBLE_AND_SIGN, Scanner.TokenKind.DOUBLE_OR_SIGN, Scanner.TokenKind.RIGHT_PARENTHESIS, 
+			Scanner.TokenKind.DOUBLE_EQUAL_SIGN, Scanner.TokenKind.NOT_EQUAL_SIGN, Scanner.TokenKind.GREATER_THAN, 
+			Scanner.TokenKind.GREATER_OR_EQUAL, Scanner.TokenKind.LESS_THAN, Scanner.TokenKind.LESS_OR_EQUAL, 
+			Scanner.TokenKind.COMMA, Scanner.TokenKind.RIGHT_BRACKET);
+	private static final EnumSet<Scanner.TokenKind> TERM_FOLLOW = union(EXPRESSION_FOLLOW, ADD_OPERATORS);
+	private static final EnumSet<Scanner.TokenKind> FACTOR_FOLLOW = union(TERM_FOLLOW, MULTIPLY_OPERATORS);
+	
+	private static EnumSet<Scanner.TokenKind> union(EnumSet<Scanner.TokenKind> first, EnumSet<Scanner.TokenKind> second) {
+		EnumSet<Scanner.TokenKind> set = EnumSet.copyOf(first);
+		set.addAll(second);
+		return set;
+	}
+	
 	public Parser(String fileName) throws FileNotFoundException, IOException {
 		this.scanner = new Scanner(fileName);
-		this.lookAheadTokens = new ArrayList<Scanner.Token>();
+		this.lookAheadTokens = new Scanner.TokenRing(LOOK_AHEAD);
 		
 		this.numVar = 0;
 		this.numFunc = 0;
 		this.numStatement = 0;
 	}
 	
-	private Scanner.Token peekNextToken() {
-		Scanner.Token token = getNextToken();
-		lookAheadTokens.add(token);
-		return token;
+	/*
+	 * Look ahead k tokens past word without consuming them, reading from the scanner as needed.
+	 * peek(1) is the token nextWord will return next.
+	 */
+	private Scanner.Token peek(int k) {
+		while (lookAheadTokens.size() < k) {
+			lookAheadTokens.add(getNextToken());
+		}
+		return lookAheadTokens.peek(k);
 	}
 	
 	/*
 	 * First checks the look ahead collection, if it's empty - requests the scanner for a new token.
 	 */
 	public Scanner.Token nextWord() {
-		Scanner.Token token = null;		
-		if (lookAheadTokens.size() > 0) {
-			token = lookAheadTokens.get(0);
-			lookAheadTokens.remove(0);
-		} else {
-			token = getNextToken();
+		if (!lookAheadTokens.isEmpty()) {
+			return lookAheadTokens.poll();
 		}
-		return token;
+		return getNextToken();
 	}
 	
 	/*
 	 * Get next token that is not meta-statement from scanner, not used directly.
 	 * Called by getNextWord when there are no more look ahead tokens.
-	 * Called by peekNextToken to get a look ahead token.
+	 * Called by peek to get a look ahead token.
 	 */
 	private Scanner.Token getNextToken() {
 		Scanner.Token token = null;
 		// Get the non-meta statement tokens only.
 		do {
+			token = null;
 			if (scanner.hasMoreTokens()) {
 				token = scanner.getNextToken();
 			}
@@ -113,39 +153,41 @@ public class Parser {
 	<func list> --> empty
 	*/
 	public boolean func_list() {
-		if (word == null) {
-			// <func list> --> empty
-			// First+: {eof}
-			return true;
-		} else if (word.getTokenName().equals("int") || word.getTokenName().equals("void") 
-					|| word.getTokenName().equals("binary") || word.getTokenName().equals("decimal")) {
-				word = nextWord();
-				if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
-					return false;
-				}
-				word = nextWord();
+		// Loop over the repeated part instead of recursing, so long inputs do not run out of stack.
+		while (true) {
+			if (word == null) {
+				// <func list> --> empty
+				// First+: {eof}
+				return true;
+			} else if (TYPE_SPECIFIERS.contains(word.getTokenKind())) {
+					word = nextWord();
+					if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
+						return false;
+					}
+					word = nextWord();
 				
-				if (!word.getTokenName().equals("(")) {
-					return false;
-				}			
-				word = nextWord();
+					if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+						return false;
+					}			
+					word = nextWord();
 				
-				if (!parameter_list()) {
-					return false;
-				}
+					if (!parameter_list()) {
+						return false;
+					}
 				
-				if (!word.getTokenName().equals(")")) {
-					return false;
-				}			
-				word = nextWord();
+					if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+						return false;
+					}			
+					word = nextWord();
 				
-				if (!func_prime()) {
-					return false;
-				}
+					if (!func_prime()) {
+						return false;
+					}
 				
-				return func_list();
-		} else  {
-			return false;
+					continue;
+			} else  {
+				return false;
+			}
 		}
 	}
 	
@@ -154,10 +196,10 @@ public class Parser {
 	<func prime> --> left_brace <data decls> <statements> right_brace
 	*/
 	public boolean func_prime() {
-		if (word.getTokenName().equals(";")) {
+		if (word.getTokenKind() == Scanner.TokenKind.SEMICOLON) {
 			word = nextWord();
 			return true;
-		} else if (word.getTokenName().equals("{")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.LEFT_BRACE) {
 			word = nextWord();
 			if (!data_decls()) {
 				return false;
@@ -167,7 +209,7 @@ public class Parser {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals("}")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACE) {
 				return false;
 			}
 			word = nextWord();
@@ -188,10 +230,10 @@ public class Parser {
 	<parameter list> --> empty
 	*/
 	public boolean parameter_list() {
-		if (word.getTokenName().equals("void")) {
+		if (word.getTokenKind() == Scanner.TokenKind.VOID) {
 			word = nextWord();
 			return parameter_list_prime();
-		} else if (word.getTokenName().equals("int") || word.getTokenName().equals("binary") || word.getTokenName().equals("decimal")) {
+		} else if (NON_VOID_TYPE_SPECIFIERS.contains(word.getTokenKind())) {
 			word = nextWord();
 			
 			if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
@@ -199,7 +241,7 @@ public class Parser {
 			}
 			word = nextWord();
 			return ne_list_prime();
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <parameter list> --> empty
 			// First+: {empty, right_parenthesis}
 			return true;
@@ -216,7 +258,7 @@ public class Parser {
 		if (word.getTokenType() == Scanner.TokenType.IDENTIFIER) {
 			word = nextWord();
 			return ne_list_prime();
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <parameter list prime> --> empty
 			// First+: {empty, right_parenthesis}
 			return true;
@@ -230,10 +272,10 @@ public class Parser {
 	<ne list prime> --> empty
 	*/
 	public boolean ne_list_prime() {
-		if (word.getTokenName().equals(",")) {
+		if (word.getTokenKind() == Scanner.TokenKind.COMMA) {
 			word = nextWord();
 			return ne_list_part();
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <ne list prime> --> empty
 			// First+: {empty, right_parenthesis}
 			return true;
@@ -249,8 +291,7 @@ public class Parser {
 	<ne list part> --> decimal ID <ne list prime>
 	*/
 	public boolean ne_list_part() {
-		if (word.getTokenName().equals("int") || word.getTokenName().equals("void") 
-				|| word.getTokenName().equals("binary") || word.getTokenName().equals("decimal")) {
+		if (TYPE_SPECIFIERS.contains(word.getTokenKind())) {
 			word = nextWord();
 			if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
 				return false;
@@ -271,58 +312,57 @@ public class Parser {
 	*/
 	
 	public boolean data_decls() {
-		if (word == null || word.getTokenType() == Scanner.TokenType.IDENTIFIER || word.getTokenName().equals("if")
-				|| word.getTokenName().equals("while") || word.getTokenName().equals("return")
-				|| word.getTokenName().equals("break") || word.getTokenName().equals("continue") || word.getTokenName().equals("read")
-				|| word.getTokenName().equals("write") || word.getTokenName().equals("print") || word.getTokenName().equals("}")) {
-			// <data decls> --> empty
-			// First+: {empty, int, void, binary, decimal, ID, if, while, return, break, continue, read, write, print, right_brace, eof}
-			// Among these int, void, binary, decimal have been handled as part of the look ahead below.
-			return true;
-		} else if (word.getTokenName().equals("int") || word.getTokenName().equals("void") ||
-					word.getTokenName().equals("binary") || word.getTokenName().equals("decimal")) {
-				/*
-				 *  Match without consuming, unless we are sure this is a data declaration.
-				 *  Need to peek ahead two tokens, if we get identifier followed by left_parenthesis then
-				 *  we are matching a func_list and should return true without consuming anything. 
-				 *  Otherwise we keep on matching more data_decls. This is part of the rule: <data decls> --> empty
-				 *  The rest of the empty expansion is handled below.
-				 */
-				Scanner.Token peek1 = peekNextToken();
-				Scanner.Token peek2 = peekNextToken();
-				if (peek1 == null || peek2 == null) {
-					return false;
-				}
-				if (peek1.getTokenType() == Scanner.TokenType.IDENTIFIER && peek2.getTokenName().equals("(")) {
-					return true;
-				}
+		// Loop over the repeated part instead of recursing, so long inputs do not run out of stack.
+		while (true) {
+			if (word == null || DATA_DECLS_FOLLOW.contains(word.getTokenKind())) {
+				// <data decls> --> empty
+				// First+: {empty, int, void, binary, decimal, ID, if, while, return, break, continue, read, write, print, right_brace, eof}
+				// Among these int, void, binary, decimal have been handled as part of the look ahead below.
+				return true;
+			} else if (TYPE_SPECIFIERS.contains(word.getTokenKind())) {
+					/*
+					 *  Match without consuming, unless we are sure this is a data declaration.
+					 *  Need to peek ahead two tokens, if we get identifier followed by left_parenthesis then
+					 *  we are matching a func_list and should return true without consuming anything. 
+					 *  Otherwise we keep on matching more data_decls. This is part of the rule: <data decls> --> empty
+					 *  The rest of the empty expansion is handled below.
+					 */
+					Scanner.Token peek1 = peek(1);
+					Scanner.Token peek2 = peek(2);
+					if (peek1 == null || peek2 == null) {
+						return false;
+					}
+					if (peek1.getTokenType() == Scanner.TokenType.IDENTIFIER && peek2.getTokenKind() == Scanner.TokenKind.LEFT_PARENTHESIS) {
+						return true;
+					}
 				
-				// Safe to consume word.
-				word = nextWord();
-				if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
-					return false;
-				}
+					// Safe to consume word.
+					word = nextWord();
+					if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
+						return false;
+					}
 				
-				// We have read an identifier inside data declaration, increase the variable count.
-				numVar++;
-				word = nextWord();			
+					// We have read an identifier inside data declaration, increase the variable count.
+					numVar++;
+					word = nextWord();			
 				
-				if (!id_prime()) {
-					return false;
-				}
+					if (!id_prime()) {
+						return false;
+					}
 				
-				if (!id_list_prime()) {
-					return false;
-				}
+					if (!id_list_prime()) {
+						return false;
+					}
 				
-				if (!word.getTokenName().equals(";")) {
-					return false;
-				}
-				word = nextWord();
+					if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+						return false;
+					}
+					word = nextWord();
 				
-				return data_decls();
-		} else  {
-			return false;
+					continue;
+			} else  {
+				return false;
+			}
 		}
 	}
 	
@@ -331,20 +371,20 @@ public class Parser {
 	<id prime> --> empty
 	*/
 	public boolean id_prime() {
-		if (word.getTokenName().equals("[")) {
+		if (word.getTokenKind() == Scanner.TokenKind.LEFT_BRACKET) {
 			word = nextWord();
 			
 			if (!expression()) {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals("]")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACKET) {
 				return false;
 			}			
 			word = nextWord();
 			
 			return true;
-		} else if (word.getTokenName().equals(",") || word.getTokenName().equals(";")) {
+		} else if (ID_PRIME_FOLLOW.contains(word.getTokenKind())) {
 			// <id prime> --> empty
 			// First+: {empty, comma, semicolon}
 			return true;			
@@ -358,7 +398,7 @@ public class Parser {
 	<id list prime> --> empty
 	*/
 	public boolean id_list_prime() {
-		if (word.getTokenName().equals(",")) {
+		if (word.getTokenKind() == Scanner.TokenKind.COMMA) {
 			word = nextWord();
 			
 			if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
@@ -374,7 +414,7 @@ public class Parser {
 			}
 			
 			return id_list_prime();
-		} else if (word.getTokenName().equals(";")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.SEMICOLON) {
 			// <id list prime> --> empty
 			// First+: {empty, semicolon}
 			return true;
@@ -396,199 +436,213 @@ public class Parser {
 	<statements> --> empty
 	*/
 	public boolean statements() {
-		if (word.getTokenType() == Scanner.TokenType.IDENTIFIER) {
-			word = nextWord();
+		// Loop over the repeated part instead of recursing, so long inputs do not run out of stack.
+		while (true) {
+			switch (word.getTokenKind()) {
+			case IDENTIFIER: {
+				word = nextWord();
 			
-			if (!statement_prime()) {
-				return false;
+				if (!statement_prime()) {
+					return false;
+				}
+			
+				continue;
 			}
+			case IF: {
+				word = nextWord();
 			
-			return statements();
-		} else if (word.getTokenName().equals("if")) {
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals("(")) {
-				return false;
-			}
-			word = nextWord();
+				if (!condition_expression()) {
+					return false;
+				}
 			
-			if (!condition_expression()) {
-				return false;
-			}
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(")")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_BRACE) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals("{")) {
-				return false;
-			}
-			word = nextWord();
+				if (!statements()) {
+					return false;
+				}
 			
-			if (!statements()) {
-				return false;
-			}
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACE) {
+					return false;
+				}
 			
-			if (!word.getTokenName().equals("}")) {
-				return false;
+				// if statement parsed, increase the statement counter.
+				numStatement++;
+				word = nextWord();
+			
+				continue;
 			}
+			case WHILE: {
+				word = nextWord();
 			
-			// if statement parsed, increase the statement counter.
-			numStatement++;
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			return statements();
-		} else if (word.getTokenName().equals("while")) {
-			word = nextWord();
+				if (!condition_expression()) {
+					return false;
+				}
 			
-			if (!word.getTokenName().equals("(")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!condition_expression()) {
-				return false;
-			}
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_BRACE) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(")")) {
-				return false;
-			}
-			word = nextWord();
+				if (!statements()) {
+					return false;
+				}
 			
-			if (!word.getTokenName().equals("{")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACE) {
+					return false;
+				}
+				// while statement parsed, increase the statement counter.
+				numStatement++;
+				word = nextWord();
 			
-			if (!statements()) {
-				return false;
+				continue;
 			}
+			case RETURN: {
+				word = nextWord();
 			
-			if (!word.getTokenName().equals("}")) {
-				return false;
+				if (!return_statement_prime()) {
+					return false;
+				}
+			
+				continue;
 			}
-			// while statement parsed, increase the statement counter.
-			numStatement++;
-			word = nextWord();
+			case BREAK: {
+				word = nextWord();
 			
-			return statements();
-		} else if (word.getTokenName().equals("return")) {
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+					return false;
+				}
 			
-			if (!return_statement_prime()) {
-				return false;
+				// break statement parsed, increase the statement counter.
+				numStatement++;
+				word = nextWord();
+				continue;
 			}
+			case CONTINUE: {
+				word = nextWord();
 			
-			return statements();
-		} else if (word.getTokenName().equals("break")) {
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+					return false;
+				}
 			
-			if (!word.getTokenName().equals(";")) {
-				return false;
+				// continue statement parsed, increase the statement counter.
+				numStatement++;
+				word = nextWord();
+				continue;
 			}
+			case READ: {
+				word = nextWord();
 			
-			// break statement parsed, increase the statement counter.
-			numStatement++;
-			word = nextWord();
-			return statements();
-		} else if (word.getTokenName().equals("continue")) {
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(";")) {
-				return false;
-			}
+				if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
+					return false;
+				}
+				word = nextWord();
 			
-			// continue statement parsed, increase the statement counter.
-			numStatement++;
-			word = nextWord();
-			return statements();
-		} else if (word.getTokenName().equals("read")) {
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals("(")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+					return false;
+				}
 			
-			if (word.getTokenType() != Scanner.TokenType.IDENTIFIER) {
-				return false;
-			}
-			word = nextWord();
+				// read statement parsed, increase the statement counter.
+				numStatement++;
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(")")) {
-				return false;
+				continue;
 			}
-			word = nextWord();
+			case WRITE: {
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(";")) {
-				return false;
-			}
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			// read statement parsed, increase the statement counter.
-			numStatement++;
-			word = nextWord();
+				if (!expression()) {
+					return false;
+				}
 			
-			return statements();
-		} else if (word.getTokenName().equals("write")) {
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals("(")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+					return false;
+				}
 			
-			if (!expression()) {
-				return false;
-			}
+				// write statement parsed, increase the statement counter.
+				numStatement++;
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(")")) {
-				return false;
+				continue;
 			}
-			word = nextWord();
+			case PRINT: {
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(";")) {
-				return false;
-			}
+				if (word.getTokenKind() != Scanner.TokenKind.LEFT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			// write statement parsed, increase the statement counter.
-			numStatement++;
-			word = nextWord();
+				if (word.getTokenType() != Scanner.TokenType.STRING) {
+					return false;
+				}
+				word = nextWord();
 			
-			return statements();
-		} else if (word.getTokenName().equals("print")) {
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
+					return false;
+				}
+				word = nextWord();
 			
-			if (!word.getTokenName().equals("(")) {
-				return false;
-			}
-			word = nextWord();
+				if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
+					return false;
+				}
 			
-			if (word.getTokenType() != Scanner.TokenType.STRING) {
-				return false;
-			}
-			word = nextWord();
+				// print statement parsed, increase the statement counter.
+				numStatement++;
+				word = nextWord();
 			
-			if (!word.getTokenName().equals(")")) {
-				return false;
+				continue;
 			}
-			word = nextWord();
-			
-			if (!word.getTokenName().equals(";")) {
+			case RIGHT_BRACE: {
+				// <statements> --> empty
+				// First+: {empty, right_brace}
+				return true;
+			}
+			default:
 				return false;
 			}
-			
-			// print statement parsed, increase the statement counter.
-			numStatement++;
-			word = nextWord();
-			
-			return statements();
-		} else if (word.getTokenName().equals("}")) {
-			// <statements> --> empty
-			// First+: {empty, right_brace}
-			return true;
-		} else {
-			return false;
 		}
 	}
 	
@@ -598,14 +652,14 @@ public class Parser {
 	<statement prime> --> left_parenthesis <expr list> right_parenthesis semicolon
 	*/
 	public boolean statement_prime() {
-		if (word.getTokenName().equals("=")) {
+		if (word.getTokenKind() == Scanner.TokenKind.EQUAL_SIGN) {
 			word = nextWord();
 			
 			if (!expression()) {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals(";")) {
+			if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
 				return false;
 			}
 			// Reached semicolon of a statement, increase the counter.
@@ -613,19 +667,19 @@ public class Parser {
 			word = nextWord();
 			
 			return true;
-		} else if (word.getTokenName().equals("[")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.LEFT_BRACKET) {
 			word = nextWord();
 			
 			if (!expression()) {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals("]")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACKET) {
 				return false;
 			}
 			word = nextWord();
 			
-			if (!word.getTokenName().equals("=")) {
+			if (word.getTokenKind() != Scanner.TokenKind.EQUAL_SIGN) {
 				return false;
 			}
 			word = nextWord();
@@ -634,7 +688,7 @@ public class Parser {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals(";")) {
+			if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
 				return false;
 			}
 			
@@ -643,19 +697,19 @@ public class Parser {
 			word = nextWord();
 			
 			return true;
-		} else if (word.getTokenName().equals("(")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.LEFT_PARENTHESIS) {
 			word = nextWord();
 			
 			if (!expr_list()) {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals(")")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
 				return false;
 			}
 			word = nextWord();
 			
-			if (!word.getTokenName().equals(";")) {
+			if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
 				return false;
 			}
 			
@@ -676,7 +730,7 @@ public class Parser {
 	public boolean expr_list() {
 		if (expression()) {
 			return ne_expr_list_prime();
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <expr list> --> empty
 			// First+: {empty, right_parenthesis}
 			return true;
@@ -690,7 +744,7 @@ public class Parser {
 	<ne expr list prime> --> empty
 	*/
 	public boolean ne_expr_list_prime() {
-		if (word.getTokenName().equals(",")) {
+		if (word.getTokenKind() == Scanner.TokenKind.COMMA) {
 			word = nextWord();
 			
 			if (!expression()) {
@@ -698,7 +752,7 @@ public class Parser {
 			}
 			
 			return ne_expr_list_prime();
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <ne expr list prime> --> empty
 			// First+: {empty, right_parenthesis}
 			return true;
@@ -724,10 +778,10 @@ public class Parser {
 	<condition expression prime> --> empty
 	*/
 	public boolean condition_expression_prime() {
-		if (word.getTokenName().equals("&&") || word.getTokenName().equals("||")) {
+		if (LOGICAL_OPERATORS.contains(word.getTokenKind())) {
 			word = nextWord();
 			return condition();
-		} else if (word.getTokenName().equals(")")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.RIGHT_PARENTHESIS) {
 			// <condition expression prime> --> empty
 			// First+: {empty, right_parenthesis}
 			return true;
@@ -756,9 +810,7 @@ public class Parser {
 	<condition prime> --> <=  <expression>
 	*/
 	public boolean condition_prime() {
-		if (word.getTokenName() .equals("==") || word.getTokenName().equals("!=")
-				|| word.getTokenName().equals(">") || word.getTokenName().equals(">=")
-				|| word.getTokenName().equals("<") || word.getTokenName().equals("<=")) {
+		if (CONDITION_OPERATORS.contains(word.getTokenKind())) {
 			word = nextWord();
 			
 			return expression();
@@ -773,7 +825,7 @@ public class Parser {
 	*/
 	public boolean return_statement_prime() {
 		if (expression()) {
-			if (!word.getTokenName().equals(";")) {
+			if (word.getTokenKind() != Scanner.TokenKind.SEMICOLON) {
 				return false;
 			}
 			
@@ -782,7 +834,7 @@ public class Parser {
 			word = nextWord();
 			
 			return true;
-		} else if (word.getTokenName().equals(";")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.SEMICOLON) {
 			// Reached semicolon of a return statement, increase the counter.
 			numStatement++;
 			word = nextWord();
@@ -809,7 +861,7 @@ public class Parser {
 	<expression prime> --> empty
 	*/
 	public boolean expression_prime() {
-		if (word.getTokenName().equals("+") || word.getTokenName().equals("-")) {
+		if (ADD_OPERATORS.contains(word.getTokenKind())) {
 			word = nextWord();
 			
 			if (!term()) {
@@ -817,12 +869,7 @@ public class Parser {
 			}
 			
 			return expression_prime();
-		} else if (word.getTokenName().equals(";") || word.getTokenName().equals("&&")
-					|| word.getTokenName().equals("||") || word.getTokenName().equals(")")
-					|| word.getTokenName().equals("==") || word.getTokenName().equals("!=")
-					|| word.getTokenName().equals(">") || word.getTokenName().equals(">=")
-					|| word.getTokenName().equals("<") || word.getTokenName().equals("<=")
-					|| word.getTokenName().equals(",") || word.getTokenName().equals("]")) {
+		} else if (EXPRESSION_FOLLOW.contains(word.getTokenKind())) {
 			// <expression prime> --> empty
 			// First+: {empty, semicolon, double_and_sign, double_or_sign, right_parenthesis, 
 			//			==, !=, >, >=, <, <=, comma, right_bracket}
@@ -849,7 +896,7 @@ public class Parser {
 	<term prime> --> empty
 	*/
 	public boolean term_prime() {
-		if (word.getTokenName().equals("*") || word.getTokenName().equals("/")) {
+		if (MULTIPLY_OPERATORS.contains(word.getTokenKind())) {
 			word = nextWord();
 			
 			if (!factor()) {
@@ -857,13 +904,7 @@ public class Parser {
 			}
 			
 			return term_prime();
-		} else if (word.getTokenName().equals("+") || word.getTokenName().equals("-")
-					|| word.getTokenName().equals(";") || word.getTokenName().equals("&&")
-					|| word.getTokenName().equals("||") || word.getTokenName().equals(")")
-					|| word.getTokenName().equals("==") || word.getTokenName().equals("!=")
-					|| word.getTokenName().equals(">") || word.getTokenName().equals(">=")
-					|| word.getTokenName().equals("<") || word.getTokenName().equals("<=")
-					|| word.getTokenName().equals(",") || word.getTokenName().equals("]")) {
+		} else if (TERM_FOLLOW.contains(word.getTokenKind())) {
 				// <term prime> --> empty
 				// First+: {empty, plus_sign, minus_sign, semicolon, double_and_sign, double_or_sign, right_parenthesis, 
 				//			==, !=, >, >=, <, <=, comma, right_bracket}
@@ -887,7 +928,7 @@ public class Parser {
 			word = nextWord();
 			
 			return true;
-		} else if (word.getTokenName().equals("-")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.MINUS_SIGN) {
 			word = nextWord();
 			
 			if (word.getTokenType() != Scanner.TokenType.NUMBER) {
@@ -895,14 +936,14 @@ public class Parser {
 			}			
 			word = nextWord();
 			return true;
-		} else if (word.getTokenName().equals("(")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.LEFT_PARENTHESIS) {
 			word = nextWord();
 			
 			if (!expression()) {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals(")")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
 				return false;
 			}			
 			word = nextWord();
@@ -918,38 +959,31 @@ public class Parser {
 	<factor prime> --> empty
 	*/
 	public boolean factor_prime() {
-		if (word.getTokenName().equals("[")) {
+		if (word.getTokenKind() == Scanner.TokenKind.LEFT_BRACKET) {
 			word = nextWord();
 			
 			if (!expression()) {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals("]")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_BRACKET) {
 				return false;
 			}			
 			word = nextWord();
 			return true;
-		} else if (word.getTokenName().equals("(")) {
+		} else if (word.getTokenKind() == Scanner.TokenKind.LEFT_PARENTHESIS) {
 			word = nextWord();
 			
 			if (!expr_list()) {
 				return false;
 			}
 			
-			if (!word.getTokenName().equals(")")) {
+			if (word.getTokenKind() != Scanner.TokenKind.RIGHT_PARENTHESIS) {
 				return false;
 			}			
 			word = nextWord();
 			return true;
-		} else if (word.getTokenName().equals("*") || word.getTokenName().equals("/") 
-				|| word.getTokenName().equals("+") || word.getTokenName().equals("-")
-				|| word.getTokenName().equals(";") || word.getTokenName().equals("&&")
-				|| word.getTokenName().equals("||") || word.getTokenName().equals(")")
-				|| word.getTokenName().equals("==") || word.getTokenName().equals("!=")
-				|| word.getTokenName().equals(">") || word.getTokenName().equals(">=")
-				|| word.getTokenName().equals("<") || word.getTokenName().equals("<=")
-				|| word.getTokenName().equals(",") || word.getTokenName().equals("]")) {
+		} else if (FACTOR_FOLLOW.contains(word.getTokenKind())) {
 			// <factor prime> --> empty
 			// First+: {empty, star_sign, forward_slash, plus_sign, minus_sign, semicolon, 
 			//			double_and_sign, double_or_sign, right_parenthesis, ==, !=, >, >=, <, <=, comma, right_bracket}
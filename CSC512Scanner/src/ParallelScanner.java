@@ -0,0 +1,195 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+
+/**
+ * Owner: ShaownS
+ * File: ParallelScanner.java
+ * Package:
+ * Project: CSC512Scanner
+ * Email: ssarker@ncsu.edu
+ */
+
+/**
+ * Scans a file into one Scanner.TokenBuffer on several threads. The file is split into
+ * chunks and every chunk is scanned by a Scanner of its own, starting in the start state
+ * at the first byte of the chunk and adding the tokens that start in the chunk.
+ *
+ * A chunk can start inside a token of the previous one, such as a string, a meta statement
+ * or the second character of && or <=, and is then scanned wrong up to some point. The
+ * chunks are joined in order: where the last token of the previous chunks reaches into the
+ * next chunk, the file is scanned again from the end of that token until a token starts
+ * at the same offset as a token of the chunk. From there on the chunk was scanned the same
+ * as it would have been sequentially, so the rest of its tokens are taken as they are.
+ * The result is the same as scanning the whole file with scanTokens.
+ *
+ * A scanner error in a chunk is only thrown when the joining reaches it, since an error
+ * in a part that was scanned wrong is not a real one.
+ */
+public class ParallelScanner {
+
+	// Smallest chunk worth a thread of its own.
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+	// Chunks per thread, so a thread that finishes early can take another one.
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	// Guess of the bytes per token, for the first size of the token buffers.
+	private static final int BYTES_PER_TOKEN = 4;
+
+	// Tokens that start in one chunk, scanned from the start of the chunk.
+	private static class Chunk {
+		private long start;
+		private long end;
+		private Scanner.TokenBuffer tokens;
+
+		// Set when the scanner stopped at an error, the tokens are the ones before it.
+		private Scanner.ScannerException error;
+
+		public Chunk(long start, long end) {
+			this.start = start;
+			this.end = end;
+			this.tokens = new Scanner.TokenBuffer((int) Math.min((end - start) / BYTES_PER_TOKEN, Integer.MAX_VALUE - 8));
+		}
+	}
+
+	// Scans the file on the given number of threads.
+	public static Scanner.TokenBuffer scan(String srcFilename, int threads) throws IOException {
+		long size = getFileSize(srcFilename);
+		long chunks = Math.min((long) threads * CHUNKS_PER_THREAD, size / MIN_CHUNK_SIZE);
+		return scan(srcFilename, threads, (int) Math.max(chunks, 1));
+	}
+
+	// Scans the file in the given number of chunks on the given number of threads.
+	public static Scanner.TokenBuffer scan(final String srcFilename, int threads, int chunkCount) throws IOException {
+		long size = getFileSize(srcFilename);
+		chunkCount = (int) Math.max(Math.min(chunkCount, size), 1);
+
+		List<Callable<Chunk>> tasks = new ArrayList<Callable<Chunk>>();
+		for (int i = 0; i < chunkCount; i++) {
+			final Chunk chunk = new Chunk(size * i / chunkCount, size * (i + 1) / chunkCount);
+			tasks.add(new Callable<Chunk>() {
+				public Chunk call() throws IOException {
+					scanChunk(srcFilename, chunk);
+					return chunk;
+				}
+			});
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(Math.max(threads, 1));
+		try {
+			List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>();
+			for (Callable<Chunk> task : tasks) {
+				futures.add(pool.submit(task));
+			}
+
+			Scanner.TokenBuffer result = null;
+			long resumeOffset = 0;
+			for (Future<Chunk> future : futures) {
+				Chunk chunk = getChunk(future);
+				if (result == null) {
+					// Room for the tokens of the first chunk times the number of chunks.
+					result = new Scanner.TokenBuffer((int) Math.min((long) chunk.tokens.size() * chunkCount,
+							Integer.MAX_VALUE - 8));
+				}
+
+				int first = 0;
+				if (resumeOffset > chunk.start) {
+					first = resynchronize(srcFilename, resumeOffset, chunk, result);
+				}
+				if (first != -1) {
+					result.addAll(chunk.tokens, first, chunk.tokens.size());
+					if (chunk.error != null) {
+						// The chunk was scanned right up to the error, so it is a real one.
+						throw chunk.error;
+					}
+				}
+				if (result.size() > 0) {
+					int last = result.size() - 1;
+					resumeOffset = result.getStart(last) + result.getLength(last);
+				}
+			}
+			return result;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static long getFileSize(String srcFilename) throws IOException {
+		FileInputStream srcStream = new FileInputStream(srcFilename);
+		try {
+			return srcStream.getChannel().size();
+		} finally {
+			srcStream.close();
+		}
+	}
+
+	// Scans the tokens that start in the chunk, from its start in the start state.
+	private static void scanChunk(String srcFilename, Chunk chunk) throws IOException {
+		Scanner scanner = new Scanner(srcFilename, chunk.start);
+		try {
+			scanner.scanTokensBefore(chunk.tokens, chunk.end);
+		} catch (Scanner.ScannerException e) {
+			chunk.error = e;
+		} finally {
+			scanner.close();
+		}
+	}
+
+	private static Chunk getChunk(Future<Chunk> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while scanning.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw (Error) cause;
+		}
+	}
+
+	/*
+	 * Scans the file again from the offset, where the last token so far ends, adding the
+	 * tokens to the result until one starts at the same offset as a token of the chunk.
+	 * Returns the index of that token in the chunk, or -1 if there is none, in which case
+	 * all the tokens that start in the chunk have been added.
+	 */
+	private static int resynchronize(String srcFilename, long offset, Chunk chunk, Scanner.TokenBuffer result)
+			throws IOException {
+		Scanner scanner = new Scanner(srcFilename, offset);
+		Scanner.TokenBuffer next = new Scanner.TokenBuffer(1);
+		int i = 0;
+		try {
+			while (true) {
+				next.clear();
+				if (scanner.scanTokens(next, 1) == 0 || next.getStart(0) >= chunk.end) {
+					// End of the file or of the chunk.
+					return -1;
+				}
+
+				long start = next.getStart(0);
+				while (i < chunk.tokens.size() && chunk.tokens.getStart(i) < start) {
+					i++;
+				}
+				if (i < chunk.tokens.size() && chunk.tokens.getStart(i) == start) {
+					return i;
+				}
+				result.add(next.getKind(0), start, next.getLength(0));
+			}
+		} finally {
+			scanner.close();
+		}
+	}
+}